@@ -0,0 +1,70 @@
+package com.example.hotel.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação do CPF do cadastro de hóspede (@Pattern), com CPF válido e inválido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HospedeRequestBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private HospedeRequest valido;
+    private HospedeRequest invalido;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valido = request("123.456.789-10");
+        invalido = request("12345678910");
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<HospedeRequest>> validarCpfValido() {
+        return validator.validateProperty(valido, "cpf");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<HospedeRequest>> validarCpfInvalido() {
+        return validator.validateProperty(invalido, "cpf");
+    }
+
+    private static HospedeRequest request(String cpf) {
+        return HospedeRequest.builder()
+                .nome("Maria Silva")
+                .dataNascimento(LocalDate.of(1990, 5, 17))
+                .telefone("(43)99999-9999")
+                .cpf(cpf)
+                .build();
+    }
+}
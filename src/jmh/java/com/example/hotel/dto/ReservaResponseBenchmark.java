@@ -0,0 +1,96 @@
+package com.example.hotel.dto;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão da entidade para resposta e serialização da listagem de reservas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservaResponseBenchmark {
+
+    // Tamanho padrão e máximo de uma página da listagem
+    @Param({"50", "500"})
+    private int tamanhoPagina;
+
+    private Reservas reserva;
+    private List<ReservaResponse> pagina;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+        hospede.setNome("Maria Silva");
+        hospede.setCpf("123.456.789-10");
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 5, 17));
+
+        var quarto = new Quarto(7);
+        quarto.setNumero(401);
+        quarto.setQtdHospedes(4);
+        quarto.setTipoQuarto(ETipoQuarto.EXECUTIVO);
+        quarto.setValor(BigDecimal.valueOf(400));
+        quarto.setDisponibilidade(false);
+
+        reserva = new Reservas();
+        reserva.setId(1);
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quarto);
+        reserva.setCheckin(LocalDate.of(2025, 7, 10));
+        reserva.setCheckout(LocalDate.of(2025, 7, 14));
+        reserva.setQtdHospedes(2);
+        reserva.setSituacao(true);
+        reserva.setValorTotal(BigDecimal.valueOf(1600));
+
+        pagina = new ArrayList<>(tamanhoPagina);
+        for (int i = 0; i < tamanhoPagina; i++) {
+            pagina.add(ReservaResponse.fromEntity(reserva));
+        }
+
+        // Mesma configuração de datas que o Spring Boot aplica ao ObjectMapper da aplicação
+        writer = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writer();
+    }
+
+    @Benchmark
+    public ReservaResponse fromEntity() {
+        return ReservaResponse.fromEntity(reserva);
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws JsonProcessingException {
+        return writer.writeValueAsBytes(pagina);
+    }
+}
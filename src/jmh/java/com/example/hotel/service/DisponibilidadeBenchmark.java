@@ -0,0 +1,104 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.DisponibilidadeException;
+import com.example.hotel.model.Quarto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checagens de disponibilidade em memória: os bits do calendário usados ao reservar,
+ * o índice de períodos usado pela busca e a busca completa de quartos livres.
+ * O cálculo do valor total fica no {@link TarifasBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisponibilidadeBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+
+    @Param({"100", "1000"})
+    private int quartos;
+
+    // Estadia longa, para comparar o custo por noite dos bits com o índice de períodos
+    @Param({"3", "30"})
+    private int noites;
+
+    private CalendarioOcupacao calendario;
+    private QuartoService quartoService;
+    private LocalDate checkin;
+    private LocalDate checkout;
+
+    @Setup
+    public void setUp() {
+        // Sem repositórios: o calendário e o catálogo são preenchidos direto
+        calendario = new CalendarioOcupacao(null);
+        var catalogo = new CatalogoQuartos(null);
+        var random = new Random(42);
+
+        for (int id = 1; id <= quartos; id++) {
+            var quarto = new Quarto(id);
+            quarto.setNumero(100 + id);
+            quarto.setQtdHospedes(1 + id % 5);
+            quarto.setTipoQuarto(ETipoQuarto.values()[id % ETipoQuarto.values().length]);
+            quarto.setValor(BigDecimal.valueOf(150 + id % 5 * 50));
+            quarto.setDisponibilidade(true);
+            catalogo.registrar(quarto);
+
+            // Um terço dos quartos fica livre, para a busca sempre ter o que devolver
+            if (id % 3 == 0) {
+                continue;
+            }
+
+            // Um ano de reservas curtas com intervalos, como num hotel com boa ocupação
+            var dia = INICIO;
+            while (dia.isBefore(INICIO.plusYears(1))) {
+                var saida = dia.plusDays(1 + random.nextInt(4));
+                calendario.ocupar(id, dia, saida);
+                dia = saida.plusDays(random.nextInt(3));
+            }
+        }
+
+        quartoService = new QuartoService(catalogo, calendario);
+        checkin = INICIO.plusDays(180);
+        checkout = checkin.plusDays(noites);
+    }
+
+    @Benchmark
+    public boolean estaLivre() {
+        return calendario.estaLivre(quartos / 2, checkin, checkout);
+    }
+
+    @Benchmark
+    public boolean semSobreposicao() {
+        return calendario.semSobreposicao(quartos / 2, checkin, checkout);
+    }
+
+    @Benchmark
+    public List<Quarto> obterQuartosDisponiveis() {
+        try {
+            return quartoService.obterQuartosDisponiveis(checkin, checkout, 2, null);
+        } catch (DisponibilidadeException nenhumLivre) {
+            return List.of();
+        }
+    }
+}
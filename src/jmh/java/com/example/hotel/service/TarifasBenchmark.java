@@ -0,0 +1,138 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.PlanoTarifa;
+import com.example.hotel.model.Quarto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cotação de uma estadia com tarifas sazonais: a soma em centavos sobre a tabela compilada
+ * contra a avaliação dos planos noite a noite em BigDecimal. O valor fixo por noite, que
+ * era o cálculo anterior às tarifas, fica como referência. Com {@code -prof gc} aparece
+ * também a alocação de cada caminho.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TarifasBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+
+    @Param({"3", "14"})
+    private int noites;
+
+    private TabelaTarifas tabela;
+    private List<PlanoTarifa> planosDouble;
+    private Quarto quarto;
+    private LocalDate checkin;
+    private LocalDate checkout;
+    private long valorPadrao;
+
+    @Setup
+    public void setUp() {
+        tabela = new TabelaTarifas(null);
+        planosDouble = new ArrayList<>();
+
+        // Dois anos de temporadas mensais com fim de semana mais caro e, por cima, feriados prolongados
+        int id = 1;
+        for (ETipoQuarto tipo : ETipoQuarto.values()) {
+            for (int mes = 0; mes < 24; mes++) {
+                var inicio = INICIO.plusMonths(mes);
+                var temporada = plano(id++, tipo, inicio, inicio.plusMonths(1).minusDays(1),
+                        BigDecimal.valueOf(180 + mes % 12 * 15 + tipo.ordinal() * 40), 0);
+                temporada.getValorPorDiaSemana().put(DayOfWeek.FRIDAY, temporada.getValor().add(BigDecimal.valueOf(60)));
+                temporada.getValorPorDiaSemana().put(DayOfWeek.SATURDAY, temporada.getValor().add(BigDecimal.valueOf(80)));
+                registrar(temporada);
+
+                if (mes % 3 == 0) {
+                    registrar(plano(id++, tipo, inicio.plusDays(10), inicio.plusDays(16),
+                            BigDecimal.valueOf(450 + tipo.ordinal() * 50), 1));
+                }
+            }
+        }
+
+        quarto = new Quarto(1);
+        quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+        quarto.setValor(BigDecimal.valueOf(275.50));
+
+        // Estadia que atravessa a troca de mês e um feriado
+        checkin = INICIO.plusMonths(6).minusDays(4);
+        checkout = checkin.plusDays(noites);
+        valorPadrao = TabelaTarifas.centavos(quarto.getValor());
+    }
+
+    @Benchmark
+    public long cotarTabela() {
+        return tabela.cotar(ETipoQuarto.DOUBLE, checkin.toEpochDay(), checkout.toEpochDay(), valorPadrao);
+    }
+
+    @Benchmark
+    public BigDecimal valorTotalTabela() {
+        return tabela.valorTotal(quarto, checkin, checkout);
+    }
+
+    @Benchmark
+    public BigDecimal cotarPlanosBigDecimal() {
+        // Para cada noite, o plano de maior prioridade que a cobre e o valor do dia da semana
+        BigDecimal total = BigDecimal.ZERO;
+        for (var noite = checkin; noite.isBefore(checkout); noite = noite.plusDays(1)) {
+            PlanoTarifa vigente = null;
+            for (PlanoTarifa plano : planosDouble) {
+                if (!noite.isBefore(plano.getInicio()) && !noite.isAfter(plano.getFim())
+                        && (vigente == null || plano.getPrioridade() >= vigente.getPrioridade())) {
+                    vigente = plano;
+                }
+            }
+            total = total.add(vigente == null
+                    ? quarto.getValor()
+                    : vigente.getValorPorDiaSemana().getOrDefault(noite.getDayOfWeek(), vigente.getValor()));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal valorFixoBigDecimal() {
+        return quarto.getValor().multiply(BigDecimal.valueOf(ChronoUnit.DAYS.between(checkin, checkout)));
+    }
+
+    private void registrar(PlanoTarifa plano) {
+        tabela.registrar(plano);
+        if (plano.getTipoQuarto() == ETipoQuarto.DOUBLE) {
+            planosDouble.add(plano);
+        }
+    }
+
+    private static PlanoTarifa plano(int id, ETipoQuarto tipo, LocalDate inicio, LocalDate fim,
+                                     BigDecimal valor, int prioridade) {
+        var plano = new PlanoTarifa();
+        plano.setId(id);
+        plano.setNome("Plano " + id);
+        plano.setTipoQuarto(tipo);
+        plano.setInicio(inicio);
+        plano.setFim(fim);
+        plano.setValor(valor);
+        plano.setPrioridade(prioridade);
+        return plano;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.hotel.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tarefas @Scheduled, como o despacho dos eventos de reserva
+@Configuration
+@EnableScheduling
+public class ConfiguracaoAgendamento {
+}
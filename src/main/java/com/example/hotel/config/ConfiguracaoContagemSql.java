@@ -0,0 +1,19 @@
+package com.example.hotel.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConfiguracaoContagemSql {
+
+    @Bean
+    public HibernatePropertiesCustomizer contagemSqlHibernate() {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContagemSql.Inspetor());
+            // O Hibernate só aceita o nome da classe e cria um ouvinte por sessão
+            propriedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ContagemSql.Cronometro.class.getName());
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.hotel.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Réplica de leitura, ligada quando {@code hotel.datasource.replica.jdbc-url} está preenchida.
+ * O primário continua configurado por {@code spring.datasource.*}; a réplica aceita as mesmas
+ * propriedades do Hikari em {@code hotel.datasource.replica.*}. Sem a propriedade, o Spring Boot
+ * cria o pool único de sempre.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "hotel.datasource.replica", name = "jdbc-url")
+public class ConfiguracaoReplica {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("hotel.datasource.replica")
+    public HikariDataSource replica() {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primario") DataSource primario, @Qualifier("replica") DataSource replica) {
+        var roteamento = new RoteamentoDataSource();
+        roteamento.setTargetDataSources(Map.of(
+                RoteamentoDataSource.Destino.PRIMARIO, primario,
+                RoteamentoDataSource.Destino.REPLICA, replica));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    @Bean
+    public FiltroLeituraPropria filtroLeituraPropria(
+            @Value("${hotel.datasource.leitura-propria:5s}") Duration janela) {
+        return new FiltroLeituraPropria(janela);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.hotel.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.time.Duration;
+
+/**
+ * Comandos SQL emitidos pela requisição em andamento na thread, e o tempo gasto neles.
+ * O {@link FiltroContagemSql} abre e fecha a contagem; o Hibernate alimenta pelos dois
+ * ganchos abaixo, registrados em {@link ConfiguracaoContagemSql}. Fora de uma requisição
+ * (cargas na inicialização, tarefas agendadas) nada é contado.
+ */
+public final class ContagemSql {
+
+    private static final ThreadLocal<ContagemSql> ATUAL = new ThreadLocal<>();
+
+    private int comandos;
+    private long nanos;
+
+    private ContagemSql() {
+    }
+
+    public static ContagemSql iniciar() {
+        var contagem = new ContagemSql();
+        ATUAL.set(contagem);
+        return contagem;
+    }
+
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    public int getComandos() {
+        return comandos;
+    }
+
+    public Duration getDuracao() {
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Conta cada comando que o Hibernate prepara, inclusive os de um lote.
+     */
+    public static class Inspetor implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            ContagemSql contagem = ATUAL.get();
+            if (contagem != null) {
+                contagem.comandos++;
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Mede a execução dos comandos. O Hibernate cria uma instância por sessão.
+     */
+    public static class Cronometro implements SessionEventListener {
+
+        private long inicio;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            somar();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            somar();
+        }
+
+        private void somar() {
+            ContagemSql contagem = ATUAL.get();
+            if (contagem != null) {
+                contagem.nanos += System.nanoTime() - inicio;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.hotel.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Conta os comandos SQL de cada requisição. O total vai para {@code hotel.sql.comandos} e o
+ * tempo para {@code hotel.sql.tempo}, por método e rota. Fora de produção também volta nos
+ * cabeçalhos {@code X-Sql-Comandos} e {@code X-Sql-Tempo-Ms}, escritos quando a resposta
+ * começa a ser enviada. A contagem completa fica no atributo {@link #ATRIBUTO} da requisição.
+ * A exportação escreve o corpo na própria thread da requisição: os cabeçalhos levam só os
+ * comandos anteriores ao início do corpo, e as métricas contam a requisição inteira.
+ */
+@Component
+public class FiltroContagemSql extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO = ContagemSql.class.getName();
+    public static final String CABECALHO_COMANDOS = "X-Sql-Comandos";
+    public static final String CABECALHO_TEMPO = "X-Sql-Tempo-Ms";
+
+    private final MeterRegistry registry;
+    private final boolean cabecalhos;
+
+    public FiltroContagemSql(MeterRegistry registry,
+                             @Value("${hotel.sql.contagem.cabecalhos:true}") boolean cabecalhos) {
+        this.registry = registry;
+        this.cabecalhos = cabecalhos;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContagemSql contagem = ContagemSql.iniciar();
+        request.setAttribute(ATRIBUTO, contagem);
+        var resposta = cabecalhos ? new RespostaComContagem(response, contagem) : response;
+
+        try {
+            filterChain.doFilter(request, resposta);
+        } finally {
+            ContagemSql.encerrar();
+            if (resposta instanceof RespostaComContagem comContagem) {
+                // Respostas sem corpo ainda não escreveram os cabeçalhos
+                comContagem.escreverCabecalhos();
+            }
+            registrar(request, contagem);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ContagemSql contagem) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("hotel.sql.comandos")
+                .description("Comandos SQL por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(contagem.getComandos());
+        Timer.builder("hotel.sql.tempo")
+                .description("Tempo gasto em comandos SQL por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(contagem.getDuracao());
+    }
+
+    private static final class RespostaComContagem extends HttpServletResponseWrapper {
+
+        private final ContagemSql contagem;
+        private boolean escritos;
+
+        RespostaComContagem(HttpServletResponse response, ContagemSql contagem) {
+            super(response);
+            this.contagem = contagem;
+        }
+
+        void escreverCabecalhos() {
+            if (escritos || isCommitted()) {
+                return;
+            }
+            escritos = true;
+            setHeader(CABECALHO_COMANDOS, Integer.toString(contagem.getComandos()));
+            setHeader(CABECALHO_TEMPO, Long.toString(contagem.getDuracao().toMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            escreverCabecalhos();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            escreverCabecalhos();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escreverCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            escreverCabecalhos();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            escreverCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            escreverCabecalhos();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.hotel.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Leitura das próprias escritas com réplica. Quando uma requisição grava, a resposta leva
+ * o cookie {@link #COOKIE} com a hora da escrita; enquanto ele tiver menos que a janela
+ * configurada, as leituras desse cliente vão ao primário, dando tempo para a réplica alcançar.
+ * Com a janela zerada, toda leitura somente leitura dos serviços vai à réplica.
+ */
+public class FiltroLeituraPropria extends OncePerRequestFilter {
+
+    public static final String COOKIE = "hotel-escrita";
+
+    private static final ThreadLocal<Contexto> ATUAL = new ThreadLocal<>();
+
+    private final Duration janela;
+
+    public FiltroLeituraPropria(Duration janela) {
+        this.janela = janela;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (janela.isZero() || janela.isNegative()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long ultimaEscrita = ultimaEscrita(request);
+        boolean recente = System.currentTimeMillis() - ultimaEscrita < janela.toMillis();
+        ATUAL.set(new Contexto(response, janela, recente));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ATUAL.remove();
+        }
+    }
+
+    static boolean exigePrimario() {
+        Contexto contexto = ATUAL.get();
+        return contexto != null && contexto.recente;
+    }
+
+    static void registrarEscrita() {
+        Contexto contexto = ATUAL.get();
+        if (contexto == null || contexto.escreveu) {
+            return;
+        }
+        contexto.escreveu = true;
+        // O restante desta requisição também passa a ler do primário
+        contexto.recente = true;
+
+        if (!contexto.response.isCommitted()) {
+            var cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, contexto.janela.toSeconds()));
+            contexto.response.addCookie(cookie);
+        }
+    }
+
+    private static long ultimaEscrita(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static final class Contexto {
+
+        private final HttpServletResponse response;
+        private final Duration janela;
+        private boolean recente;
+        private boolean escreveu;
+
+        Contexto(HttpServletResponse response, Duration janela, boolean recente) {
+            this.response = response;
+            this.janela = janela;
+            this.recente = recente;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.hotel.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Escolhe entre o primário e a réplica a cada conexão. Vão para a réplica só as transações
+ * somente leitura abertas pelos serviços ({@code @Transactional(readOnly = true)} em
+ * {@code com.example.hotel.service}); as leituras padrão dos repositórios, chamadas fora
+ * de um serviço, e tudo o que escreve ficam no primário. Precisa estar atrás de um
+ * {@code LazyConnectionDataSourceProxy}, para que a escolha aconteça no primeiro comando,
+ * quando a transação já está aberta.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    private static final String PACOTE_SERVICOS = "com.example.hotel.service.";
+
+    public enum Destino {
+        PRIMARIO,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Destino.PRIMARIO;
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            FiltroLeituraPropria.registrarEscrita();
+            return Destino.PRIMARIO;
+        }
+
+        // O nome da transação é o método que a abriu, como "com.example.hotel.service.ReservaService.listarReservas"
+        String metodo = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (metodo != null && metodo.startsWith(PACOTE_SERVICOS) && !FiltroLeituraPropria.exigePrimario()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+}
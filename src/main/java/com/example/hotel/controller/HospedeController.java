@@ -29,6 +29,17 @@ public class HospedeController {
         return service.buscarHospedePorNome(nome);
     }
 
+    @GetMapping("/busca")
+    public List<Hospede> buscarHospedesPorTrechoDoNome(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        return service.buscarHospedesPorTrechoDoNome(q, limit);
+    }
+
+    @GetMapping("/cpf/{cpf}")
+    public Hospede buscarHospedePorCpf(@PathVariable String cpf) {
+        return service.buscarHospedePorCpf(cpf);
+    }
+
     @GetMapping
     public List<Hospede> listarTodos(){
         return service.listarTodos();
@@ -1,14 +1,17 @@
 package com.example.hotel.controller;
 
+import com.example.hotel.enums.ETipoQuarto;
 import com.example.hotel.exception.DisponibilidadeException;
 import com.example.hotel.exception.NotFoundException;
 import com.example.hotel.model.Quarto;
 import com.example.hotel.service.QuartoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -34,9 +37,13 @@ public class QuartoController {
     }
 
     @GetMapping("/disponiveis")
-    public ResponseEntity<List<Quarto>> obterQuartosDisponiveis(Boolean disponibilidade) {
+    public ResponseEntity<List<Quarto>> obterQuartosDisponiveis(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate checkin,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate checkout,
+            @RequestParam(required = false) Integer hospedes,
+            @RequestParam(required = false) ETipoQuarto tipo) {
         try {
-            List<Quarto> quartos = service.obterQuartosDisponiveis();
+            List<Quarto> quartos = service.obterQuartosDisponiveis(checkin, checkout, hospedes, tipo);
             return ResponseEntity.ok(quartos);
         } catch (DisponibilidadeException e) {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,25 @@
+package com.example.hotel.controller;
+
+import com.example.hotel.dto.OcupacaoDiariaResponse;
+import com.example.hotel.service.RelatorioOcupacao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/relatorios")
+public class RelatorioController {
+
+    private final RelatorioOcupacao ocupacao;
+
+    @GetMapping("/ocupacao")
+    public List<OcupacaoDiariaResponse> ocupacao(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate ate) {
+        return ocupacao.consultar(de, ate);
+    }
+}
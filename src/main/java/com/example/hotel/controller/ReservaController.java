@@ -1,15 +1,23 @@
 package com.example.hotel.controller;
 
 import com.example.hotel.dto.CancelamentoResponse;
+import com.example.hotel.dto.PreReservaRequest;
+import com.example.hotel.dto.PreReservaResponse;
+import com.example.hotel.dto.ReservaFiltro;
+import com.example.hotel.dto.ReservaLoteRequest;
 import com.example.hotel.dto.ReservaRequest;
 import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.service.ExportacaoReservaService;
 import com.example.hotel.service.ReservaService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -20,9 +28,19 @@ public class ReservaController {
     @Autowired
     private ReservaService service;
 
+    @Autowired
+    private ExportacaoReservaService exportacaoService;
+
     @GetMapping
-    public List<ReservaResponse> listarReservas() {
-        return service.listarReservas();
+    public List<ReservaResponse> listarReservas(@Valid ReservaFiltro filtro) {
+        return service.listarReservas(filtro);
+    }
+
+    @GetMapping("/export")
+    public void exportarReservas(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        exportacaoService.exportar(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -35,6 +53,21 @@ public class ReservaController {
         return service.cadastrarReserva(request);
     }
 
+    @PostMapping("/lote")
+    public List<ReservaResponse> cadastrarReservasEmLote(@RequestBody @Valid ReservaLoteRequest request) {
+        return service.cadastrarReservasEmLote(request.getReservas());
+    }
+
+    @PostMapping("/hold")
+    public PreReservaResponse cadastrarPreReserva(@RequestBody @Valid PreReservaRequest request) {
+        return service.cadastrarPreReserva(request);
+    }
+
+    @PostMapping("/hold/{id}/confirmar")
+    public ReservaResponse confirmarPreReserva(@PathVariable Integer id) {
+        return service.confirmarPreReserva(id);
+    }
+
     @PutMapping("/{id}/atualizar")
     public ReservaResponse atualizarReserva(@PathVariable Integer id, @RequestBody ReservaRequest request) {
         return service.atualizarReserva(id, request);
@@ -0,0 +1,17 @@
+package com.example.hotel.dto;
+
+import com.example.hotel.enums.ETipoQuarto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface EstadiaReserva {
+
+    LocalDate getCheckin();
+
+    LocalDate getCheckout();
+
+    ETipoQuarto getTipoQuarto();
+
+    BigDecimal getValorTotal();
+}
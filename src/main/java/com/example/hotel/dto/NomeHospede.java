@@ -0,0 +1,8 @@
+package com.example.hotel.dto;
+
+public interface NomeHospede {
+
+    Integer getId();
+
+    String getNome();
+}
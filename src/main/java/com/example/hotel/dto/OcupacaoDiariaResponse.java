@@ -0,0 +1,28 @@
+package com.example.hotel.dto;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Uma noite de um tipo de quarto no relatório de ocupação. O total de quartos é o do
+ * catálogo atual e a ocupação é o percentual desse total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacaoDiariaResponse {
+
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate dia;
+    private ETipoQuarto tipoQuarto;
+    private int quartosOcupados;
+    private int totalQuartos;
+    private BigDecimal ocupacao;
+    private BigDecimal receita;
+}
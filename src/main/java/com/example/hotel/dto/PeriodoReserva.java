@@ -0,0 +1,12 @@
+package com.example.hotel.dto;
+
+import java.time.LocalDate;
+
+public interface PeriodoReserva {
+
+    Integer getQuartoId();
+
+    LocalDate getCheckin();
+
+    LocalDate getCheckout();
+}
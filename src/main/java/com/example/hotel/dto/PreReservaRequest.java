@@ -0,0 +1,47 @@
+package com.example.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PreReservaRequest {
+
+    @NotNull(message = "A data de checkin é obrigatória")
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate checkin;
+
+    @NotNull(message = "A data de checkout é obrigatória")
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate checkout;
+
+    @NotNull(message = "Hospede deve ser preenchido")
+    private Integer hospedeId;
+
+    @NotNull(message = "Quarto deve ser preenchido")
+    private Integer quartoId;
+
+    @NotNull(message = "A quantidade de hospedes deve ser preenchida")
+    private Integer qtdHospedes;
+
+    // Duração em segundos; sem ela vale hotel.reservas.pre-reserva.duracao
+    private Integer segundos;
+
+    public ReservaRequest paraReserva() {
+        return ReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkout)
+                .hospedeId(hospedeId)
+                .quartoId(quartoId)
+                .qtdHospedes(qtdHospedes)
+                .build();
+    }
+}
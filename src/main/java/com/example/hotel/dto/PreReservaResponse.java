@@ -0,0 +1,35 @@
+package com.example.hotel.dto;
+
+import com.example.hotel.model.PreReserva;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreReservaResponse {
+
+    private Integer id;
+    private Integer hospedeId;
+    private Integer quartoId;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate checkin;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate checkout;
+    private Integer qtdHospedes;
+    private BigDecimal valorTotal;
+    private Instant expiraEm;
+
+    public static PreReservaResponse fromEntity(PreReserva preReserva) {
+        return new PreReservaResponse(preReserva.getId(), preReserva.getHospedeId(), preReserva.getQuartoId(),
+                preReserva.getCheckin(), preReserva.getCheckout(), preReserva.getQtdHospedes(),
+                preReserva.getValorTotal(), preReserva.getExpiraEm().toInstant(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.hotel.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da listagem de reservas. A paginação é por chave: cada página traz as reservas
+ * com id maior que {@code after}, e o id da última reserva é o {@code after} da próxima.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservaFiltro {
+
+    public static final int LIMITE_PADRAO = 50;
+
+    private Integer after;
+
+    @Min(value = 1, message = "O limite deve ser no mínimo 1")
+    @Max(value = 500, message = "O limite deve ser no máximo 500")
+    private Integer limit;
+
+    // Checkin a partir desta data
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate de;
+
+    // Checkin até esta data
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
+    private LocalDate ate;
+
+    private Integer hospedeId;
+
+    private Boolean situacao;
+
+    public int limiteOuPadrao() {
+        return limit != null ? limit : LIMITE_PADRAO;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.hotel.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservaLoteRequest {
+
+    @NotEmpty(message = "Informe ao menos uma reserva")
+    @Size(max = 200, message = "O lote aceita no máximo 200 reservas")
+    private List<@Valid ReservaRequest> reservas;
+}
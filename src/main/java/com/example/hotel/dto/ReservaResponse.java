@@ -4,11 +4,13 @@ import com.example.hotel.model.Hospede;
 import com.example.hotel.model.Quarto;
 import com.example.hotel.model.Reservas;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
 public class ReservaResponse {
 
     private Integer id;
@@ -17,30 +19,40 @@ public class ReservaResponse {
     private Hospede hospede;
     private Quarto quarto;
     private Boolean situacao;
+    private Boolean finalizada;
     private Integer qtdHospedes;
     private BigDecimal valorTotalReserva;
 
-    public static ReservaResponse fromEntity(Reservas reserva) {
-        ReservaResponse dto = new ReservaResponse();
-        dto.setId(reserva.getId());
-        dto.setCheckin(reserva.getCheckin());
-        dto.setCheckout(reserva.getCheckout());
-        dto.setHospede(reserva.getHospede());
+    /**
+     * Usado também nas consultas {@code select new} do {@code ReservaRepository}, que trazem
+     * reserva, hóspede e quarto numa única consulta com join.
+     */
+    public ReservaResponse(Integer id, LocalDate checkin, LocalDate checkout, Hospede hospede, Quarto quarto,
+                           Boolean situacao, Boolean finalizada, Integer qtdHospedes,
+                           BigDecimal valorTotalReserva) {
+        this.id = id;
+        this.checkin = checkin;
+        this.checkout = checkout;
+        this.hospede = hospede;
 
         // Converter quarto para DTO sem disponibilidade
         Quarto quartoDTO = new Quarto();
-        quartoDTO.setId(reserva.getQuarto().getId());
-        quartoDTO.setNumero(reserva.getQuarto().getNumero());
-        quartoDTO.setQtdHospedes(reserva.getQuarto().getQtdHospedes());
-        quartoDTO.setTipoQuarto(reserva.getQuarto().getTipoQuarto());
-        quartoDTO.setValor(reserva.getQuarto().getValor());
-        quartoDTO.setDisponibilidade(reserva.getSituacao());
-
-        dto.setQuarto(quartoDTO);
-        dto.setSituacao(reserva.getSituacao());
-        dto.setQtdHospedes(reserva.getQtdHospedes());
-        dto.setValorTotalReserva(reserva.getValorTotal());
-
-        return dto;
+        quartoDTO.setId(quarto.getId());
+        quartoDTO.setNumero(quarto.getNumero());
+        quartoDTO.setQtdHospedes(quarto.getQtdHospedes());
+        quartoDTO.setTipoQuarto(quarto.getTipoQuarto());
+        quartoDTO.setValor(quarto.getValor());
+
+        this.quarto = quartoDTO;
+        this.situacao = situacao;
+        this.finalizada = finalizada;
+        this.qtdHospedes = qtdHospedes;
+        this.valorTotalReserva = valorTotalReserva;
+    }
+
+    public static ReservaResponse fromEntity(Reservas reserva) {
+        return new ReservaResponse(reserva.getId(), reserva.getCheckin(), reserva.getCheckout(),
+                reserva.getHospede(), reserva.getQuarto(), reserva.getSituacao(),
+                reserva.getFinalizada(), reserva.getQtdHospedes(), reserva.getValorTotal());
     }
-}
\ No newline at end of file
+}
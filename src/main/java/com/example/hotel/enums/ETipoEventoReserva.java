@@ -0,0 +1,8 @@
+package com.example.hotel.enums;
+
+public enum ETipoEventoReserva {
+
+    CRIADA,
+    ALTERADA,
+    CANCELADA
+}
@@ -5,7 +5,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -17,13 +21,18 @@ import org.springframework.validation.FieldError;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry registry;
+
     // Para erros de validação de Bean Validation (@Valid)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         Map<String, String> errors = new HashMap<>();
 
@@ -44,6 +53,7 @@ public class GlobalExceptionHandler {
     // Para erros de integridade de dados (violações de restrições de BD)
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         String mensagem = ex.getMostSpecificCause().getMessage();
 
@@ -66,6 +76,7 @@ public class GlobalExceptionHandler {
     // Para ValidacaoException personalizada
     @ExceptionHandler(ValidacaoException.class)
     public ResponseEntity<Object> handleValidacaoException(ValidacaoException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         response.put("message", ex.getMessage());
 
@@ -75,6 +86,7 @@ public class GlobalExceptionHandler {
     // Para recursos não encontrados
     @ExceptionHandler({NoSuchElementException.class, EntityNotFoundException.class})
     public ResponseEntity<Object> handleResourceNotFound(Exception ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         response.put("message", ex.getMessage());
 
@@ -84,12 +96,14 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseEntity<String> handleNotFoundException(NotFoundException ex) {
+        contar(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
     // Para erros de formato JSON
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Formato de dados inválido");
 
@@ -99,15 +113,37 @@ public class GlobalExceptionHandler {
     // Para parâmetros obrigatórios faltando
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<Object> handleMissingServletRequestParameter(MissingServletRequestParameterException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Parâmetro obrigatório ausente: " + ex.getParameterName());
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    // Para conflitos de versão que continuaram depois de todas as tentativas
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        contar(ex);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "O registro foi alterado por outra requisição. Tente novamente.");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    // Para parâmetros em formato inválido (datas, enums, números)
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        contar(ex);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Parâmetro inválido: " + ex.getName());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     // Para exceções genéricas - captura qualquer exceção não tratada especificamente
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllUncaughtException(Exception ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Ocorreu um erro inesperado no servidor");
 
@@ -116,10 +152,20 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(DisponibilidadeException.class)
     public ResponseEntity<Object> handleDisponibilidadeException(DisponibilidadeException ex) {
+        contar(ex);
         Map<String, Object> response = new HashMap<>();
 
         response.put("message", ex.getMessage());
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
-}
\ No newline at end of file
+
+    // Uma série de hotel.excecoes por tipo de exceção que chegou até aqui
+    private void contar(Exception ex) {
+        Counter.builder("hotel.excecoes")
+                .description("Exceções tratadas pela API, por tipo")
+                .tag("excecao", ex.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+}
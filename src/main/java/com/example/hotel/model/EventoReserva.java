@@ -0,0 +1,55 @@
+package com.example.hotel.model;
+
+import com.example.hotel.enums.ETipoEventoReserva;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de uma reserva ainda não entregue aos sistemas externos. As linhas são gravadas
+ * pelo {@code OutboxReservas} e apagadas pelo {@code DespachoEventos} depois da entrega; as
+ * que esgotam as tentativas ficam na tabela marcadas como descartadas.
+ */
+@Entity
+@Data
+@Getter
+@Setter
+@Table(name = "evento_reserva")
+public class EventoReserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reserva_id", nullable = false)
+    private Integer reservaId;
+
+    @Column(name = "tipo", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ETipoEventoReserva tipo;
+
+    // A reserva como devolvida pela API, em JSON; TEXT como na migração, e não o VARCHAR(255) padrão
+    @Column(name = "dados", nullable = false, columnDefinition = "TEXT")
+    private String dados;
+
+    // Em UTC
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "tentativas", nullable = false)
+    private Integer tentativas;
+
+    // Cortado no despacho para caber na coluna
+    @Column(name = "ultimo_erro", length = 500)
+    private String ultimoErro;
+
+    // Em UTC; prazo da entrega em andamento ou fim da espera depois de uma falha. Nulo: pode sair já
+    @Column(name = "proxima_tentativa")
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "descartado", nullable = false)
+    private Boolean descartado;
+}
@@ -1,6 +1,9 @@
 package com.example.hotel.model;
 
+import com.example.hotel.service.IndiceNomesHospedes;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -9,10 +12,13 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
+// Campos internos do proxy do Hibernate quando a associação ainda não foi carregada
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @Getter
 @Setter
 @Table(name = "hospede")
+@EntityListeners(IndiceNomesHospedes.Sincronizacao.class)
 public class Hospede {
 
     @Id
@@ -31,4 +37,35 @@ public class Hospede {
 
     @Column(name = "cpf")
     private String cpf;
+
+    // Mantido pelo próprio Hospede a partir do cpf; é a coluna com índice único
+    @JsonIgnore
+    @Column(name = "cpf_numerico")
+    private Long cpfNumerico;
+
+    @PrePersist
+    @PreUpdate
+    void atualizarCpfNumerico() {
+        cpfNumerico = normalizarCpf(cpf);
+    }
+
+    /**
+     * Dígitos do CPF como número, com ou sem pontuação. Retorna null se não houver dígitos.
+     */
+    public static Long normalizarCpf(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+
+        long numero = 0;
+        int digitos = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                numero = numero * 10 + (c - '0');
+                digitos++;
+            }
+        }
+        return digitos == 0 || digitos > 18 ? null : numero;
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.hotel.model;
+
+import com.example.hotel.enums.ETipoQuarto;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Quartos ocupados e receita de uma noite para um tipo de quarto. As linhas são mantidas
+ * pelo {@code RelatorioOcupacao} com somas atômicas no banco, nunca gravadas por aqui.
+ */
+@Entity
+@Data
+@Getter
+@Setter
+@Table(name = "ocupacao_diaria")
+@IdClass(OcupacaoDiaria.Chave.class)
+public class OcupacaoDiaria {
+
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+
+    @Id
+    @Column(name = "tipo_quarto")
+    @Enumerated(EnumType.STRING)
+    private ETipoQuarto tipoQuarto;
+
+    @Column(name = "quartos_ocupados")
+    private Integer quartosOcupados;
+
+    @Column(name = "receita_centavos")
+    private Long receitaCentavos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+
+        private LocalDate dia;
+        private ETipoQuarto tipoQuarto;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hotel.model;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.service.TabelaTarifas;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@Entity
+@Data
+@Getter
+@Setter
+@Table(name = "plano_tarifa")
+@EntityListeners(TabelaTarifas.Sincronizacao.class)
+public class PlanoTarifa {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "nome")
+    private String nome;
+
+    @Column(name = "tipo_quarto")
+    @Enumerated(EnumType.STRING)
+    private ETipoQuarto tipoQuarto;
+
+    // Primeira e última noite cobertas pelo plano
+    @Column(name = "inicio")
+    private LocalDate inicio;
+
+    @Column(name = "fim")
+    private LocalDate fim;
+
+    @Column(name = "valor")
+    private BigDecimal valor;
+
+    @Column(name = "prioridade")
+    private Integer prioridade = 0;
+
+    // Fim de semana, por exemplo: o valor do dia substitui o do plano nessas noites.
+    // EAGER porque a tabela de tarifas copia o plano inteiro a cada gravação
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "plano_tarifa_dia_semana", joinColumns = @JoinColumn(name = "plano_id"))
+    @MapKeyColumn(name = "dia_semana")
+    @MapKeyEnumerated(EnumType.STRING)
+    @Column(name = "valor")
+    private Map<DayOfWeek, BigDecimal> valorPorDiaSemana = new HashMap<>();
+}
@@ -0,0 +1,49 @@
+package com.example.hotel.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Quarto segurado por alguns minutos para um hóspede, enquanto o pagamento roda. A expiração
+ * fica por conta do {@code ExpiracaoPreReservas}; a confirmação troca a linha por uma reserva.
+ */
+@Entity
+@Data
+@Getter
+@Setter
+@Table(name = "pre_reserva")
+public class PreReserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Só os ids: nem a criação nem a expiração precisam carregar hóspede e quarto
+    @Column(name = "hospede_id", nullable = false)
+    private Integer hospedeId;
+
+    @Column(name = "quarto_id", nullable = false)
+    private Integer quartoId;
+
+    @Column(name = "checkin", nullable = false)
+    private LocalDate checkin;
+
+    @Column(name = "checkout", nullable = false)
+    private LocalDate checkout;
+
+    @Column(name = "qtd_hospedes", nullable = false)
+    private Integer qtdHospedes;
+
+    @Column(name = "valor_total", nullable = false)
+    private BigDecimal valorTotal;
+
+    // Em UTC
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
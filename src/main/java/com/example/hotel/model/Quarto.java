@@ -1,6 +1,7 @@
 package com.example.hotel.model;
 
 import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.service.CatalogoQuartos;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -13,6 +14,7 @@ import java.math.BigDecimal;
 @Getter
 @Setter
 @Table(name = "quarto")
+@EntityListeners(CatalogoQuartos.Sincronizacao.class)
 public class Quarto {
 
     @Id
@@ -32,9 +34,14 @@ public class Quarto {
     @Column(name = "valor")
     private BigDecimal valor;
 
+    // Coluna legada, sem gravação nem consulta e sem índice desde a V15: nas respostas o valor vem do calendário
     @Column(name = "disponibilidade")
     private Boolean disponibilidade;
 
+    @Version
+    @Column(name = "versao")
+    private Long versao;
+
     public Quarto(){
 
     }
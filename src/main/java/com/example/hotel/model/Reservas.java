@@ -16,8 +16,12 @@ import java.time.LocalDate;
 @Table(name = "reservas")
 public class Reservas {
 
+    // IDENTITY obriga um insert por vez; com o gerador em tabela os ids vêm em blocos de 50
+    // e o Hibernate consegue agrupar os inserts em lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservas_id")
+    @TableGenerator(name = "reservas_id", table = "id_gerador", pkColumnName = "entidade",
+            valueColumnName = "proximo_id", pkColumnValue = "reservas", allocationSize = 50)
     private Integer id;
 
     @Column(name = "checkin", nullable = false)
@@ -28,11 +32,12 @@ public class Reservas {
     @JsonFormat(pattern = "dd/MM/yyyy")
     private LocalDate checkout;
 
-    @ManyToOne
+    // LAZY: quem precisa do hóspede ou do quarto faz join na consulta, em vez de um select extra por reserva
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hospede_id", nullable = false)
     private Hospede hospede;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn( name = "quarto_id", nullable = false)
     private Quarto quarto;
 
@@ -42,6 +47,15 @@ public class Reservas {
     @Column(name = "qtd_hospedes")
     private Integer qtdHospedes;
 
-    @Column(name = "valor_total")
+    @Column(name = "valor_total", precision = 10, scale = 2)
     private BigDecimal valorTotal;
+
+    // Estadia encerrada depois do checkout; a situacao continua true, não é um cancelamento.
+    // Só o FinalizacaoEstadias grava a coluna, então uma alteração pela entidade não a desfaz
+    @Column(name = "finalizada", nullable = false, updatable = false)
+    private Boolean finalizada = false;
+
+    @Version
+    @Column(name = "versao")
+    private Long versao;
 }
@@ -0,0 +1,47 @@
+package com.example.hotel.repository;
+
+import com.example.hotel.model.EventoReserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoReservaRepository extends JpaRepository<EventoReserva, Long> {
+
+    /**
+     * Eventos que podem sair agora, na ordem do id. Fica de fora o evento com um anterior da
+     * mesma reserva em entrega ou em espera, para que a reserva não chegue aos destinos fora
+     * de ordem. SELECT ... FOR UPDATE: o despacho de outra instância espera a reserva do lote
+     * terminar em vez de pegar os mesmos eventos.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from EventoReserva e where e.descartado = false " +
+            "and (e.proximaTentativa is null or e.proximaTentativa <= :agora) " +
+            "and not exists (select a.id from EventoReserva a where a.reservaId = e.reservaId " +
+            "and a.id < e.id and a.descartado = false and a.proximaTentativa > :agora) " +
+            "order by e.id")
+    List<EventoReserva> buscarPendentes(@Param("agora") LocalDateTime agora, Limit limite);
+
+    // Nulo devolve os eventos à fila
+    @Modifying
+    @Query("update EventoReserva e set e.proximaTentativa = :proximaTentativa where e.id in :ids")
+    int adiar(@Param("ids") Collection<Long> ids, @Param("proximaTentativa") LocalDateTime proximaTentativa);
+
+    @Modifying
+    @Query("update EventoReserva e set e.tentativas = :tentativas, e.ultimoErro = :ultimoErro, " +
+            "e.proximaTentativa = :proximaTentativa, e.descartado = :descartado where e.id = :id")
+    int registrarFalha(@Param("id") Long id,
+                       @Param("tentativas") int tentativas,
+                       @Param("ultimoErro") String ultimoErro,
+                       @Param("proximaTentativa") LocalDateTime proximaTentativa,
+                       @Param("descartado") boolean descartado);
+}
@@ -1,16 +1,35 @@
 package com.example.hotel.repository;
 
+import com.example.hotel.dto.NomeHospede;
 import com.example.hotel.model.Hospede;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface HospedeRepository extends JpaRepository<Hospede, Integer> {
 
     boolean existsByCpf(String cpf);
 
+    boolean existsByCpfNumerico(Long cpfNumerico);
+
+    // Lido aos poucos pelo cursor do banco; precisa ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select h.cpfNumerico from Hospede h where h.cpfNumerico is not null")
+    Stream<Long> streamCpfsNumericos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select h.id as id, h.nome as nome from Hospede h")
+    Stream<NomeHospede> streamNomes();
+
     Optional<Hospede> findByNome(String nome);
 
+    Optional<Hospede> findByCpf(String cpf);
+
 }
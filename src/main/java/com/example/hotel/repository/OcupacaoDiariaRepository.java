@@ -0,0 +1,9 @@
+package com.example.hotel.repository;
+
+import com.example.hotel.model.OcupacaoDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OcupacaoDiariaRepository extends JpaRepository<OcupacaoDiaria, OcupacaoDiaria.Chave> {
+}
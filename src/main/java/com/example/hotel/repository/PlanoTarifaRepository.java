@@ -0,0 +1,16 @@
+package com.example.hotel.repository;
+
+import com.example.hotel.model.PlanoTarifa;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlanoTarifaRepository extends JpaRepository<PlanoTarifa, Integer> {
+
+    // Planos e valores por dia da semana num único select, para montar a tabela de tarifas
+    @Query("select distinct p from PlanoTarifa p left join fetch p.valorPorDiaSemana")
+    List<PlanoTarifa> findAllComDiasSemana();
+}
@@ -0,0 +1,38 @@
+package com.example.hotel.repository;
+
+import com.example.hotel.dto.PeriodoReserva;
+import com.example.hotel.model.PreReserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PreReservaRepository extends JpaRepository<PreReserva, Integer> {
+
+    // SELECT ... FOR UPDATE: confirmação e expiração da mesma pré-reserva não correm juntas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PreReserva p where p.id = :id")
+    Optional<PreReserva> findByIdParaConfirmar(@Param("id") Integer id);
+
+    // Ordenado por id para que transações concorrentes travem as linhas na mesma ordem
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PreReserva p where p.id in :ids order by p.id")
+    List<PreReserva> findAllByIdParaExpirar(@Param("ids") Collection<Integer> ids);
+
+    @Query("select p.quartoId as quartoId, p.checkin as checkin, p.checkout as checkout " +
+            "from PreReserva p where p.quartoId in :quartoIds and p.expiraEm > :agora " +
+            "and p.checkin < :ate and p.checkout > :de")
+    List<PeriodoReserva> findPeriodosAtivosDosQuartos(@Param("quartoIds") Collection<Integer> quartoIds,
+                                                      @Param("de") LocalDate de,
+                                                      @Param("ate") LocalDate ate,
+                                                      @Param("agora") LocalDateTime agora);
+}
@@ -1,13 +1,28 @@
 package com.example.hotel.repository;
 
 import com.example.hotel.model.Quarto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuartoRepository extends JpaRepository<Quarto, Integer> {
 
-    List<Quarto> findByDisponibilidade(Boolean disponibilidade);
+    // SELECT ... FOR UPDATE: outra transação reservando o mesmo quarto espera esta terminar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select q from Quarto q where q.id = :id")
+    Optional<Quarto> findByIdParaReserva(@Param("id") Integer id);
+
+    // Ordenado por id para que transações concorrentes travem as linhas na mesma ordem
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select q from Quarto q where q.id in :ids order by q.id")
+    List<Quarto> findAllByIdParaReserva(@Param("ids") Collection<Integer> ids);
+
 }
\ No newline at end of file
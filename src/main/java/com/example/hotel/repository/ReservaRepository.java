@@ -1,9 +1,110 @@
 package com.example.hotel.repository;
 
+import com.example.hotel.dto.EstadiaReserva;
+import com.example.hotel.dto.PeriodoReserva;
+import com.example.hotel.dto.ReservaResponse;
 import com.example.hotel.model.Reservas;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ReservaRepository extends JpaRepository<Reservas, Integer> {
+
+    @Query("select r.quarto.id as quartoId, r.checkin as checkin, r.checkout as checkout " +
+            "from Reservas r where r.situacao = true and r.checkout > :data")
+    List<PeriodoReserva> findPeriodosAtivos(@Param("data") LocalDate data);
+
+    @Query("select r.quarto.id as quartoId, r.checkin as checkin, r.checkout as checkout " +
+            "from Reservas r where r.situacao = true and r.quarto.id in :quartoIds " +
+            "and r.checkin < :ate and r.checkout > :de")
+    List<PeriodoReserva> findPeriodosAtivosDosQuartos(@Param("quartoIds") Collection<Integer> quartoIds,
+                                                      @Param("de") LocalDate de,
+                                                      @Param("ate") LocalDate ate);
+
+    /**
+     * Reserva ativa ou pré-reserva ainda válida no período, fora a própria reserva. As duas
+     * checagens vão num único comando, a partir da linha do quarto.
+     */
+    default boolean existsSobreposicao(Integer quartoId, LocalDate checkin, LocalDate checkout, Integer reservaId) {
+        return existsSobreposicao(quartoId, checkin, checkout, reservaId, LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    @Query("select count(q) > 0 from Quarto q where q.id = :quartoId and (" +
+            "exists (select r.id from Reservas r where r.quarto = q and r.situacao = true " +
+            "and r.checkin < :checkout and r.checkout > :checkin " +
+            "and (:reservaId is null or r.id <> :reservaId)) " +
+            "or exists (select p.id from PreReserva p where p.quartoId = q.id and p.expiraEm > :agora " +
+            "and p.checkin < :checkout and p.checkout > :checkin))")
+    boolean existsSobreposicao(@Param("quartoId") Integer quartoId,
+                               @Param("checkin") LocalDate checkin,
+                               @Param("checkout") LocalDate checkout,
+                               @Param("reservaId") Integer reservaId,
+                               @Param("agora") LocalDateTime agora);
+
+    // Paginação por chave: o índice da PK leva direto ao início da página, sem OFFSET.
+    // Hóspede e quarto vêm no mesmo select, então a página inteira custa uma consulta
+    @Query("select new com.example.hotel.dto.ReservaResponse(r.id, r.checkin, r.checkout, h, q, " +
+            "r.situacao, r.finalizada, r.qtdHospedes, r.valorTotal) " +
+            "from Reservas r join r.hospede h join r.quarto q " +
+            "where (:after is null or r.id > :after) " +
+            "and (:de is null or r.checkin >= :de) and (:ate is null or r.checkin <= :ate) " +
+            "and (:hospedeId is null or h.id = :hospedeId) " +
+            "and (:situacao is null or r.situacao = :situacao) " +
+            "order by r.id")
+    List<ReservaResponse> buscarPagina(@Param("after") Integer after,
+                                @Param("de") LocalDate de,
+                                @Param("ate") LocalDate ate,
+                                @Param("hospedeId") Integer hospedeId,
+                                @Param("situacao") Boolean situacao,
+                                Limit limit);
+
+    @Query("select new com.example.hotel.dto.ReservaResponse(r.id, r.checkin, r.checkout, h, q, " +
+            "r.situacao, r.finalizada, r.qtdHospedes, r.valorTotal) " +
+            "from Reservas r join r.hospede h join r.quarto q where r.id = :id")
+    Optional<ReservaResponse> buscarResponsePorId(@Param("id") Integer id);
+
+    // Alteração e cancelamento usam o quarto e a resposta devolve o hóspede: os três vêm
+    // no mesmo select, sem carregar cada associação LAZY numa consulta à parte
+    @Query("select r from Reservas r join fetch r.hospede join fetch r.quarto where r.id = :id")
+    Optional<Reservas> buscarParaAlteracao(@Param("id") Integer id);
+
+    // Quarto atual da reserva, lido antes de obter a trava do quarto
+    @Query("select r.quarto.id from Reservas r where r.id = :id")
+    Optional<Integer> buscarQuartoId(@Param("id") Integer id);
+
+    // Carga inicial do relatório de ocupação; também lida pelo cursor, dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select r.checkin as checkin, r.checkout as checkout, q.tipoQuarto as tipoQuarto, " +
+            "r.valorTotal as valorTotal from Reservas r join r.quarto q where r.situacao = true")
+    Stream<EstadiaReserva> streamEstadiasAtivas();
+
+    // Estadias com checkout vencido ainda não finalizadas, a partir do cursor, na ordem do id
+    @Query("select r.id from Reservas r where r.situacao = true " +
+            "and r.finalizada = false and r.id > :cursor and r.checkout < :hoje order by r.id")
+    List<Integer> buscarEstadiasEncerradas(@Param("cursor") Integer cursor,
+                                           @Param("hoje") LocalDate hoje,
+                                           Limit limite);
+
+    // Um único UPDATE pela faixa de ids. A versão não muda: a coluna não é gravada pela entidade,
+    // então uma alteração concorrente não a desfaz e não precisa ser repetida
+    @Modifying
+    @Query("update Reservas r set r.finalizada = true " +
+            "where r.id > :de and r.id <= :ate and r.situacao = true and r.finalizada = false " +
+            "and r.checkout < :hoje")
+    int finalizarEstadias(@Param("de") Integer de, @Param("ate") Integer ate, @Param("hoje") LocalDate hoje);
 }
@@ -0,0 +1,91 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.Hospede;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Cache dos hóspedes consultados com frequência, por id e por CPF. O Caffeine descarta
+ * primeiro os hóspedes pouco consultados (W-TinyLFU), então um cadastro em massa não
+ * expulsa os hóspedes da semana. Acertos, faltas e descartes ficam em {@code cache.*}
+ * com a tag {@code cache=hospedes}.
+ * Os hóspedes devolvidos são compartilhados entre as requisições e não devem ser alterados.
+ * A consulta ao banco roda fora das travas internas do cache (veja {@link #buscarPorId}).
+ */
+@Component
+public class CacheHospedes {
+
+    private final AsyncCache<Integer, Hospede> porId;
+
+    // Só o id; o hóspede em si fica numa única entrada, em porId
+    private final Cache<String, Integer> idPorCpf;
+
+    public CacheHospedes(MeterRegistry registry,
+                         @Value("${hotel.hospedes.cache.tamanho-maximo:10000}") long tamanhoMaximo) {
+        this.porId = CaffeineCacheMetrics.monitor(registry,
+                Caffeine.newBuilder().maximumSize(tamanhoMaximo).recordStats().buildAsync(), "hospedes");
+        this.idPorCpf = CaffeineCacheMetrics.monitor(registry,
+                Caffeine.newBuilder().maximumSize(tamanhoMaximo).recordStats().build(), "hospedes_cpf");
+    }
+
+    public Optional<Hospede> buscarPorId(Integer id, Function<Integer, Optional<Hospede>> carregar) {
+        // O Caffeine não aceita chave nula; sem id não há hóspede para buscar
+        if (id == null) {
+            return Optional.empty();
+        }
+        // Com get(chave, função) a consulta rodaria dentro da trava do ConcurrentHashMap, que
+        // prende a thread portadora de uma thread virtual durante todo o I/O. Aqui o cache só
+        // recebe o futuro; quem o criou consulta o banco e as outras requisições esperam por ele.
+        var novo = new CompletableFuture<Hospede>();
+        CompletableFuture<Hospede> atual = porId.get(id, (chave, executor) -> novo);
+        if (atual == novo) {
+            try {
+                // O Caffeine descarta futuros com null, então um id inexistente volta ao banco na próxima consulta
+                novo.complete(carregar.apply(id).orElse(null));
+            } catch (RuntimeException e) {
+                novo.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        Hospede hospede = atual.join();
+        if (hospede != null && hospede.getCpf() != null) {
+            idPorCpf.put(hospede.getCpf(), hospede.getId());
+        }
+        return Optional.ofNullable(hospede);
+    }
+
+    public Optional<Hospede> buscarPorCpf(String cpf, Function<String, Optional<Hospede>> carregar) {
+        Integer id = idPorCpf.getIfPresent(cpf);
+        if (id != null) {
+            Hospede hospede = porId.synchronous().getIfPresent(id);
+            if (hospede != null && cpf.equals(hospede.getCpf())) {
+                return Optional.of(hospede);
+            }
+        }
+
+        Optional<Hospede> carregado = carregar.apply(cpf);
+        carregado.ifPresent(hospede -> {
+            porId.synchronous().put(hospede.getId(), hospede);
+            idPorCpf.put(cpf, hospede.getId());
+        });
+        return carregado;
+    }
+
+    public void invalidar(Integer id) {
+        Hospede anterior = porId.synchronous().getIfPresent(id);
+        porId.synchronous().invalidate(id);
+        if (anterior != null && anterior.getCpf() != null) {
+            idPorCpf.invalidate(anterior.getCpf());
+        }
+    }
+}
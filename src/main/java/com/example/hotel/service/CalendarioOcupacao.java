@@ -0,0 +1,188 @@
+package com.example.hotel.service;
+
+import com.example.hotel.repository.ReservaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Calendário de ocupação em memória. Para cada quarto guarda um bit por noite,
+ * usado na validação das reservas, e um índice dos períodos ocupados ordenado
+ * pelo checkin, usado na busca de quartos livres.
+ * A noite de checkout não é ocupada, então uma reserva pode começar no dia
+ * em que outra termina.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarioOcupacao {
+
+    // Noites anteriores a esta data caem todas no índice zero
+    private static final long DIA_ORIGEM = LocalDate.of(2020, 1, 1).toEpochDay();
+
+    private final ReservaRepository repository;
+
+    private final Map<Integer, OcupacaoQuarto> ocupacaoPorQuarto = new ConcurrentHashMap<>();
+
+    // Antes das pré-reservas, que ocupam o calendário por cima das reservas
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void carregar() {
+        ocupacaoPorQuarto.clear();
+        repository.findPeriodosAtivos(LocalDate.now())
+                .forEach(periodo -> ocupar(periodo.getQuartoId(), periodo.getCheckin(), periodo.getCheckout()));
+    }
+
+    public boolean estaLivre(Integer quartoId, LocalDate checkin, LocalDate checkout) {
+        OcupacaoQuarto ocupacao = ocupacaoPorQuarto.get(quartoId);
+        if (ocupacao == null) {
+            return true;
+        }
+
+        ocupacao.trava.lock();
+        try {
+            return ocupacao.livre(indice(checkin), indice(checkout));
+        } finally {
+            ocupacao.trava.unlock();
+        }
+    }
+
+    /**
+     * Consulta o índice de períodos em vez dos bits de cada noite, em O(log reservas)
+     * independente da duração da estadia. É o caminho usado pela busca de quartos.
+     */
+    public boolean semSobreposicao(Integer quartoId, LocalDate checkin, LocalDate checkout) {
+        OcupacaoQuarto ocupacao = ocupacaoPorQuarto.get(quartoId);
+        if (ocupacao == null) {
+            return true;
+        }
+
+        ocupacao.trava.lock();
+        try {
+            return ocupacao.semSobreposicao(indice(checkin), indice(checkout));
+        } finally {
+            ocupacao.trava.unlock();
+        }
+    }
+
+    public boolean ocupar(Integer quartoId, LocalDate checkin, LocalDate checkout) {
+        OcupacaoQuarto ocupacao = ocupacaoPorQuarto.computeIfAbsent(quartoId, id -> new OcupacaoQuarto());
+        int inicio = indice(checkin);
+        int fim = indice(checkout);
+
+        ocupacao.trava.lock();
+        try {
+            if (!ocupacao.livre(inicio, fim)) {
+                return false;
+            }
+            ocupacao.ocupar(inicio, fim);
+            return true;
+        } finally {
+            ocupacao.trava.unlock();
+        }
+    }
+
+    public void liberar(Integer quartoId, LocalDate checkin, LocalDate checkout) {
+        OcupacaoQuarto ocupacao = ocupacaoPorQuarto.get(quartoId);
+        if (ocupacao == null) {
+            return;
+        }
+
+        ocupacao.trava.lock();
+        try {
+            ocupacao.liberar(indice(checkin), indice(checkout));
+        } finally {
+            ocupacao.trava.unlock();
+        }
+    }
+
+    /**
+     * Move um período já ocupado para outro quarto e/ou outras datas. Se o novo
+     * período não estiver livre, o período anterior é mantido e retorna false.
+     */
+    public boolean remarcar(Integer quartoAnteriorId, LocalDate checkinAnterior, LocalDate checkoutAnterior,
+                            Integer quartoNovoId, LocalDate checkinNovo, LocalDate checkoutNovo) {
+        OcupacaoQuarto anterior = ocupacaoPorQuarto.computeIfAbsent(quartoAnteriorId, id -> new OcupacaoQuarto());
+        OcupacaoQuarto novo = ocupacaoPorQuarto.computeIfAbsent(quartoNovoId, id -> new OcupacaoQuarto());
+
+        // Trava sempre na mesma ordem para não haver deadlock entre remarcações cruzadas
+        OcupacaoQuarto primeiro = quartoAnteriorId <= quartoNovoId ? anterior : novo;
+        OcupacaoQuarto segundo = primeiro == anterior ? novo : anterior;
+
+        primeiro.trava.lock();
+        segundo.trava.lock();
+        try {
+            int inicioAnterior = indice(checkinAnterior);
+            int fimAnterior = indice(checkoutAnterior);
+            anterior.liberar(inicioAnterior, fimAnterior);
+
+            int inicioNovo = indice(checkinNovo);
+            int fimNovo = indice(checkoutNovo);
+            if (!novo.livre(inicioNovo, fimNovo)) {
+                anterior.ocupar(inicioAnterior, fimAnterior);
+                return false;
+            }
+
+            novo.ocupar(inicioNovo, fimNovo);
+            return true;
+        } finally {
+            segundo.trava.unlock();
+            primeiro.trava.unlock();
+        }
+    }
+
+    private static int indice(LocalDate data) {
+        return (int) Math.max(0, data.toEpochDay() - DIA_ORIGEM);
+    }
+
+    private static final class OcupacaoQuarto {
+
+        // ReentrantLock em vez de synchronized: no Java 21, uma thread virtual esperando por um
+        // monitor prende a thread portadora, e o mesmo quarto disputado pararia as demais
+        private final ReentrantLock trava = new ReentrantLock();
+
+        private final BitSet noites = new BitSet();
+
+        // checkin -> checkout de cada período ocupado; os períodos nunca se sobrepõem
+        private final TreeMap<Integer, Integer> periodos = new TreeMap<>();
+
+        boolean livre(int inicio, int fim) {
+            int ocupada = noites.nextSetBit(inicio);
+            return ocupada < 0 || ocupada >= fim;
+        }
+
+        boolean semSobreposicao(int inicio, int fim) {
+            if (inicio >= fim) {
+                return true;
+            }
+            // Como os períodos são disjuntos, basta olhar o último que começa antes do checkout
+            Map.Entry<Integer, Integer> anterior = periodos.lowerEntry(fim);
+            return anterior == null || anterior.getValue() <= inicio;
+        }
+
+        void ocupar(int inicio, int fim) {
+            if (inicio >= fim) {
+                return;
+            }
+            noites.set(inicio, fim);
+            periodos.put(inicio, fim);
+        }
+
+        void liberar(int inicio, int fim) {
+            if (inicio >= fim) {
+                return;
+            }
+            noites.clear(inicio, fim);
+            periodos.remove(inicio, fim);
+        }
+    }
+}
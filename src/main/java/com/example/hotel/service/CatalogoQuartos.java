@@ -0,0 +1,190 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.QuartoRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Catálogo de quartos em memória. As leituras usam uma fotografia imutável, trocada por
+ * inteiro a cada quarto gravado, então nunca vão ao banco nem esperam por trava.
+ * Cada leitura devolve cópias, que quem chama pode alterar sem afetar a fotografia; para
+ * gravar um quarto, carregue-o pelo {@link QuartoRepository}.
+ * <p>
+ * Gravações pela entidade chegam ao catálogo pela {@link Sincronizacao}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoQuartos {
+
+    private final QuartoRepository repository;
+
+    private volatile Fotografia atual = Fotografia.de(List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        atual = Fotografia.de(repository.findAll().stream().map(CatalogoQuartos::copiar).toList());
+    }
+
+    public List<Quarto> todos() {
+        return copias(atual.todos);
+    }
+
+    public Optional<Quarto> porId(Integer id) {
+        return Optional.ofNullable(atual.porId.get(id)).map(CatalogoQuartos::copiar);
+    }
+
+    public Optional<Quarto> porNumero(Integer numero) {
+        return Optional.ofNullable(atual.porNumero.get(numero)).map(CatalogoQuartos::copiar);
+    }
+
+    public List<Quarto> porTipo(ETipoQuarto tipo) {
+        return copias(atual.porTipo.getOrDefault(tipo, List.of()));
+    }
+
+    public int contarPorTipo(ETipoQuarto tipo) {
+        return atual.porTipo.getOrDefault(tipo, List.of()).size();
+    }
+
+    // Escritas são raras; sincronizar evita que duas trocas simultâneas percam uma à outra
+    synchronized void registrar(Quarto quarto) {
+        // Gravações que não mudam o que o catálogo mostra não remontam a fotografia
+        Quarto existente = atual.porId.get(quarto.getId());
+        if (existente != null && mesmoCatalogo(existente, quarto)) {
+            return;
+        }
+        List<Quarto> quartos = new ArrayList<>(atual.todos);
+        quartos.removeIf(outro -> outro.getId().equals(quarto.getId()));
+        quartos.add(quarto);
+        atual = Fotografia.de(quartos);
+    }
+
+    synchronized void remover(Integer id) {
+        List<Quarto> quartos = new ArrayList<>(atual.todos);
+        quartos.removeIf(existente -> existente.getId().equals(id));
+        atual = Fotografia.de(quartos);
+    }
+
+    private static boolean mesmoCatalogo(Quarto a, Quarto b) {
+        return Objects.equals(a.getNumero(), b.getNumero())
+                && Objects.equals(a.getQtdHospedes(), b.getQtdHospedes())
+                && a.getTipoQuarto() == b.getTipoQuarto()
+                && (a.getValor() == null ? b.getValor() == null
+                : b.getValor() != null && a.getValor().compareTo(b.getValor()) == 0);
+    }
+
+    private static List<Quarto> copias(List<Quarto> quartos) {
+        return quartos.stream().map(CatalogoQuartos::copiar).toList();
+    }
+
+    // Cópia desligada do Hibernate, para que a fotografia não mude junto com a entidade gerenciada
+    static Quarto copiar(Quarto quarto) {
+        Quarto copia = new Quarto(quarto.getId());
+        copia.setNumero(quarto.getNumero());
+        copia.setQtdHospedes(quarto.getQtdHospedes());
+        copia.setTipoQuarto(quarto.getTipoQuarto());
+        copia.setValor(quarto.getValor());
+        copia.setDisponibilidade(quarto.getDisponibilidade());
+        copia.setVersao(quarto.getVersao());
+        return copia;
+    }
+
+    private static final class Fotografia {
+
+        private final List<Quarto> todos;
+        private final Map<Integer, Quarto> porId;
+        private final Map<Integer, Quarto> porNumero;
+        private final Map<ETipoQuarto, List<Quarto>> porTipo;
+
+        private Fotografia(List<Quarto> todos, Map<Integer, Quarto> porId, Map<Integer, Quarto> porNumero,
+                           Map<ETipoQuarto, List<Quarto>> porTipo) {
+            this.todos = todos;
+            this.porId = porId;
+            this.porNumero = porNumero;
+            this.porTipo = porTipo;
+        }
+
+        static Fotografia de(Collection<Quarto> quartos) {
+            List<Quarto> ordenados = quartos.stream()
+                    .sorted(Comparator.comparing(Quarto::getId))
+                    .toList();
+
+            Map<Integer, Quarto> porId = new HashMap<>();
+            Map<Integer, Quarto> porNumero = new HashMap<>();
+            Map<ETipoQuarto, List<Quarto>> porTipo = new EnumMap<>(ETipoQuarto.class);
+
+            for (Quarto quarto : ordenados) {
+                porId.put(quarto.getId(), quarto);
+                if (quarto.getNumero() != null) {
+                    porNumero.put(quarto.getNumero(), quarto);
+                }
+                if (quarto.getTipoQuarto() != null) {
+                    porTipo.computeIfAbsent(quarto.getTipoQuarto(), tipo -> new ArrayList<>()).add(quarto);
+                }
+            }
+            porTipo.replaceAll((tipo, lista) -> List.copyOf(lista));
+
+            return new Fotografia(ordenados, Collections.unmodifiableMap(porId),
+                    Collections.unmodifiableMap(porNumero), Collections.unmodifiableMap(porTipo));
+        }
+    }
+
+    /**
+     * Mantém o catálogo em dia com qualquer gravação de {@link Quarto}. A troca só acontece
+     * depois do commit, para que uma transação desfeita não apareça nas leituras.
+     */
+    public static class Sincronizacao {
+
+        private final ObjectProvider<CatalogoQuartos> catalogo;
+
+        public Sincronizacao(ObjectProvider<CatalogoQuartos> catalogo) {
+            this.catalogo = catalogo;
+        }
+
+        @PostPersist
+        @PostUpdate
+        void aoGravar(Quarto quarto) {
+            Quarto copia = copiar(quarto);
+            aposConfirmar(() -> catalogo.ifAvailable(c -> c.registrar(copia)));
+        }
+
+        @PostRemove
+        void aoRemover(Quarto quarto) {
+            Integer id = quarto.getId();
+            aposConfirmar(() -> catalogo.ifAvailable(c -> c.remover(id)));
+        }
+
+        private void aposConfirmar(Runnable acao) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                acao.run();
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        }
+    }
+}
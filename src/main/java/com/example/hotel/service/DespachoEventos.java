@@ -0,0 +1,202 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.EventoReserva;
+import com.example.hotel.repository.EventoReservaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entrega os eventos de {@code evento_reserva} a todos os {@link DestinoEventos}, em lotes
+ * na ordem do id. Cada lote é reservado numa transação curta, que marca o prazo da entrega
+ * em {@code proxima_tentativa} e solta as travas; a entrega corre fora de transação e uma
+ * segunda transação apaga os entregues e registra as falhas.
+ * <p>
+ * Um evento que falha espera antes da próxima tentativa, o dobro a cada falha até
+ * {@code hotel.outbox.espera-maxima}, e os seguintes da mesma reserva esperam com ele, então
+ * cada reserva chega aos destinos na ordem em que foi alterada; as demais reservas do lote
+ * seguem normalmente. Depois de {@code hotel.outbox.tentativas} falhas o evento é marcado
+ * como descartado e fica na tabela para consulta, liberando os seguintes. Se a instância cair
+ * no meio da entrega, o lote volta para a fila quando o prazo vence.
+ * <p>
+ * Métricas: {@code outbox.reservas.atraso} (da gravação à entrega),
+ * {@code outbox.reservas.pendente.idade} (evento mais antigo do último lote) e
+ * {@code outbox.reservas.entregas} por resultado. Sem destinos configurados nada é lido e
+ * os eventos ficam na tabela.
+ */
+@Component
+public class DespachoEventos {
+
+    private static final int TAMANHO_ERRO = 500;
+
+    private final EventoReservaRepository repository;
+    private final List<DestinoEventos> destinos;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+    private final int maximoTentativas;
+    private final Duration prazoEntrega;
+    private final Duration espera;
+    private final Duration esperaMaxima;
+
+    private final Timer atraso;
+    private final Counter entregues;
+    private final Counter falhas;
+    private final Counter descartados;
+
+    // Gravação do evento mais antigo do último lote, em ms desde a época; 0 sem pendentes
+    private final AtomicLong maisAntigo = new AtomicLong();
+
+    public DespachoEventos(EventoReservaRepository repository,
+                           ObjectProvider<DestinoEventos> destinos,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry registry,
+                           @Value("${hotel.outbox.lote:200}") int tamanhoLote,
+                           @Value("${hotel.outbox.tentativas:10}") int maximoTentativas,
+                           @Value("${hotel.outbox.prazo-entrega:20m}") Duration prazoEntrega,
+                           @Value("${hotel.outbox.espera:1s}") Duration espera,
+                           @Value("${hotel.outbox.espera-maxima:10m}") Duration esperaMaxima) {
+        this.repository = repository;
+        this.destinos = destinos.orderedStream().toList();
+        this.tamanhoLote = tamanhoLote;
+        this.maximoTentativas = maximoTentativas;
+        this.prazoEntrega = prazoEntrega;
+        this.espera = espera;
+        this.esperaMaxima = esperaMaxima;
+
+        // Em READ COMMITTED o FOR UPDATE trava só os eventos lidos. Em REPEATABLE READ o MySQL
+        // travaria também o intervalo depois do último, e as reservas esperariam a reserva do lote
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        this.atraso = Timer.builder("outbox.reservas.atraso")
+                .description("Tempo entre a gravação do evento e a entrega a todos os destinos")
+                .register(registry);
+        this.entregues = contador(registry, "entregue");
+        this.falhas = contador(registry, "falha");
+        this.descartados = contador(registry, "descartado");
+        Gauge.builder("outbox.reservas.pendente.idade", maisAntigo, DespachoEventos::idadeSegundos)
+                .description("Idade do evento mais antigo do último lote")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.outbox.intervalo:1s}", initialDelayString = "${hotel.outbox.intervalo:1s}")
+    public void despachar() {
+        if (destinos.isEmpty()) {
+            return;
+        }
+
+        // Um lote cheio e todo entregue indica que há mais eventos esperando
+        int entregues;
+        do {
+            entregues = despacharLote();
+        } while (entregues == tamanhoLote);
+    }
+
+    private int despacharLote() {
+        List<EventoReserva> lote = transacao.execute(status -> reservarLote());
+        maisAntigo.set(lote.isEmpty() ? 0 : lote.get(0).getCriadoEm().toInstant(ZoneOffset.UTC).toEpochMilli());
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        // Reservas com um evento que falhou nesta rodada: os seguintes voltam para a fila sem
+        // tentar, e a espera do que falhou os segura até a próxima tentativa
+        Set<Integer> retidas = new HashSet<>();
+        List<Long> ids = new ArrayList<>(lote.size());
+        List<Long> devolvidos = new ArrayList<>();
+        List<EventoReserva> falharam = new ArrayList<>();
+
+        for (EventoReserva evento : lote) {
+            if (retidas.contains(evento.getReservaId())) {
+                devolvidos.add(evento.getId());
+                continue;
+            }
+
+            try {
+                destinos.forEach(destino -> destino.entregar(evento));
+            } catch (RuntimeException e) {
+                retidas.add(evento.getReservaId());
+                evento.setTentativas(evento.getTentativas() + 1);
+                evento.setUltimoErro(resumo(e));
+                falharam.add(evento);
+                falhas.increment();
+                continue;
+            }
+
+            ids.add(evento.getId());
+            entregues.increment();
+            atraso.record(Duration.between(evento.getCriadoEm(), LocalDateTime.now(ZoneOffset.UTC)));
+        }
+
+        transacao.executeWithoutResult(status -> registrar(ids, devolvidos, falharam));
+        return ids.size();
+    }
+
+    // Busca os eventos que podem sair e os marca com o prazo da entrega, no mesmo comando de travas
+    private List<EventoReserva> reservarLote() {
+        var agora = LocalDateTime.now(ZoneOffset.UTC);
+        List<EventoReserva> lote = repository.buscarPendentes(agora, Limit.of(tamanhoLote));
+        if (!lote.isEmpty()) {
+            repository.adiar(lote.stream().map(EventoReserva::getId).toList(), agora.plus(prazoEntrega));
+        }
+        return lote;
+    }
+
+    private void registrar(List<Long> entregues, List<Long> devolvidos, List<EventoReserva> falharam) {
+        repository.deleteAllByIdInBatch(entregues);
+        if (!devolvidos.isEmpty()) {
+            repository.adiar(devolvidos, null);
+        }
+
+        var agora = LocalDateTime.now(ZoneOffset.UTC);
+        for (EventoReserva evento : falharam) {
+            boolean descartar = evento.getTentativas() >= maximoTentativas;
+            repository.registrarFalha(evento.getId(), evento.getTentativas(), evento.getUltimoErro(),
+                    descartar ? null : agora.plus(espera(evento.getTentativas())), descartar);
+            if (descartar) {
+                descartados.increment();
+            }
+        }
+    }
+
+    // Dobra a cada falha, até a espera máxima
+    Duration espera(int tentativas) {
+        Duration proxima = espera.multipliedBy(1L << Math.min(tentativas - 1, 30));
+        return proxima.compareTo(esperaMaxima) > 0 ? esperaMaxima : proxima;
+    }
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("outbox.reservas.entregas")
+                .description("Entregas de eventos de reserva aos destinos")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    private static double idadeSegundos(AtomicLong maisAntigo) {
+        long gravado = maisAntigo.get();
+        return gravado == 0 ? 0 : Math.max(0, System.currentTimeMillis() - gravado) / 1000.0;
+    }
+
+    private static String resumo(RuntimeException e) {
+        String resumo = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        return resumo.length() <= TAMANHO_ERRO ? resumo : resumo.substring(0, TAMANHO_ERRO);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.EventoReserva;
+
+/**
+ * Sistema externo que recebe os eventos das reservas (governança, faturamento...). Cada
+ * bean desta interface recebe todos os eventos, em ordem por reserva.
+ * <p>
+ * A entrega é pelo menos uma vez: um evento pode chegar de novo se a aplicação cair depois
+ * de entregá-lo ou se outro destino falhar, então o destino deve ignorar ids já recebidos.
+ */
+public interface DestinoEventos {
+
+    /**
+     * Entrega um evento; qualquer exceção faz o despacho tentar de novo na próxima rodada.
+     */
+    void entregar(EventoReserva evento);
+}
@@ -0,0 +1,77 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.EventoReserva;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Envia cada evento num {@code POST} em JSON para {@code hotel.outbox.http.url}, com o id
+ * do evento no cabeçalho {@code Idempotency-Key}. Qualquer resposta fora de 2xx é falha.
+ */
+@Component
+@ConditionalOnProperty("hotel.outbox.http.url")
+public class DestinoHttp implements DestinoEventos {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public DestinoHttp(ObjectMapper objectMapper,
+                       @Value("${hotel.outbox.http.url}") URI url,
+                       @Value("${hotel.outbox.http.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void entregar(EventoReserva evento) {
+        var request = HttpRequest.newBuilder(url)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", evento.getId().toString())
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(corpo(evento)))
+                .build();
+
+        HttpResponse<Void> resposta;
+        try {
+            resposta = http.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Entrega interrompida", e);
+        }
+
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("O destino respondeu " + resposta.statusCode());
+        }
+    }
+
+    private String corpo(EventoReserva evento) {
+        var corpo = objectMapper.createObjectNode();
+        corpo.put("id", evento.getId());
+        corpo.put("reservaId", evento.getReservaId());
+        corpo.put("tipo", evento.getTipo().name());
+        corpo.put("criadoEm", evento.getCriadoEm().toString());
+        try {
+            corpo.set("reserva", objectMapper.readTree(evento.getDados()));
+            return objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Evento " + evento.getId() + " com dados inválidos", e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.hotel.service;
+
+import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.model.PreReserva;
+import com.example.hotel.repository.PreReservaRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Expira as pré-reservas no prazo sem consultar o banco enquanto esperam: cada uma entra numa
+ * {@link RodaTemporizacao} em memória, com tiques de um segundo, e só as vencidas vão ao banco.
+ * Na subida a roda é montada a partir da tabela, e as que venceram com a aplicação parada
+ * expiram no primeiro tique.
+ * <p>
+ * A expiração apaga a linha e libera o calendário; se a pré-reserva já foi confirmada, ou
+ * a linha foi apagada por outra instância, não há nada a fazer. As noites ficam livres para
+ * as outras instâncias já no prazo, porque a checagem de sobreposição ignora pré-reservas
+ * vencidas.
+ */
+@Component
+public class ExpiracaoPreReservas {
+
+    private static final long TIQUE_MS = 1_000;
+
+    // Nova tentativa quando o banco falhar durante a expiração
+    private static final long ESPERA_FALHA_MS = 5_000;
+
+    private static final int LINHAS_POR_COMANDO = 500;
+
+    private final PreReservaRepository repository;
+    private final CalendarioOcupacao calendario;
+    private final TransactionTemplate transacao;
+    private final Duration duracaoPadrao;
+    private final Duration duracaoMaxima;
+
+    // ReentrantLock em vez de synchronized, como no calendário, por causa das threads virtuais
+    private final ReentrantLock trava = new ReentrantLock();
+    private final RodaTemporizacao<Integer> roda = new RodaTemporizacao<>(TIQUE_MS, System.currentTimeMillis());
+    private final Map<Integer, RodaTemporizacao.Temporizador<Integer>> porId = new HashMap<>();
+
+    // Thread própria: o agendador do Spring também roda o despacho do outbox, que pode demorar
+    private final ScheduledExecutorService relogio = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        var thread = new Thread(tarefa, "expiracao-pre-reservas");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExpiracaoPreReservas(PreReservaRepository repository,
+                                CalendarioOcupacao calendario,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${hotel.reservas.pre-reserva.duracao:15m}") Duration duracaoPadrao,
+                                @Value("${hotel.reservas.pre-reserva.duracao-maxima:30m}") Duration duracaoMaxima) {
+        this.repository = repository;
+        this.calendario = calendario;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.duracaoPadrao = duracaoPadrao;
+        this.duracaoMaxima = duracaoMaxima;
+    }
+
+    // Depois do calendário, que recomeça só com as reservas
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void carregar() {
+        List<PreReserva> preReservas = repository.findAll();
+        preReservas.forEach(preReserva -> calendario.ocupar(preReserva.getQuartoId(),
+                preReserva.getCheckin(), preReserva.getCheckout()));
+
+        trava.lock();
+        try {
+            preReservas.forEach(preReserva -> agendarNaRoda(preReserva.getId(), preReserva.getExpiraEm()));
+        } finally {
+            trava.unlock();
+        }
+
+        relogio.scheduleAtFixedRate(this::avancar, TIQUE_MS - System.currentTimeMillis() % TIQUE_MS,
+                TIQUE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        relogio.shutdownNow();
+    }
+
+    /**
+     * Vencimento de uma pré-reserva criada agora com a duração pedida, ou a padrão.
+     */
+    public LocalDateTime vencimento(Integer segundos) {
+        Duration duracao = segundos == null ? duracaoPadrao : Duration.ofSeconds(segundos);
+        if (duracao.isNegative() || duracao.isZero() || duracao.compareTo(duracaoMaxima) > 0) {
+            throw new ValidacaoException("A pré-reserva deve durar entre 1 e "
+                    + duracaoMaxima.toSeconds() + " segundos");
+        }
+        return LocalDateTime.now(ZoneOffset.UTC).plus(duracao);
+    }
+
+    /**
+     * Agenda a expiração quando a transação que criou a pré-reserva for confirmada.
+     */
+    public void agendar(PreReserva preReserva) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trava.lock();
+                try {
+                    agendarNaRoda(preReserva.getId(), preReserva.getExpiraEm());
+                } finally {
+                    trava.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Tira da roda a pré-reserva confirmada, depois do commit.
+     */
+    public void cancelar(Integer id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trava.lock();
+                try {
+                    var temporizador = porId.remove(id);
+                    if (temporizador != null) {
+                        roda.cancelar(temporizador);
+                    }
+                } finally {
+                    trava.unlock();
+                }
+            }
+        });
+    }
+
+    int pendentes() {
+        trava.lock();
+        try {
+            return roda.tamanho();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    void avancar() {
+        long agora = System.currentTimeMillis();
+        List<Integer> vencidas = new ArrayList<>();
+
+        trava.lock();
+        try {
+            roda.avancar(agora, id -> {
+                porId.remove(id);
+                vencidas.add(id);
+            });
+        } finally {
+            trava.unlock();
+        }
+
+        for (int inicio = 0; inicio < vencidas.size(); inicio += LINHAS_POR_COMANDO) {
+            var lote = vencidas.subList(inicio, Math.min(inicio + LINHAS_POR_COMANDO, vencidas.size()));
+            try {
+                transacao.executeWithoutResult(status -> expirar(lote, agora));
+            } catch (RuntimeException e) {
+                // A exceção pararia o relógio; as pré-reservas do lote voltam para a roda
+                reagendar(lote, agora + ESPERA_FALHA_MS);
+            }
+        }
+    }
+
+    private void expirar(List<Integer> ids, long agora) {
+        var limite = LocalDateTime.ofInstant(Instant.ofEpochMilli(agora), ZoneOffset.UTC);
+        List<PreReserva> vencidas = new ArrayList<>();
+
+        for (PreReserva preReserva : repository.findAllByIdParaExpirar(ids)) {
+            if (preReserva.getExpiraEm().isAfter(limite)) {
+                // Agendada por outra instância com relógio adiantado: espera o prazo gravado
+                reagendar(List.of(preReserva.getId()), preReserva.getExpiraEm());
+            } else {
+                vencidas.add(preReserva);
+            }
+        }
+
+        repository.deleteAllInBatch(vencidas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                vencidas.forEach(preReserva -> calendario.liberar(preReserva.getQuartoId(),
+                        preReserva.getCheckin(), preReserva.getCheckout()));
+            }
+        });
+    }
+
+    private void reagendar(List<Integer> ids, long prazoMs) {
+        trava.lock();
+        try {
+            ids.forEach(id -> porId.put(id, roda.agendar(prazoMs, id)));
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void reagendar(List<Integer> ids, LocalDateTime prazo) {
+        reagendar(ids, prazo.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private void agendarNaRoda(Integer id, LocalDateTime expiraEm) {
+        porId.put(id, roda.agendar(expiraEm.toInstant(ZoneOffset.UTC).toEpochMilli(), id));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.model.Reservas;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta todas as reservas em JSON delimitado por linha (uma reserva por linha).
+ * As reservas são lidas aos poucos do banco e escritas direto na saída, e o contexto
+ * de persistência é limpo a cada bloco, então a memória usada não cresce com a tabela.
+ * <p>
+ * A leitura em fluxo fica só nesta consulta, pelo fetch size: no MySQL,
+ * {@code Integer.MIN_VALUE} faz o driver entregar linha a linha em vez de trazer o
+ * resultado inteiro; os outros bancos recebem um fetch size positivo.
+ */
+@Service
+public class ExportacaoReservaService {
+
+    private static final int TAMANHO_BLOCO = 500;
+
+    private static final String CONSULTA =
+            "select r from Reservas r join fetch r.hospede join fetch r.quarto order by r.id";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportacaoReservaService(EntityManager entityManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${hotel.reservas.exportacao.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream saida) throws IOException {
+        long total = 0;
+
+        // O flush fica por conta do bloco, não de cada linha
+        ObjectWriter writer = objectMapper.writerFor(ReservaResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Reservas> reservas = streamTodas();
+             JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Sem separador entre os objetos: a quebra de linha é escrita depois de cada um
+            gerador.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            Iterator<Reservas> iterator = reservas.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(gerador, ReservaResponse.fromEntity(iterator.next()));
+                gerador.writeRaw('\n');
+
+                if (++total % TAMANHO_BLOCO == 0) {
+                    entityManager.clear();
+                    gerador.flush();
+                }
+            }
+        }
+
+        return total;
+    }
+
+    // Precisa ser consumido dentro da transação da exportação
+    private Stream<Reservas> streamTodas() {
+        return entityManager.createQuery(CONSULTA, Reservas.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.hotel.service;
+
+import com.example.hotel.repository.HospedeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom com os CPFs cadastrados. Quando responde que um CPF não está no filtro,
+ * ele certamente não foi cadastrado por esta instância e o cadastro segue sem ir ao banco;
+ * quando responde "talvez", quem decide é a consulta. Cadastros feitos por outras instâncias
+ * não passam por aqui, por isso o índice único de cpf_numerico continua sendo a garantia final.
+ */
+@Component
+public class FiltroCpf {
+
+    // Com ~10 bits por CPF e 7 funções de hash, cerca de 1% de falsos "talvez"
+    private static final int BITS_POR_ELEMENTO = 10;
+    private static final int FUNCOES_HASH = 7;
+
+    private final HospedeRepository repository;
+    private final AtomicLongArray bits;
+    private final long totalBits;
+
+    // Até a carga terminar o filtro está vazio e não pode responder "não cadastrado"
+    private volatile boolean carregado;
+
+    public FiltroCpf(HospedeRepository repository,
+                     @Value("${hotel.hospedes.filtro-cpf.capacidade:1000000}") int capacidade) {
+        this.repository = repository;
+        this.totalBits = Math.max(64L, (long) capacidade * BITS_POR_ELEMENTO);
+        this.bits = new AtomicLongArray((int) ((totalBits + 63) / 64));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        try (Stream<Long> cpfs = repository.streamCpfsNumericos()) {
+            cpfs.forEach(this::adicionar);
+        }
+        carregado = true;
+    }
+
+    public boolean talvezCadastrado(long cpf) {
+        if (!carregado) {
+            return true;
+        }
+
+        long hash1 = misturar(cpf);
+        long hash2 = misturar(hash1);
+        for (int i = 0; i < FUNCOES_HASH; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, totalBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void adicionar(long cpf) {
+        long hash1 = misturar(cpf);
+        long hash2 = misturar(hash1);
+        for (int i = 0; i < FUNCOES_HASH; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, totalBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+            } while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    // Finalizador do SplitMix64: CPFs próximos caem em bits bem distantes
+    private static long misturar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
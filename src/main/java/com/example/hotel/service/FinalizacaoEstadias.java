@@ -0,0 +1,100 @@
+package com.example.hotel.service;
+
+import com.example.hotel.repository.ReservaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Finaliza as reservas cujo checkout já passou. Reservas finalizadas não podem mais ser
+ * alteradas nem canceladas, e as respostas trazem {@code finalizada = true}. Cada rodada
+ * percorre as estadias em lotes pela ordem do id, com um cursor no último id do lote, e cada
+ * lote é uma transação curta com um UPDATE pela faixa de ids. Entre os lotes há uma pausa,
+ * para que as reservas não disputem as travas com a rodada.
+ * <p>
+ * Os quartos não mudam: a disponibilidade sai do calendário, que já ignora as noites passadas.
+ */
+@Component
+public class FinalizacaoEstadias {
+
+    private final ReservaRepository repository;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+    private final Duration pausa;
+
+    private final Counter finalizadas;
+
+    public FinalizacaoEstadias(ReservaRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${hotel.reservas.finalizacao.lote:500}") int tamanhoLote,
+                               @Value("${hotel.reservas.finalizacao.pausa:100ms}") Duration pausa) {
+        this.repository = repository;
+        this.tamanhoLote = tamanhoLote;
+        this.pausa = pausa;
+
+        // Como no despacho do outbox: em READ COMMITTED os UPDATEs travam só as linhas alteradas,
+        // sem os intervalos entre elas, e as reservas novas não esperam o lote
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        this.finalizadas = Counter.builder("hotel.reservas.finalizadas")
+                .description("Reservas marcadas como finalizadas depois do checkout")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.reservas.finalizacao.intervalo:1h}",
+            initialDelayString = "${hotel.reservas.finalizacao.intervalo:1h}")
+    public void finalizar() {
+        // A data fica fixa durante a rodada, mesmo que ela passe da meia-noite
+        var hoje = LocalDate.now();
+        Integer cursor = 0;
+
+        while (cursor != null) {
+            Integer inicio = cursor;
+            cursor = transacao.execute(status -> finalizarLote(inicio, hoje));
+
+            if (cursor != null && !esperar()) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Devolve o último id do lote, ou null quando o lote veio incompleto e não há mais o que
+     * finalizar. O UPDATE das reservas repete as condições da busca, então uma reserva alterada
+     * ou cancelada entre as duas leituras fica como está.
+     */
+    private Integer finalizarLote(Integer cursor, LocalDate hoje) {
+        List<Integer> lote = repository.buscarEstadiasEncerradas(cursor, hoje, Limit.of(tamanhoLote));
+        if (lote.isEmpty()) {
+            return null;
+        }
+
+        Integer ultimo = lote.get(lote.size() - 1);
+        finalizadas.increment(repository.finalizarEstadias(cursor, ultimo, hoje));
+
+        return lote.size() < tamanhoLote ? null : ultimo;
+    }
+
+    private boolean esperar() {
+        try {
+            Thread.sleep(pausa.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            // Aplicação encerrando: o restante fica para a próxima rodada
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -4,39 +4,74 @@ import com.example.hotel.dto.HospedeRequest;
 import com.example.hotel.exception.ValidacaoException;
 import com.example.hotel.model.Hospede;
 import com.example.hotel.repository.HospedeRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Service
+@Timed("hotel.servico")
 @RequiredArgsConstructor
 public class HospedeService {
 
+    private static final int LIMITE_MAXIMO_BUSCA = 50;
+
     private final HospedeRepository repository;
 
+    private final CacheHospedes cache;
+
+    private final FiltroCpf filtroCpf;
+
+    private final IndiceNomesHospedes indiceNomes;
+
+    @Transactional(readOnly = true)
     public List<Hospede>listarTodos() {
         return repository.findAll();
     }
 
     public Hospede buscarHospedePorId(Integer id) {
-        return repository.findById(id)
+        return cache.buscarPorId(id, repository::findById)
                 .orElseThrow(() -> new ValidacaoException("Hóspede não encontrado com o ID: " + id));
     }
 
+    public Hospede buscarHospedePorCpf(String cpf) {
+        return cache.buscarPorCpf(cpf, repository::findByCpf)
+                .orElseThrow(() -> new ValidacaoException("Hóspede não encontrado com o CPF: " + cpf));
+    }
+
     public Hospede buscarHospedePorNome(String nome) {
         return repository.findByNome(nome)
                 .orElseThrow(() -> new ValidacaoException("Hóspede não encontrado com o nome: " + nome));
     }
 
+    /**
+     * Busca enquanto se digita: nomes parecidos com o texto, do mais para o menos relevante.
+     */
+    public List<Hospede> buscarHospedesPorTrechoDoNome(String texto, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_BUSCA) {
+            throw new ValidacaoException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_BUSCA);
+        }
+
+        return indiceNomes.buscar(texto, limite).stream()
+                .map(id -> cache.buscarPorId(id, repository::findById))
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
     public void deletarHospede(Integer id) {
         buscarHospedePorId(id);
         repository.deleteById(id);
+        cache.invalidar(id);
     }
 
     public Hospede atualizarDadosHospede(Integer id, Hospede hospede) {
-        var hospedeAtual = buscarHospedePorId(id);
+        // Lido do banco, e não do cache, para não alterar a instância que outras requisições estão lendo
+        var hospedeAtual = repository.findById(id)
+                .orElseThrow(() -> new ValidacaoException("Hóspede não encontrado com o ID: " + id));
 
         if (hospede.getCpf() != null && !hospedeAtual.getCpf().equals(hospede.getCpf())) {
             verificarCpfExistente(hospede.getCpf());
@@ -58,7 +93,10 @@ public class HospedeService {
             hospedeAtual.setDataNascimento(hospedeRequest.getDataNascimento());
         }
 
-        return repository.save(hospedeAtual);
+        var hospedeAtualizado = repository.save(hospedeAtual);
+        cache.invalidar(id);
+        registrarCpf(hospedeAtualizado.getCpf());
+        return hospedeAtualizado;
     }
 
     public Hospede salvarHospede(HospedeRequest request) {
@@ -70,15 +108,30 @@ public class HospedeService {
         hospede.setTelefone(request.getTelefone());
         hospede.setCpf(request.getCpf());
 
-        return repository.save(hospede);
+        var hospedeSalvo = repository.save(hospede);
+        registrarCpf(hospedeSalvo.getCpf());
+        return hospedeSalvo;
     }
 
+    // Se dois cadastros do mesmo CPF passarem juntos por aqui, o índice único de cpf_numerico recusa o segundo
     private void verificarCpfExistente(String cpf) {
-        if (repository.existsByCpf(cpf)) {
+        Long cpfNumerico = Hospede.normalizarCpf(cpf);
+        var cadastrado = cpfNumerico != null
+                ? filtroCpf.talvezCadastrado(cpfNumerico) && repository.existsByCpfNumerico(cpfNumerico)
+                : repository.existsByCpf(cpf);
+
+        if (cadastrado) {
             throw new ValidacaoException("CPF " + cpf + " já está cadastrado no sistema.");
         }
     }
 
+    private void registrarCpf(String cpf) {
+        Long cpfNumerico = Hospede.normalizarCpf(cpf);
+        if (cpfNumerico != null) {
+            filtroCpf.adicionar(cpfNumerico);
+        }
+    }
+
     private void validarDataNascimento(LocalDate dataNascimento) {
         if (dataNascimento.isAfter(LocalDate.now())) {
             throw new ValidacaoException("A data de nascimento não pode ser maior que a atual");
@@ -0,0 +1,232 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.NomeHospede;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.repository.HospedeRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice de trigramas dos nomes dos hóspedes, para a busca enquanto se digita.
+ * Os nomes são comparados sem acento e sem diferença de maiúsculas, cada palavra recebe
+ * dois espaços à esquerda (então "ma" casa com o início de "Maria") e a nota é a
+ * semelhança entre os trigramas da busca e os do nome, com bônus para prefixos.
+ * Erros de digitação em uma ou duas letras ainda deixam trigramas em comum suficientes.
+ */
+@Component
+public class IndiceNomesHospedes {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final HospedeRepository repository;
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private final Map<String, Set<Integer>> idsPorTrigrama = new HashMap<>();
+    private final Map<Integer, Entrada> entradas = new HashMap<>();
+
+    public IndiceNomesHospedes(HospedeRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        try (Stream<NomeHospede> hospedes = repository.streamNomes()) {
+            hospedes.forEach(hospede -> registrar(hospede.getId(), hospede.getNome()));
+        }
+    }
+
+    /**
+     * Ids dos hóspedes mais parecidos com o texto, do mais para o menos relevante.
+     */
+    public List<Integer> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        // A última palavra pode estar pela metade, então não ganha o espaço final
+        Set<String> trigramas = trigramas(consulta, false);
+
+        trava.readLock().lock();
+        try {
+            Map<Integer, Integer> emComum = new HashMap<>();
+            for (String trigrama : trigramas) {
+                for (Integer id : idsPorTrigrama.getOrDefault(trigrama, Set.of())) {
+                    emComum.merge(id, 1, Integer::sum);
+                }
+            }
+
+            Comparator<Resultado> ordem = Comparator.comparingDouble(Resultado::nota)
+                    .thenComparing(resultado -> resultado.entrada().nome(), Comparator.reverseOrder());
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1, ordem);
+
+            emComum.forEach((id, quantidade) -> {
+                // Metade dos trigramas da busca é o mínimo para não trazer nomes sem relação
+                if (quantidade * 2 < trigramas.size()) {
+                    return;
+                }
+                Entrada entrada = entradas.get(id);
+                melhores.add(new Resultado(id, entrada, nota(consulta, trigramas.size(), entrada, quantidade)));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            });
+
+            List<Integer> ids = new ArrayList<>(melhores.size());
+            while (!melhores.isEmpty()) {
+                ids.add(melhores.poll().id());
+            }
+            Collections.reverse(ids);
+            return ids;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public void registrar(Integer id, String nome) {
+        String normalizado = normalizar(nome);
+        Set<String> trigramas = trigramas(normalizado, true);
+
+        trava.writeLock().lock();
+        try {
+            removerSemTrava(id);
+            entradas.put(id, new Entrada(normalizado, trigramas));
+            for (String trigrama : trigramas) {
+                idsPorTrigrama.computeIfAbsent(trigrama, chave -> new HashSet<>()).add(id);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public void remover(Integer id) {
+        trava.writeLock().lock();
+        try {
+            removerSemTrava(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void removerSemTrava(Integer id) {
+        Entrada anterior = entradas.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String trigrama : anterior.trigramas()) {
+            Set<Integer> ids = idsPorTrigrama.get(trigrama);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsPorTrigrama.remove(trigrama);
+            }
+        }
+    }
+
+    private static double nota(String consulta, int trigramasConsulta, Entrada entrada, int emComum) {
+        // Semelhança de Jaccard entre os conjuntos de trigramas
+        double nota = (double) emComum / (trigramasConsulta + entrada.trigramas().size() - emComum);
+        if (entrada.nome().startsWith(consulta)) {
+            nota += 1;
+        } else if (entrada.nome().contains(" " + consulta)) {
+            nota += 0.5;
+        }
+        return nota;
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcento.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static Set<String> trigramas(String normalizado, boolean completarUltimaPalavra) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        if (normalizado.isEmpty()) {
+            return trigramas;
+        }
+
+        String[] palavras = normalizado.split(" ");
+        for (int i = 0; i < palavras.length; i++) {
+            boolean completa = completarUltimaPalavra || i < palavras.length - 1;
+            String palavra = "  " + palavras[i] + (completa ? " " : "");
+            for (int inicio = 0; inicio + 3 <= palavra.length(); inicio++) {
+                trigramas.add(palavra.substring(inicio, inicio + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    private record Entrada(String nome, Set<String> trigramas) {
+    }
+
+    private record Resultado(Integer id, Entrada entrada, double nota) {
+    }
+
+    /**
+     * Atualiza o índice a cada hóspede gravado ou removido, depois do commit.
+     */
+    public static class Sincronizacao {
+
+        private final ObjectProvider<IndiceNomesHospedes> indice;
+
+        public Sincronizacao(ObjectProvider<IndiceNomesHospedes> indice) {
+            this.indice = indice;
+        }
+
+        @PostPersist
+        @PostUpdate
+        void aoGravar(Hospede hospede) {
+            Integer id = hospede.getId();
+            String nome = hospede.getNome();
+            aposConfirmar(() -> indice.ifAvailable(i -> i.registrar(id, nome)));
+        }
+
+        @PostRemove
+        void aoRemover(Hospede hospede) {
+            Integer id = hospede.getId();
+            aposConfirmar(() -> indice.ifAvailable(i -> i.remover(id)));
+        }
+
+        private void aposConfirmar(Runnable acao) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                acao.run();
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        }
+    }
+}
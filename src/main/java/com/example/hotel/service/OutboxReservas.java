@@ -0,0 +1,77 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.enums.ETipoEventoReserva;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Grava os eventos das reservas na tabela {@code evento_reserva}, dentro da transação que
+ * alterou as reservas: o evento existe se e somente se a alteração foi confirmada. Os
+ * sistemas externos recebem os eventos depois, pelo {@link DespachoEventos}, sem somar a
+ * própria latência à da reserva.
+ */
+@Component
+public class OutboxReservas {
+
+    // Cada linha usa quatro parâmetros, como na ocupação diária
+    private static final int LINHAS_POR_COMANDO = 500;
+
+    private static final String INSERIR = "INSERT INTO evento_reserva (reserva_id, tipo, dados, criado_em) VALUES ";
+
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public OutboxReservas(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(ReservaResponse.class);
+    }
+
+    /**
+     * Um evento por reserva, todos num único comando (até {@value #LINHAS_POR_COMANDO}).
+     * Precisa rodar numa transação.
+     */
+    public void registrar(ETipoEventoReserva tipo, List<ReservaResponse> reservas) {
+        var criadoEm = LocalDateTime.now(ZoneOffset.UTC);
+        for (int inicio = 0; inicio < reservas.size(); inicio += LINHAS_POR_COMANDO) {
+            inserir(tipo, reservas.subList(inicio, Math.min(inicio + LINHAS_POR_COMANDO, reservas.size())), criadoEm);
+        }
+    }
+
+    private void inserir(ETipoEventoReserva tipo, List<ReservaResponse> reservas, LocalDateTime criadoEm) {
+        var sql = new StringBuilder(INSERIR);
+        for (int i = 0; i < reservas.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+
+        Query comando = entityManager.createNativeQuery(sql.toString());
+        // Sem isso o Hibernate faria o flush de toda a sessão antes do comando
+        comando.unwrap(NativeQuery.class).addSynchronizedQuerySpace("evento_reserva");
+
+        int parametro = 1;
+        for (ReservaResponse reserva : reservas) {
+            comando.setParameter(parametro++, reserva.getId());
+            comando.setParameter(parametro++, tipo.name());
+            comando.setParameter(parametro++, json(reserva));
+            comando.setParameter(parametro++, criadoEm);
+        }
+        comando.executeUpdate();
+    }
+
+    private String json(ReservaResponse reserva) {
+        try {
+            return writer.writeValueAsString(reserva);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a reserva " + reserva.getId(), e);
+        }
+    }
+}
@@ -1,41 +1,74 @@
 package com.example.hotel.service;
 
+import com.example.hotel.enums.ETipoQuarto;
 import com.example.hotel.exception.DisponibilidadeException;
 import com.example.hotel.exception.NotFoundException;
 import com.example.hotel.exception.ValidacaoException;
 import com.example.hotel.model.Quarto;
-import com.example.hotel.repository.QuartoRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
+@Timed("hotel.servico")
 @RequiredArgsConstructor
 public class QuartoService {
 
-    private final QuartoRepository repository;
+    private final CatalogoQuartos catalogo;
+
+    private final CalendarioOcupacao calendario;
 
     public List<Quarto> buscarTodos() {
-        return repository.findAll();
+        var hoje = LocalDate.now();
+        return catalogo.todos().stream()
+                .map(quarto -> comDisponibilidade(quarto, hoje, hoje.plusDays(1)))
+                .toList();
     }
 
     public Quarto buscarQuartoPorId(Integer id) {
-        return repository.findById(id)
+        var hoje = LocalDate.now();
+        return catalogo.porId(id)
+                .map(quarto -> comDisponibilidade(quarto, hoje, hoje.plusDays(1)))
                 .orElseThrow(() -> new NotFoundException("Quarto não encontrado"));
     }
 
-    public List<Quarto> obterQuartosDisponiveis() {
+    /**
+     * Quartos livres durante toda a estadia e com capacidade para os hóspedes.
+     * Sem datas, considera a noite de hoje.
+     */
+    public List<Quarto> obterQuartosDisponiveis(LocalDate checkin, LocalDate checkout,
+                                                Integer hospedes, ETipoQuarto tipo) {
+        LocalDate inicio = checkin != null ? checkin : LocalDate.now();
+        LocalDate fim = checkout != null ? checkout : inicio.plusDays(1);
+
+        if (inicio.isAfter(fim)) {
+            throw new ValidacaoException("A data de checkin não pode ser depois da data de checkout");
+        }
 
-        Boolean disponibilidade = true;
+        List<Quarto> candidatos = tipo != null ? catalogo.porTipo(tipo) : catalogo.todos();
 
-        List<Quarto> quartosDisponiveis = repository.findByDisponibilidade(disponibilidade);
+        List<Quarto> quartosDisponiveis = candidatos.stream()
+                .filter(quarto -> hospedes == null
+                        || (quarto.getQtdHospedes() != null && quarto.getQtdHospedes() >= hospedes))
+                .filter(quarto -> calendario.semSobreposicao(quarto.getId(), inicio, fim))
+                .map(quarto -> comDisponibilidade(quarto, inicio, fim))
+                .toList();
 
         if (quartosDisponiveis.isEmpty()) {
-            throw new DisponibilidadeException("Nenhum quarto disponível no momento");
+            throw new DisponibilidadeException("Nenhum quarto disponível para o período selecionado");
         }
 
         return quartosDisponiveis;
     }
 
+    // A disponibilidade não é gravada no quarto: vem do calendário, para o período consultado.
+    // O catálogo devolve cópias, então o campo pode ser preenchido direto
+    private Quarto comDisponibilidade(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        quarto.setDisponibilidade(calendario.semSobreposicao(quarto.getId(), checkin, checkout));
+        return quarto;
+    }
+
 }
@@ -0,0 +1,268 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.EstadiaReserva;
+import com.example.hotel.dto.OcupacaoDiariaResponse;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.OcupacaoDiariaRepository;
+import com.example.hotel.repository.ReservaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Ocupação e receita por noite e tipo de quarto, mantidas a cada reserva gravada em vez de
+ * calculadas a partir das reservas. A tabela {@code ocupacao_diaria} recebe as variações
+ * na mesma transação da reserva e a cópia em memória, lida pelo relatório, só depois do
+ * commit. O relatório custa O(dias × tipos), qualquer que seja o volume de reservas.
+ * <p>
+ * A receita da reserva é dividida em centavos entre as noites, com o resto nas primeiras.
+ */
+@Component
+public class RelatorioOcupacao {
+
+    static final int MAXIMO_DIAS = 366;
+
+    private static final ETipoQuarto[] TIPOS = ETipoQuarto.values();
+
+    // Cada linha usa quatro parâmetros; o limite mantém o comando bem abaixo do máximo do driver
+    private static final int LINHAS_POR_COMANDO = 500;
+
+    // Alias de linha em vez de VALUES(coluna), que o MySQL marca como obsoleto desde a 8.0.20
+    private static final String SOMAR = "INSERT INTO ocupacao_diaria (dia, tipo_quarto, quartos_ocupados, receita_centavos) VALUES ";
+    private static final String SOMAR_DUPLICADA = " AS novo ON DUPLICATE KEY UPDATE"
+            + " quartos_ocupados = quartos_ocupados + novo.quartos_ocupados,"
+            + " receita_centavos = receita_centavos + novo.receita_centavos";
+
+    // O H2 não aceita o alias de linha: o mesmo comando com o MERGE do padrão SQL
+    private static final String MESCLAR = "MERGE INTO ocupacao_diaria o USING (VALUES ";
+    private static final String MESCLAR_DUPLICADA = ") AS novo (dia, tipo_quarto, quartos_ocupados, receita_centavos)"
+            + " ON o.dia = novo.dia AND o.tipo_quarto = novo.tipo_quarto"
+            + " WHEN MATCHED THEN UPDATE SET quartos_ocupados = o.quartos_ocupados + novo.quartos_ocupados,"
+            + " receita_centavos = o.receita_centavos + novo.receita_centavos"
+            + " WHEN NOT MATCHED THEN INSERT (dia, tipo_quarto, quartos_ocupados, receita_centavos)"
+            + " VALUES (novo.dia, novo.tipo_quarto, novo.quartos_ocupados, novo.receita_centavos)";
+
+    private final OcupacaoDiariaRepository repository;
+    private final ReservaRepository reservaRepository;
+    private final CatalogoQuartos catalogo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transacao;
+    private final boolean somarComMerge;
+
+    // Por dia desde a época: quartos ocupados de cada tipo, seguidos da receita em centavos de cada tipo
+    private final Map<Long, AtomicLongArray> porDia = new ConcurrentHashMap<>();
+
+    public RelatorioOcupacao(OcupacaoDiariaRepository repository,
+                             ReservaRepository reservaRepository,
+                             CatalogoQuartos catalogo,
+                             EntityManager entityManager,
+                             TransactionTemplate transacao,
+                             @Value("${hotel.ocupacao.somar-com-merge:false}") boolean somarComMerge) {
+        this.repository = repository;
+        this.reservaRepository = reservaRepository;
+        this.catalogo = catalogo;
+        this.entityManager = entityManager;
+        this.transacao = transacao;
+        this.somarComMerge = somarComMerge;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        porDia.clear();
+        if (repository.count() == 0) {
+            // Primeira subida com a tabela: monta a partir das reservas ativas, uma única vez
+            transacao.executeWithoutResult(status -> reconstruir());
+            return;
+        }
+        repository.findAll().forEach(linha -> somarNaMemoria(linha.getDia().toEpochDay(), linha.getTipoQuarto(),
+                linha.getQuartosOcupados(), linha.getReceitaCentavos()));
+    }
+
+    private void reconstruir() {
+        var variacao = new Variacao();
+        try (Stream<EstadiaReserva> estadias = reservaRepository.streamEstadiasAtivas()) {
+            estadias.forEach(estadia -> variacao.somar(estadia.getTipoQuarto(), estadia.getCheckin(),
+                    estadia.getCheckout(), estadia.getValorTotal(), 1));
+        }
+        aplicar(variacao);
+    }
+
+    public void reservar(Collection<Reservas> reservas) {
+        var variacao = new Variacao();
+        reservas.forEach(reserva -> variacao.somar(reserva, 1));
+        aplicar(variacao);
+    }
+
+    public void cancelar(Reservas reserva) {
+        var variacao = new Variacao();
+        variacao.somar(reserva, -1);
+        aplicar(variacao);
+    }
+
+    /**
+     * Troca o período, o tipo de quarto e o valor anteriores pelos atuais da reserva. Só as
+     * noites que mudaram chegam ao banco, num único comando.
+     */
+    public void remarcar(ETipoQuarto tipoAnterior, LocalDate checkinAnterior, LocalDate checkoutAnterior,
+                         BigDecimal valorAnterior, Reservas reserva) {
+        var variacao = new Variacao();
+        variacao.somar(tipoAnterior, checkinAnterior, checkoutAnterior, valorAnterior, -1);
+        variacao.somar(reserva, 1);
+        aplicar(variacao);
+    }
+
+    public List<OcupacaoDiariaResponse> consultar(LocalDate de, LocalDate ate) {
+        if (de == null || ate == null) {
+            throw new ValidacaoException("Informe as datas de início e fim do relatório");
+        }
+        if (ate.isBefore(de)) {
+            throw new ValidacaoException("A data final do relatório não pode ser antes da inicial");
+        }
+        if (ChronoUnit.DAYS.between(de, ate) >= MAXIMO_DIAS) {
+            throw new ValidacaoException("O relatório pode cobrir no máximo " + MAXIMO_DIAS + " dias");
+        }
+
+        int[] totalQuartos = new int[TIPOS.length];
+        for (ETipoQuarto tipo : TIPOS) {
+            totalQuartos[tipo.ordinal()] = catalogo.contarPorTipo(tipo);
+        }
+
+        List<OcupacaoDiariaResponse> linhas = new ArrayList<>();
+        for (long dia = de.toEpochDay(); dia <= ate.toEpochDay(); dia++) {
+            AtomicLongArray valores = porDia.get(dia);
+            for (ETipoQuarto tipo : TIPOS) {
+                int ocupados = valores == null ? 0 : (int) valores.get(tipo.ordinal());
+                long receita = valores == null ? 0 : valores.get(TIPOS.length + tipo.ordinal());
+                int total = totalQuartos[tipo.ordinal()];
+                if (total == 0 && ocupados == 0) {
+                    continue;
+                }
+                linhas.add(new OcupacaoDiariaResponse(LocalDate.ofEpochDay(dia), tipo, ocupados, total,
+                        percentual(ocupados, total), BigDecimal.valueOf(receita, 2)));
+            }
+        }
+        return linhas;
+    }
+
+    private void aplicar(Variacao variacao) {
+        if (variacao.porNoite.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, long[]>> linhas = new ArrayList<>(variacao.porNoite.entrySet());
+        for (int inicio = 0; inicio < linhas.size(); inicio += LINHAS_POR_COMANDO) {
+            somarNoBanco(linhas.subList(inicio, Math.min(inicio + LINHAS_POR_COMANDO, linhas.size())));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                linhas.forEach(linha -> somarNaMemoria(Variacao.dia(linha.getKey()), Variacao.tipo(linha.getKey()),
+                        linha.getValue()[0], linha.getValue()[1]));
+            }
+        });
+    }
+
+    // Soma atômica no banco: transações que alteram a mesma noite não perdem a variação uma da outra
+    private void somarNoBanco(List<Map.Entry<Long, long[]>> linhas) {
+        var sql = new StringBuilder(somarComMerge ? MESCLAR : SOMAR);
+        for (int i = 0; i < linhas.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        sql.append(somarComMerge ? MESCLAR_DUPLICADA : SOMAR_DUPLICADA);
+
+        Query comando = entityManager.createNativeQuery(sql.toString());
+        // Sem isso o Hibernate faria o flush de toda a sessão antes do comando
+        comando.unwrap(NativeQuery.class).addSynchronizedQuerySpace("ocupacao_diaria");
+
+        int parametro = 1;
+        for (Map.Entry<Long, long[]> linha : linhas) {
+            comando.setParameter(parametro++, LocalDate.ofEpochDay(Variacao.dia(linha.getKey())));
+            comando.setParameter(parametro++, Variacao.tipo(linha.getKey()).name());
+            comando.setParameter(parametro++, linha.getValue()[0]);
+            comando.setParameter(parametro++, linha.getValue()[1]);
+        }
+        comando.executeUpdate();
+    }
+
+    private void somarNaMemoria(long dia, ETipoQuarto tipo, long quartos, long receitaCentavos) {
+        AtomicLongArray valores = porDia.computeIfAbsent(dia, d -> new AtomicLongArray(TIPOS.length * 2));
+        valores.addAndGet(tipo.ordinal(), quartos);
+        valores.addAndGet(TIPOS.length + tipo.ordinal(), receitaCentavos);
+    }
+
+    private static BigDecimal percentual(int ocupados, int total) {
+        if (total == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(ocupados * 100L).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Variação de quartos e receita por noite e tipo. A chave é {@code dia × tipos + tipo},
+     * então as linhas saem ordenadas por dia e tipo e transações concorrentes travam as
+     * linhas do banco na mesma ordem.
+     */
+    static final class Variacao {
+
+        final TreeMap<Long, long[]> porNoite = new TreeMap<>();
+
+        static long dia(long chave) {
+            return Math.floorDiv(chave, TIPOS.length);
+        }
+
+        static ETipoQuarto tipo(long chave) {
+            return TIPOS[Math.floorMod(chave, TIPOS.length)];
+        }
+
+        void somar(Reservas reserva, int sinal) {
+            somar(reserva.getQuarto().getTipoQuarto(), reserva.getCheckin(), reserva.getCheckout(),
+                    reserva.getValorTotal(), sinal);
+        }
+
+        void somar(ETipoQuarto tipo, LocalDate checkin, LocalDate checkout, BigDecimal valorTotal, int sinal) {
+            long primeira = checkin.toEpochDay();
+            long noites = checkout.toEpochDay() - primeira;
+            if (tipo == null || noites <= 0) {
+                return;
+            }
+
+            long centavos = valorTotal == null ? 0 : TabelaTarifas.centavos(valorTotal);
+            long porNoiteBase = centavos / noites;
+            long resto = centavos % noites;
+
+            for (long i = 0; i < noites; i++) {
+                long chave = (primeira + i) * TIPOS.length + tipo.ordinal();
+                long[] valores = porNoite.computeIfAbsent(chave, k -> new long[2]);
+                valores[0] += sinal;
+                valores[1] += sinal * (porNoiteBase + (i < resto ? 1 : 0));
+                // Remarcação para as mesmas noites: nada a gravar
+                if (valores[0] == 0 && valores[1] == 0) {
+                    porNoite.remove(chave);
+                }
+            }
+        }
+    }
+}
@@ -1,90 +1,309 @@
 package com.example.hotel.service;
 
 import com.example.hotel.dto.CancelamentoResponse;
+import com.example.hotel.dto.PreReservaRequest;
+import com.example.hotel.dto.PreReservaResponse;
+import com.example.hotel.dto.ReservaFiltro;
 import com.example.hotel.dto.ReservaRequest;
 import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.enums.ETipoEventoReserva;
 import com.example.hotel.exception.DisponibilidadeException;
 import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.PreReserva;
 import com.example.hotel.model.Quarto;
 import com.example.hotel.model.Reservas;
 import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.PreReservaRepository;
 import com.example.hotel.repository.QuartoRepository;
 import com.example.hotel.repository.ReservaRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("hotel.servico")
 @RequiredArgsConstructor
 public class ReservaService {
 
     private final ReservaRepository repository;
     private final QuartoRepository quartoRepository;
     private final HospedeRepository hospedeRepository;
-
-    public List<ReservaResponse> listarReservas() {
-        List<Reservas> reservas = repository.findAll();
-        if (reservas.isEmpty()) {
-            throw new NoSuchElementException("Nenhuma reserva encontrada no sistema.");
-        }
-
-        return reservas.stream()
-                .map(ReservaResponse::fromEntity)
-                .collect(Collectors.toList());
+    private final CacheHospedes cacheHospedes;
+    private final CalendarioOcupacao calendario;
+    private final TabelaTarifas tarifas;
+    private final RelatorioOcupacao ocupacao;
+    private final OutboxReservas outbox;
+    private final PreReservaRepository preReservaRepository;
+    private final ExpiracaoPreReservas expiracao;
+    private final TravasQuarto travas;
+    private final TransactionTemplate transacao;
+    private final RetentativaOtimista retentativa;
+
+    @Transactional(readOnly = true)
+    public List<ReservaResponse> listarReservas(ReservaFiltro filtro) {
+        return repository.buscarPagina(
+                filtro.getAfter(),
+                filtro.getDe(),
+                filtro.getAte(),
+                filtro.getHospedeId(),
+                filtro.getSituacao(),
+                Limit.of(filtro.limiteOuPadrao()));
     }
 
+    @Transactional(readOnly = true)
     public ReservaResponse buscarReservaPorId(Integer id) {
-        Reservas reserva = repository.findById(id)
+        return repository.buscarResponsePorId(id)
                 .orElseThrow(() -> new NoSuchElementException("Reserva não encontrada"));
-
-        return ReservaResponse.fromEntity(reserva);
     }
 
     public ReservaResponse cadastrarReserva(ReservaRequest request) {
-        var reserva = new Reservas();
-        reserva.setCheckin(request.getCheckin());
-        reserva.setCheckout(request.getCheckout());
-        reserva.setQtdHospedes(request.getQtdHospedes());
+        // Reservas do mesmo quarto entram uma por vez. A trava é obtida antes de abrir a
+        // transação para que as requisições em espera não segurem conexões do pool.
+        return travas.executar(request.getQuartoId(),
+                () -> transacao.execute(status -> reservar(request)));
+    }
 
-        var hospede = hospedeRepository.findById(request.getHospedeId())
-                .orElseThrow(() -> new NoSuchElementException("Hospede não encontrado"));
-        reserva.setHospede(hospede);
+    private ReservaResponse reservar(ReservaRequest request) {
+        // O lock do quarto é a primeira leitura da transação, assim a checagem de
+        // sobreposição abaixo já enxerga o que outra instância acabou de gravar
+        var quartoTravado = quartoRepository.findByIdParaReserva(request.getQuartoId());
 
-        var quarto = quartoRepository.findById(request.getQuartoId())
+        var hospede = buscarHospede(request.getHospedeId());
+
+        var quarto = quartoTravado
                 .orElseThrow(() -> new NoSuchElementException("Quarto não encontrado"));
 
-        reserva.setQuarto(quarto);
+        validarEOcupar(quarto, request);
 
-        try {
-            validarPeriodo(request.getCheckin(), request.getCheckout());
-            validarDisponibilidadeQuarto(quarto);
-            validarQuantidadeHospedePorQuarto(quarto, request.getQtdHospedes());
-            reserva.setSituacao(true);
-            quarto.setDisponibilidade(false);
-            quartoRepository.save(quarto);
-        } catch (DisponibilidadeException e) {
-            throw new DisponibilidadeException("O quarto não está disponível para reserva.");
+        var reservaSalva = repository.save(montarReserva(request, hospede, quarto));
+        ocupacao.reservar(List.of(reservaSalva));
+
+        var resposta = ReservaResponse.fromEntity(reservaSalva);
+        outbox.registrar(ETipoEventoReserva.CRIADA, List.of(resposta));
+        return resposta;
+    }
+
+    /**
+     * Segura o quarto no período até a confirmação ou até vencer o prazo. A pré-reserva passa
+     * pelas mesmas validações da reserva e ocupa o calendário do mesmo jeito; o valor é
+     * cotado agora e mantido na confirmação.
+     */
+    public PreReservaResponse cadastrarPreReserva(PreReservaRequest request) {
+        var expiraEm = expiracao.vencimento(request.getSegundos());
+        return travas.executar(request.getQuartoId(),
+                () -> transacao.execute(status -> preReservar(request.paraReserva(), expiraEm)));
+    }
+
+    private PreReservaResponse preReservar(ReservaRequest request, LocalDateTime expiraEm) {
+        var quartoTravado = quartoRepository.findByIdParaReserva(request.getQuartoId());
+
+        buscarHospede(request.getHospedeId());
+
+        var quarto = quartoTravado
+                .orElseThrow(() -> new NoSuchElementException("Quarto não encontrado"));
+
+        validarEOcupar(quarto, request);
+
+        var preReserva = new PreReserva();
+        preReserva.setHospedeId(request.getHospedeId());
+        preReserva.setQuartoId(quarto.getId());
+        preReserva.setCheckin(request.getCheckin());
+        preReserva.setCheckout(request.getCheckout());
+        preReserva.setQtdHospedes(request.getQtdHospedes());
+        preReserva.setValorTotal(tarifas.valorTotal(quarto, request.getCheckin(), request.getCheckout()));
+        preReserva.setExpiraEm(expiraEm);
+
+        var preReservaSalva = preReservaRepository.save(preReserva);
+        expiracao.agendar(preReservaSalva);
+        return PreReservaResponse.fromEntity(preReservaSalva);
+    }
+
+    /**
+     * Troca a pré-reserva pela reserva. As noites já estão ocupadas no calendário e continuam,
+     * agora pela reserva.
+     */
+    public ReservaResponse confirmarPreReserva(Integer id) {
+        return transacao.execute(status -> confirmar(id));
+    }
+
+    private ReservaResponse confirmar(Integer id) {
+        // A linha travada primeiro: a expiração da mesma pré-reserva espera ou já a apagou
+        var preReserva = preReservaRepository.findByIdParaConfirmar(id)
+                .orElseThrow(() -> new NoSuchElementException("Pré-reserva não encontrada"));
+
+        if (!preReserva.getExpiraEm().isAfter(LocalDateTime.now(ZoneOffset.UTC))) {
+            throw new ValidacaoException("A pré-reserva expirou");
         }
 
-        reserva.setValorTotal(calcularValorTotalReserva(
-                reserva.getCheckin(),
-                reserva.getCheckout(),
-                reserva.getQuarto().getValor())
-        );
+        var quarto = quartoRepository.findByIdParaReserva(preReserva.getQuartoId())
+                .orElseThrow(() -> new NoSuchElementException("Quarto não encontrado"));
+        var hospede = buscarHospede(preReserva.getHospedeId());
+
+        preReservaRepository.delete(preReserva);
+        expiracao.cancelar(id);
 
+        var reserva = montarReserva(preReserva.getCheckin(), preReserva.getCheckout(),
+                preReserva.getQtdHospedes(), hospede, quarto, preReserva.getValorTotal());
         var reservaSalva = repository.save(reserva);
-        return ReservaResponse.fromEntity(reservaSalva);
+        ocupacao.reservar(List.of(reservaSalva));
+
+        var resposta = ReservaResponse.fromEntity(reservaSalva);
+        outbox.registrar(ETipoEventoReserva.CRIADA, List.of(resposta));
+        return resposta;
+    }
+
+    /**
+     * Reserva vários quartos de uma vez, tudo ou nada. Todas as reservas são validadas
+     * antes de gravar qualquer uma, inclusive sobreposições dentro do próprio lote.
+     */
+    public List<ReservaResponse> cadastrarReservasEmLote(List<ReservaRequest> requests) {
+        Set<Integer> quartoIds = requests.stream()
+                .map(ReservaRequest::getQuartoId)
+                .collect(Collectors.toSet());
+
+        return travas.executar(quartoIds,
+                () -> transacao.execute(status -> reservarLote(requests, quartoIds)));
+    }
+
+    private List<ReservaResponse> reservarLote(List<ReservaRequest> requests, Set<Integer> quartoIds) {
+        Map<Integer, Quarto> quartos = quartoRepository.findAllByIdParaReserva(quartoIds).stream()
+                .collect(Collectors.toMap(Quarto::getId, Function.identity()));
+
+        Set<Integer> hospedeIds = requests.stream()
+                .map(ReservaRequest::getHospedeId)
+                .collect(Collectors.toSet());
+        Map<Integer, Hospede> hospedes = hospedeRepository.findAllById(hospedeIds).stream()
+                .collect(Collectors.toMap(Hospede::getId, Function.identity()));
+
+        validarLote(requests, quartos, hospedes);
+
+        List<Reservas> reservas = new ArrayList<>(requests.size());
+        for (ReservaRequest request : requests) {
+            var quarto = quartos.get(request.getQuartoId());
+            ocuparQuarto(quarto, request.getCheckin(), request.getCheckout());
+            seNaoConfirmar(() -> calendario.liberar(quarto.getId(), request.getCheckin(), request.getCheckout()));
+
+            reservas.add(montarReserva(request, hospedes.get(request.getHospedeId()), quarto));
+        }
+
+        ocupacao.reservar(reservas);
+
+        // Com o id vindo do gerador em tabela, o Hibernate agrupa os inserts em lotes JDBC
+        List<ReservaResponse> respostas = repository.saveAll(reservas).stream()
+                .map(ReservaResponse::fromEntity)
+                .collect(Collectors.toList());
+        outbox.registrar(ETipoEventoReserva.CRIADA, respostas);
+        return respostas;
+    }
+
+    private void validarLote(List<ReservaRequest> requests, Map<Integer, Quarto> quartos, Map<Integer, Hospede> hospedes) {
+        var de = requests.stream().map(ReservaRequest::getCheckin).min(LocalDate::compareTo).orElseThrow();
+        var ate = requests.stream().map(ReservaRequest::getCheckout).max(LocalDate::compareTo).orElseThrow();
+
+        // Períodos já gravados dos quartos do lote, reservas e pré-reservas; cada reserva validada entra na lista
+        Map<Integer, List<LocalDate[]>> ocupados = new HashMap<>();
+        repository.findPeriodosAtivosDosQuartos(quartos.keySet(), de, ate).forEach(periodo ->
+                ocupados.computeIfAbsent(periodo.getQuartoId(), id -> new ArrayList<>())
+                        .add(new LocalDate[]{periodo.getCheckin(), periodo.getCheckout()}));
+        preReservaRepository.findPeriodosAtivosDosQuartos(quartos.keySet(), de, ate, LocalDateTime.now(ZoneOffset.UTC))
+                .forEach(periodo -> ocupados.computeIfAbsent(periodo.getQuartoId(), id -> new ArrayList<>())
+                        .add(new LocalDate[]{periodo.getCheckin(), periodo.getCheckout()}));
+
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var posicao = "Reserva " + (i + 1) + ": ";
+
+            if (!hospedes.containsKey(request.getHospedeId())) {
+                throw new NoSuchElementException(posicao + "Hospede não encontrado");
+            }
+
+            var quarto = quartos.get(request.getQuartoId());
+            if (quarto == null) {
+                throw new NoSuchElementException(posicao + "Quarto não encontrado");
+            }
+
+            try {
+                validarPeriodo(request.getCheckin(), request.getCheckout());
+                validarQuantidadeHospedePorQuarto(quarto, request.getQtdHospedes());
+            } catch (ValidacaoException e) {
+                throw new ValidacaoException(posicao + e.getMessage());
+            }
+
+            var periodos = ocupados.computeIfAbsent(quarto.getId(), id -> new ArrayList<>());
+            var sobrepoe = periodos.stream().anyMatch(periodo ->
+                    periodo[0].isBefore(request.getCheckout()) && periodo[1].isAfter(request.getCheckin()));
+
+            if (sobrepoe || !calendario.estaLivre(quarto.getId(), request.getCheckin(), request.getCheckout())) {
+                throw new DisponibilidadeException(posicao + "O quarto não está disponível para reserva.");
+            }
+
+            periodos.add(new LocalDate[]{request.getCheckin(), request.getCheckout()});
+        }
     }
 
     public ReservaResponse atualizarReserva(Integer id, ReservaRequest request) {
-        var reservaAtual = repository.findById(id).orElseThrow(() -> new NoSuchElementException("Reserva não encontrada"));
+        // Como no cadastro, as travas dos quartos de origem e de destino vêm antes da transação,
+        // e uma reserva alterada no meio do caminho é desfeita e repetida com os dados atuais
+        return retentativa.executar("atualizar", () -> {
+            var quartoAtual = repository.buscarQuartoId(id)
+                    .orElseThrow(() -> new NoSuchElementException("Reserva não encontrada"));
+
+            Set<Integer> quartoIds = new HashSet<>();
+            quartoIds.add(quartoAtual);
+            if (request.getQuartoId() != null) {
+                quartoIds.add(request.getQuartoId());
+            }
+
+            return travas.executar(quartoIds,
+                    () -> transacao.execute(status -> atualizar(id, request, quartoIds)));
+        });
+    }
+
+    // Reserva e quartos são entidades da sessão; o que mudar aqui é gravado num único flush no commit
+    private ReservaResponse atualizar(Integer id, ReservaRequest request, Set<Integer> quartoIds) {
+        // Os locks dos quartos primeiro, na ordem do id, como no cadastro em lote
+        Map<Integer, Quarto> quartos = quartoRepository.findAllByIdParaReserva(quartoIds).stream()
+                .collect(Collectors.toMap(Quarto::getId, Function.identity()));
+
+        var reservaAtual = repository.buscarParaAlteracao(id)
+                .orElseThrow(() -> new NoSuchElementException("Reserva não encontrada"));
+
+        // Outra alteração trocou o quarto antes das travas: repete com o quarto atual
+        if (!quartos.containsKey(reservaAtual.getQuarto().getId())) {
+            throw new ObjectOptimisticLockingFailureException(Reservas.class, id);
+        }
+
+        if (Boolean.TRUE.equals(reservaAtual.getFinalizada())) {
+            throw new ValidacaoException("Não é possível alterar reservas já finalizadas");
+        }
+
+        var quartoAnterior = reservaAtual.getQuarto();
+        var checkinAnterior = reservaAtual.getCheckin();
+        var checkoutAnterior = reservaAtual.getCheckout();
+        var valorAnterior = reservaAtual.getValorTotal();
 
         if (request.getCheckin() != null) {
             LocalDate checkinParaValidar = request.getCheckin();
@@ -106,9 +325,11 @@ public class ReservaService {
             reservaAtual.setCheckout(request.getCheckout());
         }
 
+        Quarto quartoNovo = null;
+
         if (request.getQtdHospedes() != null) {
             Quarto quarto = request.getQuartoId() != null
-                    ? quartoRepository.findById(request.getQuartoId())
+                    ? Optional.ofNullable(quartos.get(request.getQuartoId()))
                     .orElseThrow(() -> new NoSuchElementException("Quarto não encontrado"))
                     : reservaAtual.getQuarto();
 
@@ -117,22 +338,60 @@ public class ReservaService {
             reservaAtual.setQtdHospedes(request.getQtdHospedes());
 
             if (request.getQuartoId() != null) {
-                Quarto quartoAntigo = reservaAtual.getQuarto();
-                quartoAntigo.setDisponibilidade(true);
-                quartoRepository.save(quartoAntigo);
+                quartoNovo = quarto;
+            }
+        }
+
+        var quartoDestino = quartoNovo != null ? quartoNovo : quartoAnterior;
+
+        // Outro período ou outro quarto: cotado de novo pelos planos de tarifa, como no cadastro.
+        // Antes da checagem de sobreposição, para que o valor vá no mesmo flush das datas
+        if (!quartoDestino.getId().equals(quartoAnterior.getId())
+                || !reservaAtual.getCheckin().equals(checkinAnterior)
+                || !reservaAtual.getCheckout().equals(checkoutAnterior)) {
+            reservaAtual.setValorTotal(tarifas.valorTotal(quartoDestino,
+                    reservaAtual.getCheckin(), reservaAtual.getCheckout()));
+        }
 
-                quarto.setDisponibilidade(false);
-                reservaAtual.setQuarto(quarto);
-                quartoRepository.save(quarto);
+        if (Boolean.TRUE.equals(reservaAtual.getSituacao())) {
+            var periodoDisponivel = !repository.existsSobreposicao(quartoDestino.getId(),
+                    reservaAtual.getCheckin(), reservaAtual.getCheckout(), reservaAtual.getId())
+                    && calendario.remarcar(
+                    quartoAnterior.getId(), checkinAnterior, checkoutAnterior,
+                    quartoDestino.getId(), reservaAtual.getCheckin(), reservaAtual.getCheckout());
+
+            if (!periodoDisponivel) {
+                throw new DisponibilidadeException("O quarto não está disponível para o período selecionado.");
             }
+
+            var checkinNovo = reservaAtual.getCheckin();
+            var checkoutNovo = reservaAtual.getCheckout();
+            seNaoConfirmar(() -> calendario.remarcar(
+                    quartoDestino.getId(), checkinNovo, checkoutNovo,
+                    quartoAnterior.getId(), checkinAnterior, checkoutAnterior));
+        }
+
+        if (quartoNovo != null) {
+            reservaAtual.setQuarto(quartoNovo);
         }
 
-        var reservaAtualizada = repository.save(reservaAtual);
-        return ReservaResponse.fromEntity(reservaAtualizada);
+        if (Boolean.TRUE.equals(reservaAtual.getSituacao())) {
+            ocupacao.remarcar(quartoAnterior.getTipoQuarto(), checkinAnterior, checkoutAnterior, valorAnterior,
+                    reservaAtual);
+        }
+
+        var resposta = ReservaResponse.fromEntity(reservaAtual);
+        outbox.registrar(ETipoEventoReserva.ALTERADA, List.of(resposta));
+        return resposta;
     }
 
     public ResponseEntity<CancelamentoResponse> cancelarReserva(Integer id) {
-        var reserva = repository.findById(id)
+        return retentativa.executar("cancelar",
+                () -> transacao.execute(status -> cancelar(id)));
+    }
+
+    private ResponseEntity<CancelamentoResponse> cancelar(Integer id) {
+        var reserva = repository.buscarParaAlteracao(id)
                 .orElseThrow(() -> new NoSuchElementException("Reserva não encontrada"));
 
         validarCancelamento(reserva);
@@ -142,25 +401,58 @@ public class ReservaService {
         }
 
         var quarto = reserva.getQuarto();
-        quarto.setDisponibilidade(true);
-        quartoRepository.save(quarto);
-
         reserva.setSituacao(false);
-        var reservaCancelada = repository.save(reserva);
+        ocupacao.cancelar(reserva);
+        outbox.registrar(ETipoEventoReserva.CANCELADA, List.of(ReservaResponse.fromEntity(reserva)));
+        aposConfirmar(() -> calendario.liberar(quarto.getId(), reserva.getCheckin(), reserva.getCheckout()));
 
-        var response = new CancelamentoResponse(reservaCancelada);
+        var response = new CancelamentoResponse(reserva);
 
         return ResponseEntity.ok(response);
     }
 
+    // A finalização roda de tempos em tempos; até ela passar, o checkout vencido também conta
     private void validarCancelamento(Reservas reserva) {
-        if (reserva.getCheckout().isBefore(LocalDate.now())) {
+        if (Boolean.TRUE.equals(reserva.getFinalizada()) || reserva.getCheckout().isBefore(LocalDate.now())) {
             throw new ValidacaoException("Não é possível cancelar reservas já finalizadas");
         }
     }
 
-    private void validarDisponibilidadeQuarto(Quarto quarto) {
-        if (quarto.getDisponibilidade() != null && !quarto.getDisponibilidade()) {
+    private Hospede buscarHospede(Integer hospedeId) {
+        return cacheHospedes.buscarPorId(hospedeId, hospedeRepository::findById)
+                .orElseThrow(() -> new NoSuchElementException("Hospede não encontrado"));
+    }
+
+    // Valida o período e ocupa o calendário; a ocupação é desfeita se a transação não for confirmada
+    private void validarEOcupar(Quarto quarto, ReservaRequest request) {
+        try {
+            validarPeriodo(request.getCheckin(), request.getCheckout());
+            validarDisponibilidadeQuarto(quarto, request.getCheckin(), request.getCheckout());
+            validarQuantidadeHospedePorQuarto(quarto, request.getQtdHospedes());
+            validarSobreposicao(quarto, request.getCheckin(), request.getCheckout());
+            ocuparQuarto(quarto, request.getCheckin(), request.getCheckout());
+        } catch (DisponibilidadeException e) {
+            throw new DisponibilidadeException("O quarto não está disponível para reserva.");
+        }
+
+        seNaoConfirmar(() -> calendario.liberar(quarto.getId(), request.getCheckin(), request.getCheckout()));
+    }
+
+    private void validarDisponibilidadeQuarto(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        if (!calendario.estaLivre(quarto.getId(), checkin, checkout)) {
+            throw new DisponibilidadeException("O quarto não está disponível para reserva.");
+        }
+    }
+
+    // Garantia no banco para o caso de outra instância da aplicação ter reservado o quarto
+    private void validarSobreposicao(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        if (repository.existsSobreposicao(quarto.getId(), checkin, checkout, null)) {
+            throw new DisponibilidadeException("O quarto não está disponível para reserva.");
+        }
+    }
+
+    private void ocuparQuarto(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        if (!calendario.ocupar(quarto.getId(), checkin, checkout)) {
             throw new DisponibilidadeException("O quarto não está disponível para reserva.");
         }
     }
@@ -177,9 +469,43 @@ public class ReservaService {
         }
     }
 
-    private BigDecimal calcularValorTotalReserva(LocalDate dataInicio, LocalDate dataFim, BigDecimal valorQuarto) {
-        var quantidadeDias = ChronoUnit.DAYS.between(dataInicio, dataFim);
+    private Reservas montarReserva(ReservaRequest request, Hospede hospede, Quarto quarto) {
+        return montarReserva(request.getCheckin(), request.getCheckout(), request.getQtdHospedes(), hospede, quarto,
+                tarifas.valorTotal(quarto, request.getCheckin(), request.getCheckout()));
+    }
+
+    private static Reservas montarReserva(LocalDate checkin, LocalDate checkout, Integer qtdHospedes,
+                                          Hospede hospede, Quarto quarto, BigDecimal valorTotal) {
+        var reserva = new Reservas();
+        reserva.setCheckin(checkin);
+        reserva.setCheckout(checkout);
+        reserva.setQtdHospedes(qtdHospedes);
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quarto);
+        reserva.setSituacao(true);
+        reserva.setValorTotal(valorTotal);
+
+        return reserva;
+    }
+
+    // O calendário só reflete o que foi gravado: desfaz a alteração se a transação não for confirmada
+    private static void seNaoConfirmar(Runnable desfazer) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    desfazer.run();
+                }
+            }
+        });
+    }
 
-        return valorQuarto.multiply(BigDecimal.valueOf(quantidadeDias));
+    private static void aposConfirmar(Runnable acao) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.example.hotel.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Repete uma operação quando outra requisição alterou a mesma linha antes (conflito de
+ * {@code @Version}). Cada tentativa precisa abrir a própria transação para reler os dados.
+ */
+@Component
+public class RetentativaOtimista {
+
+    private final MeterRegistry registry;
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+
+    public RetentativaOtimista(MeterRegistry registry,
+                               @Value("${hotel.reservas.retentativas.max:4}") int maxTentativas,
+                               @Value("${hotel.reservas.retentativas.espera-ms:25}") long esperaBaseMs) {
+        this.registry = registry;
+        this.maxTentativas = maxTentativas;
+        this.esperaBaseMs = esperaBaseMs;
+    }
+
+    public <T> T executar(String operacao, Supplier<T> acao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return acao.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= maxTentativas) {
+                    throw e;
+                }
+                contador(operacao).increment();
+                esperar(tentativa, e);
+            }
+        }
+    }
+
+    private Counter contador(String operacao) {
+        return Counter.builder("reservas.retentativas")
+                .description("Operações repetidas por conflito de versão")
+                .tag("operacao", operacao)
+                .register(registry);
+    }
+
+    // Backoff exponencial com jitter completo, para que as requisições em conflito não colidam de novo
+    private void esperar(int tentativa, OptimisticLockingFailureException conflito) {
+        long limite = esperaBaseMs << Math.min(tentativa - 1, 10);
+        if (limite <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limite + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflito;
+        }
+    }
+}
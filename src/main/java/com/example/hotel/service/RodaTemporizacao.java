@@ -0,0 +1,197 @@
+package com.example.hotel.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização hierárquica: {@value #NIVEIS} níveis de {@value #POSICOES} posições,
+ * cada posição do nível zero valendo um tique. Agendar e cancelar custam O(1) e cada avanço
+ * de tique só mexe nos itens que vencem nele ou que descem de nível, qualquer que seja o
+ * total agendado. Com tiques de um segundo, os quatro níveis cobrem 2^24 s (uns 194 dias);
+ * prazos além disso esperam numa lista à parte até caberem.
+ * <p>
+ * Um item nunca vence antes do prazo e vence no máximo um tique depois. A roda não é
+ * thread-safe: quem a usa de várias threads deve sincronizar.
+ */
+final class RodaTemporizacao<T> {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int NIVEIS = 4;
+
+    private final long tiqueMs;
+    private final Lista<T>[][] niveis;
+
+    // Já vencidos ao agendar, ou descidos para o tique em processamento
+    private final Lista<T> imediatos = new Lista<>();
+
+    // Além do alcance do nível mais alto
+    private final Lista<T> excedentes = new Lista<>();
+
+    // Último tique processado
+    private long tiqueAtual;
+    private int tamanho;
+
+    @SuppressWarnings("unchecked")
+    RodaTemporizacao(long tiqueMs, long agoraMs) {
+        this.tiqueMs = tiqueMs;
+        this.tiqueAtual = Math.floorDiv(agoraMs, tiqueMs);
+        this.niveis = new Lista[NIVEIS][POSICOES];
+        for (Lista<T>[] nivel : niveis) {
+            for (int i = 0; i < POSICOES; i++) {
+                nivel[i] = new Lista<>();
+            }
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Agenda o item para o primeiro tique em ou depois de {@code prazoMs}.
+     */
+    Temporizador<T> agendar(long prazoMs, T item) {
+        var temporizador = new Temporizador<>(item, -Math.floorDiv(-prazoMs, tiqueMs));
+        inserir(temporizador);
+        tamanho++;
+        return temporizador;
+    }
+
+    /**
+     * Tira o item da roda; devolve false se ele já venceu ou já foi cancelado.
+     */
+    boolean cancelar(Temporizador<T> temporizador) {
+        if (temporizador.lista == null) {
+            return false;
+        }
+        temporizador.lista.remover(temporizador);
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * Processa os tiques até {@code agoraMs}, entregando os itens vencidos em ordem de tique.
+     */
+    void avancar(long agoraMs, Consumer<T> aoVencer) {
+        long alvo = Math.floorDiv(agoraMs, tiqueMs);
+        while (tiqueAtual < alvo) {
+            tiqueAtual++;
+
+            if ((tiqueAtual & ((1L << (BITS * NIVEIS)) - 1)) == 0) {
+                redistribuir(excedentes);
+            }
+            // Do nível mais alto para o mais baixo: o que desce de um nível pode descer de novo no seguinte
+            for (int nivel = NIVEIS - 1; nivel > 0; nivel--) {
+                if ((tiqueAtual & ((1L << (BITS * nivel)) - 1)) == 0) {
+                    redistribuir(niveis[nivel][(int) (tiqueAtual >>> (BITS * nivel)) & MASCARA]);
+                }
+            }
+
+            vencer(niveis[0][(int) tiqueAtual & MASCARA], aoVencer);
+            vencer(imediatos, aoVencer);
+        }
+    }
+
+    /*
+     * O nível é o do bit mais alto em que o tique do item difere do atual. Assim o item fica
+     * na posição do seu próprio tique naquele nível, que é redistribuída ao começar o bloco
+     * dele, nunca depois do prazo.
+     */
+    private void inserir(Temporizador<T> temporizador) {
+        if (temporizador.tique <= tiqueAtual) {
+            imediatos.adicionar(temporizador);
+            return;
+        }
+
+        long diferenca = temporizador.tique ^ tiqueAtual;
+        int nivel = (63 - Long.numberOfLeadingZeros(diferenca)) / BITS;
+        if (nivel >= NIVEIS) {
+            excedentes.adicionar(temporizador);
+            return;
+        }
+        niveis[nivel][(int) (temporizador.tique >>> (BITS * nivel)) & MASCARA].adicionar(temporizador);
+    }
+
+    private void redistribuir(Lista<T> lista) {
+        Temporizador<T> temporizador = lista.esvaziar();
+        while (temporizador != null) {
+            Temporizador<T> proximo = temporizador.proximo;
+            temporizador.proximo = null;
+            temporizador.anterior = null;
+            inserir(temporizador);
+            temporizador = proximo;
+        }
+    }
+
+    private void vencer(Lista<T> lista, Consumer<T> aoVencer) {
+        Temporizador<T> temporizador = lista.esvaziar();
+        while (temporizador != null) {
+            Temporizador<T> proximo = temporizador.proximo;
+            temporizador.proximo = null;
+            temporizador.anterior = null;
+            tamanho--;
+            aoVencer.accept(temporizador.item);
+            temporizador = proximo;
+        }
+    }
+
+    static final class Temporizador<T> {
+
+        private final T item;
+        private final long tique;
+
+        private Lista<T> lista;
+        private Temporizador<T> anterior;
+        private Temporizador<T> proximo;
+
+        private Temporizador(T item, long tique) {
+            this.item = item;
+            this.tique = tique;
+        }
+
+        T item() {
+            return item;
+        }
+    }
+
+    // Lista duplamente encadeada nos próprios temporizadores, para cancelar sem procurar
+    private static final class Lista<T> {
+
+        private Temporizador<T> primeiro;
+
+        void adicionar(Temporizador<T> temporizador) {
+            temporizador.lista = this;
+            temporizador.anterior = null;
+            temporizador.proximo = primeiro;
+            if (primeiro != null) {
+                primeiro.anterior = temporizador;
+            }
+            primeiro = temporizador;
+        }
+
+        void remover(Temporizador<T> temporizador) {
+            if (temporizador.anterior != null) {
+                temporizador.anterior.proximo = temporizador.proximo;
+            } else {
+                primeiro = temporizador.proximo;
+            }
+            if (temporizador.proximo != null) {
+                temporizador.proximo.anterior = temporizador.anterior;
+            }
+            temporizador.lista = null;
+            temporizador.anterior = null;
+            temporizador.proximo = null;
+        }
+
+        // Devolve a cadeia inteira e desliga os temporizadores desta lista
+        Temporizador<T> esvaziar() {
+            Temporizador<T> cadeia = primeiro;
+            primeiro = null;
+            for (Temporizador<T> t = cadeia; t != null; t = t.proximo) {
+                t.lista = null;
+            }
+            return cadeia;
+        }
+    }
+}
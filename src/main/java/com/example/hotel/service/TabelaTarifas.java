@@ -0,0 +1,215 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.PlanoTarifa;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.PlanoTarifaRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tarifas por noite compiladas a partir dos {@link PlanoTarifa}. Cada tipo de quarto tem um
+ * vetor com o valor de cada noite em centavos, indexado pelo dia a partir da primeira noite
+ * coberta por algum plano. Cotar uma estadia é somar uma fatia desse vetor, sem BigDecimal
+ * e sem alocação; as noites sem plano custam o valor do próprio quarto.
+ */
+@Component
+@RequiredArgsConstructor
+public class TabelaTarifas {
+
+    // Noite que nenhum plano do tipo cobre
+    static final long SEM_TARIFA = -1;
+
+    private static final int DIAS_SEMANA = DayOfWeek.values().length;
+
+    private final PlanoTarifaRepository repository;
+
+    // Cópias dos planos gravados, de onde a tabela é recompilada; acesso sincronizado
+    private final Map<Integer, PlanoTarifa> planos = new HashMap<>();
+
+    private volatile Tarifas[] porTipo = new Tarifas[ETipoQuarto.values().length];
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        planos.clear();
+        repository.findAllComDiasSemana().forEach(plano -> planos.put(plano.getId(), copiar(plano)));
+        porTipo = compilar(planos.values());
+    }
+
+    public BigDecimal valorTotal(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        long centavos = cotar(quarto.getTipoQuarto(), checkin.toEpochDay(), checkout.toEpochDay(),
+                centavos(quarto.getValor()));
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Valor em centavos das noites de {@code checkin} até a véspera de {@code checkout},
+     * ambos em {@link LocalDate#toEpochDay() dias desde a época}. Noites fora dos planos
+     * do tipo custam {@code valorPadrao}.
+     */
+    public long cotar(ETipoQuarto tipo, long checkin, long checkout, long valorPadrao) {
+        Tarifas tarifas = tipo == null ? null : porTipo[tipo.ordinal()];
+        if (tarifas == null || checkout <= checkin) {
+            return valorPadrao * (checkout - checkin);
+        }
+
+        long[] noites = tarifas.centavos;
+        long inicio = Math.max(checkin, tarifas.primeiroDia);
+        long fim = Math.min(checkout, tarifas.primeiroDia + noites.length);
+        if (inicio >= fim) {
+            return valorPadrao * (checkout - checkin);
+        }
+
+        // Noites antes e depois do vetor pelo valor padrão, as de dentro pela fatia
+        long total = valorPadrao * ((inicio - checkin) + (checkout - fim));
+        for (int i = (int) (inicio - tarifas.primeiroDia), ate = (int) (fim - tarifas.primeiroDia); i < ate; i++) {
+            long noite = noites[i];
+            total += noite == SEM_TARIFA ? valorPadrao : noite;
+        }
+        return total;
+    }
+
+    // Escritas são raras; sincronizar evita que duas recompilações simultâneas percam uma à outra
+    synchronized void registrar(PlanoTarifa plano) {
+        planos.put(plano.getId(), plano);
+        porTipo = compilar(planos.values());
+    }
+
+    synchronized void remover(Integer id) {
+        planos.remove(id);
+        porTipo = compilar(planos.values());
+    }
+
+    static Tarifas[] compilar(Collection<PlanoTarifa> planos) {
+        Map<ETipoQuarto, List<PlanoTarifa>> porTipo = new EnumMap<>(ETipoQuarto.class);
+        for (PlanoTarifa plano : planos) {
+            if (plano.getTipoQuarto() != null && !plano.getFim().isBefore(plano.getInicio())) {
+                porTipo.computeIfAbsent(plano.getTipoQuarto(), tipo -> new ArrayList<>()).add(plano);
+            }
+        }
+
+        Tarifas[] compiladas = new Tarifas[ETipoQuarto.values().length];
+        porTipo.forEach((tipo, doTipo) -> compiladas[tipo.ordinal()] = compilarTipo(doTipo));
+        return compiladas;
+    }
+
+    private static Tarifas compilarTipo(List<PlanoTarifa> planos) {
+        long primeiro = planos.stream().mapToLong(plano -> plano.getInicio().toEpochDay()).min().orElseThrow();
+        long ultimo = planos.stream().mapToLong(plano -> plano.getFim().toEpochDay()).max().orElseThrow();
+
+        long[] noites = new long[Math.toIntExact(ultimo - primeiro + 1)];
+        Arrays.fill(noites, SEM_TARIFA);
+
+        // Do menos para o mais prioritário: o último plano a escrever a noite é o que vale
+        planos.sort(Comparator.comparing(PlanoTarifa::getPrioridade).thenComparing(PlanoTarifa::getId));
+        for (PlanoTarifa plano : planos) {
+            long[] porDiaSemana = new long[DIAS_SEMANA];
+            for (DayOfWeek dia : DayOfWeek.values()) {
+                BigDecimal valor = plano.getValorPorDiaSemana().getOrDefault(dia, plano.getValor());
+                porDiaSemana[dia.ordinal()] = centavos(valor);
+            }
+
+            long fim = plano.getFim().toEpochDay();
+            for (long dia = plano.getInicio().toEpochDay(); dia <= fim; dia++) {
+                noites[(int) (dia - primeiro)] = porDiaSemana[diaSemana(dia)];
+            }
+        }
+
+        return new Tarifas(primeiro, noites);
+    }
+
+    // O dia zero da época (1970-01-01) caiu numa quinta-feira; segunda-feira é o índice zero
+    static int diaSemana(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, DIAS_SEMANA);
+    }
+
+    static long centavos(BigDecimal valor) {
+        return valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // Cópia desligada do Hibernate, para que a tabela não mude junto com a entidade gerenciada
+    static PlanoTarifa copiar(PlanoTarifa plano) {
+        PlanoTarifa copia = new PlanoTarifa();
+        copia.setId(plano.getId());
+        copia.setNome(plano.getNome());
+        copia.setTipoQuarto(plano.getTipoQuarto());
+        copia.setInicio(plano.getInicio());
+        copia.setFim(plano.getFim());
+        copia.setValor(plano.getValor());
+        copia.setPrioridade(plano.getPrioridade() != null ? plano.getPrioridade() : 0);
+        copia.setValorPorDiaSemana(new EnumMap<>(DayOfWeek.class));
+        copia.getValorPorDiaSemana().putAll(plano.getValorPorDiaSemana());
+        return copia;
+    }
+
+    static final class Tarifas {
+
+        private final long primeiroDia;
+        private final long[] centavos;
+
+        private Tarifas(long primeiroDia, long[] centavos) {
+            this.primeiroDia = primeiroDia;
+            this.centavos = centavos;
+        }
+    }
+
+    /**
+     * Recompila a tabela a cada gravação de {@link PlanoTarifa}. A troca só acontece depois
+     * do commit, para que uma transação desfeita não mude as cotações.
+     */
+    public static class Sincronizacao {
+
+        private final ObjectProvider<TabelaTarifas> tabela;
+
+        public Sincronizacao(ObjectProvider<TabelaTarifas> tabela) {
+            this.tabela = tabela;
+        }
+
+        @PostPersist
+        @PostUpdate
+        void aoGravar(PlanoTarifa plano) {
+            PlanoTarifa copia = copiar(plano);
+            aposConfirmar(() -> tabela.ifAvailable(t -> t.registrar(copia)));
+        }
+
+        @PostRemove
+        void aoRemover(PlanoTarifa plano) {
+            Integer id = plano.getId();
+            aposConfirmar(() -> tabela.ifAvailable(t -> t.remover(id)));
+        }
+
+        private void aposConfirmar(Runnable acao) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                acao.run();
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.hotel.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Travas por quarto dentro da aplicação. Cada quarto cai sempre na mesma faixa,
+ * então operações no mesmo quarto são executadas uma de cada vez enquanto
+ * quartos de faixas diferentes seguem em paralelo.
+ */
+@Component
+public class TravasQuarto {
+
+    // Potência de dois; com ids sequenciais, quartos vizinhos ficam em faixas diferentes
+    private static final int FAIXAS = 64;
+
+    private final ReentrantLock[] travas = new ReentrantLock[FAIXAS];
+
+    public TravasQuarto() {
+        for (int i = 0; i < FAIXAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T executar(Integer quartoId, Supplier<T> acao) {
+        ReentrantLock trava = travas[faixa(quartoId)];
+        trava.lock();
+        try {
+            return acao.get();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public <T> T executar(Collection<Integer> quartoIds, Supplier<T> acao) {
+        // Sempre na ordem das faixas, para que dois lotes com quartos em comum não se bloqueiem
+        int[] faixas = quartoIds.stream().mapToInt(this::faixa).distinct().sorted().toArray();
+        for (int faixa : faixas) {
+            travas[faixa].lock();
+        }
+        try {
+            return acao.get();
+        } finally {
+            for (int i = faixas.length - 1; i >= 0; i--) {
+                travas[faixas[i]].unlock();
+            }
+        }
+    }
+
+    private int faixa(Integer quartoId) {
+        return Math.floorMod(Objects.hashCode(quartoId), FAIXAS);
+    }
+}
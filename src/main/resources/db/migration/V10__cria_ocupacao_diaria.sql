@@ -0,0 +1,9 @@
+-- Quartos ocupados e receita por noite e tipo de quarto, mantidos a cada reserva
+-- alterada para que o relatório de ocupação não precise percorrer as reservas
+CREATE TABLE ocupacao_diaria (
+    dia DATE NOT NULL,
+    tipo_quarto VARCHAR(50) NOT NULL,
+    quartos_ocupados INTEGER NOT NULL,
+    receita_centavos BIGINT NOT NULL,
+    PRIMARY KEY (dia, tipo_quarto)
+);
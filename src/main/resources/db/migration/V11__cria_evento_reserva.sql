@@ -0,0 +1,11 @@
+-- Outbox das reservas: cada reserva criada, alterada ou cancelada grava aqui um evento na
+-- mesma transação, e o despacho entrega aos destinos e apaga. O id crescente dá a ordem
+CREATE TABLE evento_reserva (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    reserva_id INTEGER NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    dados TEXT NOT NULL,
+    criado_em DATETIME(3) NOT NULL,
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    ultimo_erro VARCHAR(500)
+);
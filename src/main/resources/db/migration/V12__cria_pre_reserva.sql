@@ -0,0 +1,16 @@
+-- Pré-reservas: seguram o quarto enquanto o pagamento roda e expiram sozinhas em expira_em
+-- (UTC). Ao confirmar, a linha dá lugar a uma reserva com o valor cotado aqui
+CREATE TABLE pre_reserva (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    hospede_id INTEGER NOT NULL,
+    quarto_id INTEGER NOT NULL,
+    checkin DATE NOT NULL,
+    checkout DATE NOT NULL,
+    qtd_hospedes INTEGER NOT NULL,
+    valor_total DECIMAL(10,2) NOT NULL,
+    expira_em DATETIME(3) NOT NULL,
+    FOREIGN KEY (hospede_id) REFERENCES hospede(id),
+    FOREIGN KEY (quarto_id) REFERENCES quarto(id)
+);
+
+CREATE INDEX idx_pre_reserva_quarto_checkin ON pre_reserva (quarto_id, checkin);
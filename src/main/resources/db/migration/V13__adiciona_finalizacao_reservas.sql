@@ -0,0 +1,6 @@
+-- Estadias encerradas: marcadas pelo FinalizacaoEstadias depois do checkout, sem mudar a situacao
+ALTER TABLE reservas
+ADD COLUMN finalizada BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Busca das estadias a finalizar em ordem de id, com o cursor e o checkout resolvidos no índice
+CREATE INDEX idx_reservas_finalizacao ON reservas (situacao, finalizada, id, checkout, quarto_id);
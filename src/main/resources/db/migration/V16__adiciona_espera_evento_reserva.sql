@@ -0,0 +1,13 @@
+-- Despacho do outbox fora da transação: proxima_tentativa é o prazo da entrega em andamento ou
+-- a espera depois de uma falha, e descartado marca o evento que esgotou as tentativas
+ALTER TABLE evento_reserva
+ADD COLUMN proxima_tentativa DATETIME(3);
+
+ALTER TABLE evento_reserva
+ADD COLUMN descartado BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Busca dos pendentes em ordem de id sem passar pelos descartados
+CREATE INDEX idx_evento_reserva_descartado ON evento_reserva (descartado, id);
+
+-- Eventos anteriores da mesma reserva ainda em espera
+CREATE INDEX idx_evento_reserva_reserva ON evento_reserva (reserva_id, id);
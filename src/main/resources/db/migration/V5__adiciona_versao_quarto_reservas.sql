@@ -0,0 +1,5 @@
+ALTER TABLE quarto
+ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE reservas
+ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
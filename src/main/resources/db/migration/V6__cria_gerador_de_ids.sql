@@ -0,0 +1,8 @@
+CREATE TABLE id_gerador (
+    entidade VARCHAR(50) NOT NULL PRIMARY KEY,
+    proximo_id BIGINT NOT NULL
+);
+
+INSERT INTO id_gerador (entidade, proximo_id)
+SELECT 'reservas', COALESCE(MAX(id), 0) + 50
+FROM reservas;
@@ -0,0 +1,12 @@
+-- Sobreposição de períodos e bloqueio por quarto: igualdade em quarto_id e situacao, faixa nas datas
+CREATE INDEX idx_reservas_quarto_periodo ON reservas (quarto_id, situacao, checkin, checkout);
+
+-- Carga do calendário: reservas ativas que ainda não terminaram, sem voltar à tabela
+CREATE INDEX idx_reservas_situacao_checkout ON reservas (situacao, checkout, quarto_id, checkin);
+
+-- Listagem de reservas filtrada por hóspede
+CREATE INDEX idx_reservas_hospede_checkin ON reservas (hospede_id, checkin);
+
+CREATE INDEX idx_hospede_nome ON hospede (nome);
+
+CREATE INDEX idx_quarto_disponibilidade_tipo ON quarto (disponibilidade, tipo_quarto);
@@ -0,0 +1,22 @@
+-- Tarifas por tipo de quarto num período (inicio e fim são noites incluídas).
+-- Quando dois planos cobrem a mesma noite vale o de maior prioridade
+CREATE TABLE plano_tarifa (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    tipo_quarto VARCHAR(50) NOT NULL,
+    inicio DATE NOT NULL,
+    fim DATE NOT NULL,
+    valor DECIMAL(10,2) NOT NULL,
+    prioridade INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_plano_tarifa_tipo_inicio ON plano_tarifa (tipo_quarto, inicio);
+
+-- Valor da noite em um dia da semana (MONDAY ... SUNDAY), no lugar do valor do plano
+CREATE TABLE plano_tarifa_dia_semana (
+    plano_id INTEGER NOT NULL,
+    dia_semana VARCHAR(9) NOT NULL,
+    valor DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (plano_id, dia_semana),
+    FOREIGN KEY (plano_id) REFERENCES plano_tarifa(id) ON DELETE CASCADE
+);
@@ -0,0 +1,197 @@
+package com.example.hotel.carga;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Maior vazão de {@code POST /api/reservas} que o servidor sustenta com o p99 abaixo de um
+ * limite, para comparar threads de plataforma com threads virtuais:
+ * <pre>
+ * ./mvnw -Pcarga test -Dtest=CapacidadeReservasTest
+ * ./mvnw -Pcarga,java21 test -Dtest=CapacidadeReservasTest
+ * </pre>
+ * A carga é aberta: cada degrau envia no ritmo programado, sem esperar as respostas
+ * anteriores, e a latência conta desde o horário programado. Assim uma fila no servidor
+ * aparece no p99 em vez de frear o cliente. A taxa sobe até o p99 passar do limite ou
+ * surgir um erro, e o resultado vai para {@code target/carga/capacidade-*.txt}.
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"h2", "carga"})
+public class CapacidadeReservasTest {
+
+    private static final LocalDate INICIO = LocalDate.now().plusDays(1);
+
+    @LocalServerPort
+    private int porta;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // Cada reserva vai para o próximo quarto; quando todos recebem uma, as datas avançam
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    @Test
+    void capacidade() throws Exception {
+        int taxaInicial = Integer.getInteger("carga.capacidade.inicial", 100);
+        double fator = Double.parseDouble(System.getProperty("carga.capacidade.fator", "1.5"));
+        int taxaMaxima = Integer.getInteger("carga.capacidade.maximo", 20_000);
+        int segundos = Integer.getInteger("carga.capacidade.segundos", 10);
+        int aquecimento = Integer.getInteger("carga.capacidade.aquecimento", 5);
+        long p99LimiteMs = Long.getLong("carga.capacidade.p99-ms", 100L);
+
+        List<Integer> quartos = DadosCarga.quartos(quartoRepository, Integer.getInteger("carga.quartos", 2_000));
+        List<Integer> hospedes = DadosCarga.hospedes(hospedeRepository, Integer.getInteger("carga.hospedes", 1_000));
+
+        // Aquecimento do JIT e do pool de conexões, fora do resultado
+        executarDegrau(taxaInicial, aquecimento, quartos, hospedes);
+
+        String modo = threadsVirtuais ? "virtuais" : "plataforma";
+        var relatorio = new StringBuilder();
+        relatorio.append(String.format(Locale.ROOT, "POST /api/reservas, threads %s, Java %s, p99 <= %d ms, %d s por degrau%n",
+                modo, Runtime.version().feature(), p99LimiteMs, segundos));
+        relatorio.append(String.format(Locale.ROOT, "%9s %9s %9s %9s %7s %9s %9s %9s%n",
+                "req/s", "enviadas", "2xx", "recusadas", "erros", "p50 ms", "p99 ms", "máx ms"));
+
+        int sustentada = 0;
+        for (int taxa = taxaInicial; taxa <= taxaMaxima; taxa = (int) Math.ceil(taxa * fator)) {
+            Degrau degrau = executarDegrau(taxa, segundos, quartos, hospedes);
+            relatorio.append(degrau.linha());
+            if (degrau.erros.get() > 0 || degrau.latencias.getValueAtPercentile(99) > p99LimiteMs * 1000) {
+                break;
+            }
+            sustentada = taxa;
+        }
+        relatorio.append(String.format(Locale.ROOT, "vazão sustentada: %d req/s%n", sustentada));
+
+        System.out.println(relatorio);
+        Path pasta = Files.createDirectories(Path.of("target", "carga"));
+        Files.writeString(pasta.resolve("capacidade-" + modo + ".txt"), relatorio);
+
+        assertTrue(sustentada > 0, "O p99 passou do limite já na taxa inicial");
+    }
+
+    private Degrau executarDegrau(int taxa, int segundos, List<Integer> quartos, List<Integer> hospedes)
+            throws InterruptedException {
+        int total = taxa * segundos;
+        long intervaloNs = TimeUnit.SECONDS.toNanos(1) / taxa;
+        var degrau = new Degrau(taxa);
+        var pendentes = new CountDownLatch(total);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long programado = inicio + i * intervaloNs;
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            http.sendAsync(novaReserva(quartos, hospedes), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        degrau.registrar(System.nanoTime() - programado, erro == null ? resposta.statusCode() : -1);
+                        pendentes.countDown();
+                    });
+        }
+
+        assertTrue(pendentes.await(2, TimeUnit.MINUTES), "Respostas do degrau de " + taxa + " req/s não chegaram");
+        return degrau;
+    }
+
+    private HttpRequest novaReserva(List<Integer> quartos, List<Integer> hospedes) {
+        int n = proxima.getAndIncrement();
+        var checkin = INICIO.plusDays(n / quartos.size() * 2L);
+        var request = ReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkin.plusDays(1))
+                .hospedeId(hospedes.get(n % hospedes.size()))
+                .quartoId(quartos.get(n % quartos.size()))
+                .qtdHospedes(1)
+                .build();
+
+        try {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/reservas"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Degrau {
+
+        private final int taxa;
+
+        // Em microssegundos, até um minuto, com três dígitos significativos
+        private final Histogram latencias = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong sucesso = new AtomicLong();
+        private final AtomicLong recusadas = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+
+        Degrau(int taxa) {
+            this.taxa = taxa;
+        }
+
+        void registrar(long duracaoNs, int status) {
+            latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(duracaoNs), latencias.getHighestTrackableValue()));
+            if (status >= 200 && status < 300) {
+                sucesso.incrementAndGet();
+            } else if (status >= 400 && status < 500) {
+                recusadas.incrementAndGet();
+            } else {
+                erros.incrementAndGet();
+            }
+        }
+
+        String linha() {
+            return String.format(Locale.ROOT, "%9d %9d %9d %9d %7d %9.2f %9.2f %9.2f%n",
+                    taxa, latencias.getTotalCount(), sucesso.get(), recusadas.get(), erros.get(),
+                    latencias.getValueAtPercentile(50) / 1000.0, latencias.getValueAtPercentile(99) / 1000.0,
+                    latencias.getMaxValue() / 1000.0);
+        }
+    }
+}
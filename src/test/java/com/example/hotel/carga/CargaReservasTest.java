@@ -0,0 +1,292 @@
+package com.example.hotel.carga;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga pela API HTTP, com a aplicação inteira sobre H2. Fica fora do
+ * {@code mvn test} comum e roda pelo perfil Maven {@code carga}:
+ * <pre>
+ * ./mvnw -Pcarga test -Dcarga.requisicoes=50000 -Dcarga.clientes=400
+ * </pre>
+ * A sequência de operações e parâmetros vem de uma semente fixa, então duas versões
+ * recebem a mesma carga. O resultado (latências p50/p95/p99/máx e taxas de recusa e
+ * erro por endpoint) é impresso e gravado em {@code target/carga}.
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"h2", "carga"})
+public class CargaReservasTest {
+
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final LocalDate INICIO = LocalDate.now().plusDays(1);
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // Ids das reservas criadas durante o teste, sorteados para atualizar e cancelar
+    private final List<Integer> reservas = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<Operacao, Medicao> medicoes = new EnumMap<>(Operacao.class);
+
+    @Test
+    void carga() throws Exception {
+        int requisicoes = Integer.getInteger("carga.requisicoes", 20_000);
+        int clientes = Integer.getInteger("carga.clientes", 200);
+        int totalQuartos = Integer.getInteger("carga.quartos", 200);
+        int totalHospedes = Integer.getInteger("carga.hospedes", 1_000);
+        long semente = Long.getLong("carga.semente", 42L);
+        var mix = lerMix(System.getProperty("carga.mix", "reservar=40,atualizar=20,cancelar=10,disponiveis=30"));
+
+        List<Integer> quartos = DadosCarga.quartos(quartoRepository, totalQuartos);
+        List<Integer> hospedes = DadosCarga.hospedes(hospedeRepository, totalHospedes);
+        List<Passo> passos = sortearPassos(requisicoes, mix, semente);
+        for (Operacao operacao : Operacao.values()) {
+            medicoes.put(operacao, new Medicao());
+        }
+
+        // O semáforo faz o papel dos clientes: no máximo "clientes" requisições em voo
+        var emVoo = new Semaphore(clientes);
+        long inicio = System.nanoTime();
+        ExecutorService executor = novoExecutor(clientes);
+        for (Passo passo : passos) {
+            emVoo.acquire();
+            executor.execute(() -> {
+                try {
+                    executar(passo, quartos, hospedes);
+                } finally {
+                    emVoo.release();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "A carga não terminou em 10 minutos");
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        String relatorio = relatorio(requisicoes, clientes, duracaoMs);
+        System.out.println(relatorio);
+        Path pasta = Files.createDirectories(Path.of("target", "carga"));
+        Files.writeString(pasta.resolve("resultado-" + System.currentTimeMillis() + ".txt"), relatorio);
+
+        long total = medicoes.values().stream().mapToLong(medicao -> medicao.latencias.getTotalCount()).sum();
+        long erros = medicoes.values().stream().mapToLong(medicao -> medicao.erros.get()).sum();
+        assertEquals(requisicoes, total);
+        assertEquals(0, erros, "Respostas 5xx ou falhas de conexão durante a carga");
+        assertTrue(medicoes.get(Operacao.RESERVAR).sucesso.get() > 0, "Nenhuma reserva foi aceita");
+    }
+
+    private void executar(Passo passo, List<Integer> quartos, List<Integer> hospedes) {
+        Operacao operacao = passo.operacao();
+        Integer reservaId = null;
+
+        // Sem reservas para atualizar ou cancelar ainda, o cliente faz uma reserva
+        if (operacao == Operacao.ATUALIZAR || operacao == Operacao.CANCELAR) {
+            synchronized (reservas) {
+                if (reservas.isEmpty()) {
+                    operacao = Operacao.RESERVAR;
+                } else {
+                    int indice = Math.floorMod(passo.escolha(), reservas.size());
+                    reservaId = operacao == Operacao.CANCELAR ? reservas.remove(indice) : reservas.get(indice);
+                }
+            }
+        }
+
+        var checkin = INICIO.plusDays(passo.dia());
+        var checkout = checkin.plusDays(passo.noites());
+        var request = ReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkout)
+                .hospedeId(hospedes.get(passo.hospede() % hospedes.size()))
+                .quartoId(quartos.get(passo.quarto() % quartos.size()))
+                .qtdHospedes(1 + passo.noites() % 2)
+                .build();
+
+        HttpRequest.Builder http = switch (operacao) {
+            case RESERVAR -> json(HttpRequest.newBuilder(uri("/api/reservas")), "POST", request);
+            case ATUALIZAR -> json(HttpRequest.newBuilder(uri("/api/reservas/" + reservaId + "/atualizar")),
+                    "PUT", ReservaRequest.builder().checkin(checkin).checkout(checkout).build());
+            case CANCELAR -> HttpRequest.newBuilder(uri("/api/reservas/" + reservaId + "/cancelar")).DELETE();
+            case DISPONIVEIS -> HttpRequest.newBuilder(uri("/api/quarto/disponiveis?checkin=" + checkin.format(DATA)
+                    + "&checkout=" + checkout.format(DATA) + "&hospedes=2")).GET();
+        };
+
+        Medicao medicao = medicoes.get(operacao);
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> resposta = this.http.send(http.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            medicao.registrar(System.nanoTime() - inicio, resposta.statusCode());
+
+            if (operacao == Operacao.RESERVAR && resposta.statusCode() == 200) {
+                reservas.add(objectMapper.readTree(resposta.body()).get("id").asInt());
+            }
+        } catch (IOException e) {
+            medicao.registrar(System.nanoTime() - inicio, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            medicao.registrar(System.nanoTime() - inicio, -1);
+        }
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, String metodo, Object corpo) {
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(corpo)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String caminho) {
+        return URI.create("http://localhost:" + porta + caminho);
+    }
+
+    private static List<Passo> sortearPassos(int requisicoes, Map<Operacao, Integer> mix, long semente) {
+        int pesoTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+        var random = new Random(semente);
+        List<Passo> passos = new ArrayList<>(requisicoes);
+
+        for (int i = 0; i < requisicoes; i++) {
+            int sorteio = random.nextInt(pesoTotal);
+            Operacao operacao = null;
+            for (Map.Entry<Operacao, Integer> peso : mix.entrySet()) {
+                sorteio -= peso.getValue();
+                if (sorteio < 0) {
+                    operacao = peso.getKey();
+                    break;
+                }
+            }
+            passos.add(new Passo(operacao, random.nextInt(Integer.MAX_VALUE), random.nextInt(Integer.MAX_VALUE),
+                    random.nextInt(365), 1 + random.nextInt(5), random.nextInt(Integer.MAX_VALUE)));
+        }
+        return passos;
+    }
+
+    private static Map<Operacao, Integer> lerMix(String mix) {
+        Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+        for (String parte : mix.split(",")) {
+            String[] chaveValor = parte.trim().split("=");
+            pesos.put(Operacao.valueOf(chaveValor[0].trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(chaveValor[1].trim()));
+        }
+        return pesos;
+    }
+
+    // Uma thread virtual por requisição no Java 21; antes disso, um pool com uma thread por cliente
+    private static ExecutorService novoExecutor(int clientes) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(clientes);
+        }
+    }
+
+    private String relatorio(int requisicoes, int clientes, long duracaoMs) {
+        var texto = new StringBuilder();
+        texto.append(String.format(Locale.ROOT, "%d requisições, %d clientes, %d ms (%.0f req/s)%n",
+                requisicoes, clientes, duracaoMs, requisicoes * 1000.0 / Math.max(1, duracaoMs)));
+        texto.append(String.format(Locale.ROOT, "%-34s %8s %8s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "total", "2xx", "recusadas", "erros", "p50 ms", "p95 ms", "p99 ms", "máx ms"));
+
+        medicoes.forEach((operacao, medicao) -> {
+            Histogram latencias = medicao.latencias;
+            long total = latencias.getTotalCount();
+            texto.append(String.format(Locale.ROOT, "%-34s %8d %8d %8.2f%% %6.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    operacao.endpoint, total, medicao.sucesso.get(),
+                    percentual(medicao.recusadas.get(), total), percentual(medicao.erros.get(), total),
+                    latencias.getValueAtPercentile(50) / 1000.0, latencias.getValueAtPercentile(95) / 1000.0,
+                    latencias.getValueAtPercentile(99) / 1000.0, latencias.getMaxValue() / 1000.0));
+        });
+        return texto.toString();
+    }
+
+    private static double percentual(long parte, long total) {
+        return total == 0 ? 0 : parte * 100.0 / total;
+    }
+
+    private enum Operacao {
+        RESERVAR("POST /api/reservas"),
+        ATUALIZAR("PUT /api/reservas/{id}/atualizar"),
+        CANCELAR("DELETE /api/reservas/{id}/cancelar"),
+        DISPONIVEIS("GET /api/quarto/disponiveis");
+
+        private final String endpoint;
+
+        Operacao(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private record Passo(Operacao operacao, int quarto, int hospede, int dia, int noites, int escolha) {
+    }
+
+    private static final class Medicao {
+
+        // Em microssegundos, até um minuto, com três dígitos significativos
+        private final Histogram latencias = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong sucesso = new AtomicLong();
+        private final AtomicLong recusadas = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+
+        void registrar(long duracaoNs, int status) {
+            latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(duracaoNs), latencias.getHighestTrackableValue()));
+            if (status >= 200 && status < 300) {
+                sucesso.incrementAndGet();
+            } else if (status >= 400 && status < 500) {
+                // Período ocupado, reserva já cancelada etc.: recusa esperada da regra de negócio
+                recusadas.incrementAndGet();
+            } else {
+                erros.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hotel.carga;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Quartos e hóspedes para os testes de carga. Números de quarto e CPFs seguem uma
+ * sequência única na JVM, então os testes podem semear a mesma base um depois do outro.
+ */
+final class DadosCarga {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private DadosCarga() {
+    }
+
+    static List<Integer> quartos(QuartoRepository repository, int total) {
+        int primeiro = SEQUENCIA.getAndAdd(total);
+        List<Quarto> quartos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            var quarto = new Quarto();
+            quarto.setNumero(10_000 + primeiro + i);
+            quarto.setQtdHospedes(2 + i % 3);
+            quarto.setTipoQuarto(ETipoQuarto.values()[i % ETipoQuarto.values().length]);
+            quarto.setValor(BigDecimal.valueOf(150 + i % 5 * 50));
+            quarto.setDisponibilidade(true);
+            quartos.add(quarto);
+        }
+        return repository.saveAll(quartos).stream().map(Quarto::getId).toList();
+    }
+
+    static List<Integer> hospedes(HospedeRepository repository, int total) {
+        int primeiro = SEQUENCIA.getAndAdd(total);
+        List<Hospede> hospedes = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String digitos = String.format("%011d", 50_000_000_000L + primeiro + i);
+            var hospede = new Hospede();
+            hospede.setNome("Hóspede Carga " + (primeiro + i));
+            hospede.setCpf(digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "."
+                    + digitos.substring(6, 9) + "-" + digitos.substring(9));
+            hospede.setTelefone("(43)99999-9999");
+            hospede.setDataNascimento(LocalDate.of(1980, 1, 1).plusDays(i));
+            hospedes.add(hospede);
+        }
+        return repository.saveAll(hospedes).stream().map(Hospede::getId).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.hotel.config;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Primário e réplica como dois H2 em memória. A réplica recebe só as migrações, então uma
+ * reserva gravada pelo teste aparece na listagem apenas quando a leitura vai ao primário.
+ */
+@SpringBootTest(properties = {
+        "hotel.datasource.replica.jdbc-url=" + RoteamentoReplicaTest.URL_REPLICA,
+        "hotel.datasource.replica.username=sa",
+        "hotel.datasource.leitura-propria=5s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class RoteamentoReplicaTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Hospede hospede;
+    private Quarto quarto;
+
+    @BeforeAll
+    static void criarReplica() {
+        // Precisa existir antes do contexto, que já carrega os índices em memória pela réplica
+        Flyway.configure()
+                .dataSource(URL_REPLICA, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+
+        hospede = new Hospede();
+        hospede.setNome("Hóspede Réplica " + n);
+        hospede.setCpf(String.format("%011d", 80_000_000_000L + n));
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+        hospede = hospedeRepository.save(hospede);
+
+        quarto = new Quarto();
+        quarto.setNumero(8_000 + n);
+        quarto.setQtdHospedes(2);
+        quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+        quarto.setValor(BigDecimal.valueOf(150));
+        quarto.setDisponibilidade(true);
+        quarto = quartoRepository.save(quarto);
+
+        var reserva = new Reservas();
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quarto);
+        reserva.setCheckin(LocalDate.of(2030, 1, 1));
+        reserva.setCheckout(LocalDate.of(2030, 1, 3));
+        reserva.setQtdHospedes(1);
+        reserva.setSituacao(true);
+        reserva.setValorTotal(BigDecimal.valueOf(300));
+        reservaRepository.save(reserva);
+    }
+
+    @Test
+    public void listarReservas_deveLerDaReplica() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospede.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void listarReservas_deveLerDoPrimario_logoDepoisDeUmaEscrita() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospede.getId().toString())
+                        .cookie(new Cookie(FiltroLeituraPropria.COOKIE, Long.toString(System.currentTimeMillis()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void listarReservas_deveVoltarParaReplica_depoisDaJanela() throws Exception {
+        long antiga = System.currentTimeMillis() - 60_000;
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospede.getId().toString())
+                        .cookie(new Cookie(FiltroLeituraPropria.COOKIE, Long.toString(antiga))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void cadastrarReserva_deveGravarNoPrimarioEMarcarOCliente() throws Exception {
+        var request = ReservaRequest.builder()
+                .checkin(LocalDate.of(2031, 1, 1))
+                .checkout(LocalDate.of(2031, 1, 3))
+                .hospedeId(hospede.getId())
+                .quartoId(quarto.getId())
+                .qtdHospedes(1)
+                .build();
+
+        Cookie escrita = mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(FiltroLeituraPropria.COOKIE))
+                .andReturn().getResponse().getCookie(FiltroLeituraPropria.COOKIE);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospede.getId().toString())
+                        .cookie(escrita))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.hotel.controller;
+
+import com.example.hotel.config.ContagemSql;
+import com.example.hotel.config.FiltroContagemSql;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Orçamento de comandos SQL por requisição, para os testes com MockMvc:
+ * {@code .andExpect(ComandosSql.exatamente(1))}. Um N+1 que volte a aparecer
+ * estoura o orçamento e derruba o teste.
+ */
+public final class ComandosSql {
+
+    private ComandosSql() {
+    }
+
+    public static ResultMatcher exatamente(int esperado) {
+        return resultado -> assertThat(contagem(resultado.getRequest().getAttribute(FiltroContagemSql.ATRIBUTO)))
+                .as("comandos SQL em %s %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI())
+                .isEqualTo(esperado);
+    }
+
+    public static ResultMatcher noMaximo(int limite) {
+        return resultado -> assertThat(contagem(resultado.getRequest().getAttribute(FiltroContagemSql.ATRIBUTO)))
+                .as("comandos SQL em %s %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(limite);
+    }
+
+    private static int contagem(Object atributo) {
+        assertThat(atributo).as("contagem de SQL da requisição").isInstanceOf(ContagemSql.class);
+        return ((ContagemSql) atributo).getComandos();
+    }
+}
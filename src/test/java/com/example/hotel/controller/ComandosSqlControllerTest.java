@@ -0,0 +1,229 @@
+package com.example.hotel.controller;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orçamento de comandos SQL da API, com serviços e repositórios de verdade. As reservas
+ * ocupam vários quartos, então carregar {@code Reservas.hospede} ou {@code Reservas.quarto}
+ * em consultas à parte estoura o orçamento. Nas escritas, um {@code save} ou flush a mais
+ * aparece como comando extra.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class ComandosSqlControllerTest {
+
+    private static final int RESERVAS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private final List<Hospede> hospedes = new ArrayList<>();
+    private final List<Quarto> quartos = new ArrayList<>();
+    private final List<Reservas> reservas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            var hospede = new Hospede();
+            hospede.setNome("Hóspede Orçamento " + i);
+            hospede.setCpf(String.format("%011d", 70_000_000_000L + i));
+            hospede.setTelefone("(43)99999-9999");
+            hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+            hospedes.add(hospedeRepository.save(hospede));
+
+            var quarto = new Quarto();
+            quarto.setNumero(9_000 + i);
+            quarto.setQtdHospedes(2);
+            quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+            quarto.setValor(BigDecimal.valueOf(150));
+            quarto.setDisponibilidade(true);
+            quartos.add(quartoRepository.save(quarto));
+        }
+
+        for (int i = 0; i < RESERVAS; i++) {
+            var reserva = new Reservas();
+            // Todas do primeiro hóspede, para a listagem filtrar só as deste teste
+            reserva.setHospede(hospedes.get(0));
+            reserva.setQuarto(quartos.get(i % quartos.size()));
+            reserva.setCheckin(LocalDate.of(2030, 1, 1).plusDays(i * 3L));
+            reserva.setCheckout(LocalDate.of(2030, 1, 3).plusDays(i * 3L));
+            reserva.setQtdHospedes(1);
+            reserva.setSituacao(true);
+            reserva.setValorTotal(BigDecimal.valueOf(300));
+            reservas.add(reservaRepository.save(reserva));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Por id: as escritas dos testes mudam a versão das entidades guardadas aqui
+        reservaRepository.deleteAllById(reservas.stream().map(Reservas::getId).toList());
+        quartoRepository.deleteAllById(quartos.stream().map(Quarto::getId).toList());
+        hospedeRepository.deleteAllById(hospedes.stream().map(Hospede::getId).toList());
+    }
+
+    @Test
+    public void listarReservas_deveUsarUmComando() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospedes.get(0).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(RESERVAS)))
+                .andExpect(ComandosSql.exatamente(1));
+    }
+
+    @Test
+    public void buscarReserva_deveUsarUmComando() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas/" + reservas.get(5).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hospede.id").value(hospedes.get(0).getId()))
+                .andExpect(ComandosSql.exatamente(1));
+    }
+
+    @Test
+    public void buscarHospede_deveUsarOCacheDepoisDaPrimeiraConsulta() throws Exception {
+        // Um comando com o cache vazio e nenhum depois
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/hospede/" + hospedes.get(1).getId()))
+                .andExpect(status().isOk())
+                .andExpect(ComandosSql.exatamente(1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/hospede/" + hospedes.get(1).getId()))
+                .andExpect(status().isOk())
+                .andExpect(ComandosSql.exatamente(0));
+    }
+
+    @Test
+    public void listarQuartos_naoDeveIrAoBanco() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/quarto"))
+                .andExpect(status().isOk())
+                .andExpect(ComandosSql.exatamente(0));
+    }
+
+    @Test
+    public void cadastrarReserva_deveGravarNumUnicoFlush() throws Exception {
+        // Com o hóspede no cache: lock do quarto, checagem de sobreposição, soma na ocupação diária,
+        // evento no outbox e insert da reserva; o quarto não é gravado
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/hospede/" + hospedes.get(2).getId()))
+                .andExpect(status().isOk());
+
+        var request = ReservaRequest.builder()
+                .checkin(LocalDate.of(2031, 1, 1))
+                .checkout(LocalDate.of(2031, 1, 3))
+                .hospedeId(hospedes.get(2).getId())
+                .quartoId(quartos.get(2).getId())
+                .qtdHospedes(1)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andDo(this::registrarReserva)
+                .andExpect(ComandosSql.exatamente(5));
+    }
+
+    @Test
+    public void atualizarReserva_deveLerTudoNumComandoEGravarNumFlush() throws Exception {
+        // Quarto atual da reserva antes das travas, lock do quarto, reserva com hóspede e quarto
+        // num select, update da reserva com datas e valor recotado (flush da checagem seguinte),
+        // checagem de sobreposição, noites alteradas na ocupação diária e evento no outbox
+        var reserva = reservas.get(5);
+        var request = new ReservaRequest();
+        request.setCheckout(reserva.getCheckout().plusDays(1));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/reservas/" + reserva.getId() + "/atualizar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hospede.id").value(hospedes.get(0).getId()))
+                .andExpect(ComandosSql.exatamente(7));
+    }
+
+    @Test
+    public void cancelarReserva_deveUsarQuatroComandos() throws Exception {
+        // O quarto não é gravado, então só a reserva, a ocupação diária e o outbox mudam
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/reservas/" + reservas.get(7).getId() + "/cancelar"))
+                .andExpect(status().isOk())
+                .andExpect(ComandosSql.exatamente(4));
+    }
+
+    @Test
+    public void relatorioOcupacao_naoDeveIrAoBanco() throws Exception {
+        var request = ReservaRequest.builder()
+                .checkin(LocalDate.of(2032, 3, 1))
+                .checkout(LocalDate.of(2032, 3, 3))
+                .hospedeId(hospedes.get(3).getId())
+                .quartoId(quartos.get(3).getId())
+                .qtdHospedes(1)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andDo(this::registrarReserva);
+
+        // Duas noites a 150: cada uma recebe metade do total
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/relatorios/ocupacao")
+                        .param("de", "02/03/2032")
+                        .param("ate", "02/03/2032"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.tipoQuarto == 'DOUBLE')].quartosOcupados").value(1))
+                .andExpect(jsonPath("$[?(@.tipoQuarto == 'DOUBLE')].receita").value(150.0))
+                .andExpect(ComandosSql.exatamente(0));
+    }
+
+    @Test
+    public void listarReservas_deveInformarComandosNoCabecalho() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospedes.get(0).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Sql-Comandos", "1"))
+                .andExpect(header().exists("X-Sql-Tempo-Ms"));
+    }
+
+    private void registrarReserva(MvcResult resultado) throws Exception {
+        int id = objectMapper.readTree(resultado.getResponse().getContentAsString()).get("id").asInt();
+        reservas.add(reservaRepository.findById(id).orElseThrow());
+    }
+}
@@ -70,6 +70,41 @@ public class HospedeControllerTest {
         verify(service, times(1)).buscarHospedePorId(1);
     }
 
+    @Test
+    public void buscarHospedesPorTrechoDoNome_deveRetornar200_comResultadosDoIndice() throws Exception {
+        var hospede = new Hospede();
+        hospede.setId(1);
+        hospede.setNome("Maria Silva");
+
+        when(service.buscarHospedesPorTrechoDoNome("mar", 5)).thenReturn(List.of(hospede));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/hospede/busca")
+                        .param("q", "mar")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nome").value("Maria Silva"));
+
+        verify(service, times(1)).buscarHospedesPorTrechoDoNome("mar", 5);
+    }
+
+    @Test
+    public void buscarHospedePorCpf_deveRetornar200_quandoCpfCadastrado() throws Exception {
+        var hospede = new Hospede();
+        hospede.setId(1);
+        hospede.setCpf("12345678910");
+
+        when(service.buscarHospedePorCpf("12345678910")).thenReturn(hospede);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/hospede/cpf/12345678910")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.cpf").value("12345678910"));
+
+        verify(service, times(1)).buscarHospedePorCpf("12345678910");
+    }
+
     @Test
     public void buscarHospede_deveRetornar500_quandoErroInterno() throws Exception {
         when(service.buscarHospedePorId(ArgumentMatchers.any()))
@@ -16,10 +16,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -123,7 +125,7 @@ public class QuartoControllerTest {
 
         List<Quarto> quartosDisponiveis = Arrays.asList(quarto1, quarto2);
 
-        when(service.obterQuartosDisponiveis()).thenReturn(quartosDisponiveis);
+        when(service.obterQuartosDisponiveis(any(), any(), any(), any())).thenReturn(quartosDisponiveis);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/quarto/disponiveis")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -143,18 +145,45 @@ public class QuartoControllerTest {
                 .andExpect(jsonPath("$[1].valor").value(220.00))
                 .andExpect(jsonPath("$[1].disponibilidade").value(true));
 
-        verify(service, times(1)).obterQuartosDisponiveis();
+        verify(service, times(1)).obterQuartosDisponiveis(null, null, null, null);
     }
 
     @Test
     public void obterQuartosDisponiveis_deveRetornar404_quandoNaoHouveremQuartosDisponiveis() throws Exception {
-        when(service.obterQuartosDisponiveis()).thenThrow(
-                new DisponibilidadeException("Nenhum quarto disponível no momento"));
+        when(service.obterQuartosDisponiveis(any(), any(), any(), any())).thenThrow(
+                new DisponibilidadeException("Nenhum quarto disponível para o período selecionado"));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/quarto/disponiveis")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(service, times(1)).obterQuartosDisponiveis();
+        verify(service, times(1)).obterQuartosDisponiveis(null, null, null, null);
+    }
+
+    @Test
+    public void obterQuartosDisponiveis_deveRepassarFiltrosDaEstadia_quandoInformados() throws Exception {
+        when(service.obterQuartosDisponiveis(any(), any(), any(), any())).thenReturn(List.of(new Quarto()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/quarto/disponiveis")
+                        .param("checkin", "10/07/2025")
+                        .param("checkout", "12/07/2025")
+                        .param("hospedes", "2")
+                        .param("tipo", "DOUBLE")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(service, times(1)).obterQuartosDisponiveis(
+                LocalDate.of(2025, 7, 10), LocalDate.of(2025, 7, 12), 2, ETipoQuarto.DOUBLE);
+    }
+
+    @Test
+    public void obterQuartosDisponiveis_deveRetornar400_quandoTipoInvalido() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/quarto/disponiveis")
+                        .param("tipo", "SUITE_PRESIDENCIAL")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Parâmetro inválido: tipo"));
+
+        verifyNoInteractions(service);
     }
 }
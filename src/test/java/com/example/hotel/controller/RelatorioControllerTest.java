@@ -0,0 +1,62 @@
+package com.example.hotel.controller;
+
+import com.example.hotel.dto.OcupacaoDiariaResponse;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.service.RelatorioOcupacao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RelatorioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RelatorioOcupacao ocupacao;
+
+    @Test
+    public void ocupacao_deveRetornar200_comAsNoitesDoPeriodo() throws Exception {
+        var de = LocalDate.of(2030, 3, 10);
+        var ate = LocalDate.of(2030, 3, 11);
+        when(ocupacao.consultar(de, ate)).thenReturn(List.of(
+                new OcupacaoDiariaResponse(de, ETipoQuarto.DOUBLE, 3, 4, new BigDecimal("75.00"), new BigDecimal("450.00")),
+                new OcupacaoDiariaResponse(ate, ETipoQuarto.DOUBLE, 1, 4, new BigDecimal("25.00"), new BigDecimal("150.00"))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/relatorios/ocupacao")
+                        .param("de", "10/03/2030")
+                        .param("ate", "11/03/2030"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].dia").value("10/03/2030"))
+                .andExpect(jsonPath("$[0].tipoQuarto").value("DOUBLE"))
+                .andExpect(jsonPath("$[0].quartosOcupados").value(3))
+                .andExpect(jsonPath("$[0].totalQuartos").value(4))
+                .andExpect(jsonPath("$[0].ocupacao").value(75.0))
+                .andExpect(jsonPath("$[1].receita").value(150.0));
+
+        verify(ocupacao, times(1)).consultar(de, ate);
+    }
+
+    @Test
+    public void ocupacao_deveRetornar400_quandoPeriodoInvalido() throws Exception {
+        when(ocupacao.consultar(null, null)).thenThrow(new ValidacaoException("Informe as datas de início e fim do relatório"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/relatorios/ocupacao"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.hotel.controller;
 
 import com.example.hotel.dto.CancelamentoResponse;
+import com.example.hotel.dto.PreReservaRequest;
+import com.example.hotel.dto.PreReservaResponse;
+import com.example.hotel.dto.ReservaFiltro;
+import com.example.hotel.dto.ReservaLoteRequest;
 import com.example.hotel.dto.ReservaRequest;
 import com.example.hotel.dto.ReservaResponse;
 import com.example.hotel.enums.ETipoQuarto;
@@ -10,8 +14,11 @@ import com.example.hotel.model.Quarto;
 import com.example.hotel.model.Reservas;
 import com.example.hotel.repository.QuartoRepository;
 import com.example.hotel.repository.ReservaRepository;
+import com.example.hotel.service.ExportacaoReservaService;
 import com.example.hotel.service.ReservaService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -24,14 +31,19 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,9 +63,15 @@ public class ReservaControllerTest {
     @MockitoBean
     private ReservaService service;
 
+    @MockitoBean
+    private ExportacaoReservaService exportacaoService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Captor
     private ArgumentCaptor<Quarto> quartoCaptor;
 
@@ -102,7 +120,7 @@ public class ReservaControllerTest {
 
         List<ReservaResponse> reservas = Arrays.asList(reserva1, reserva2);
 
-        when(service.listarReservas()).thenReturn(reservas);
+        when(service.listarReservas(any(ReservaFiltro.class))).thenReturn(reservas);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -126,19 +144,65 @@ public class ReservaControllerTest {
                 .andExpect(jsonPath("$[1].situacao").value(true))
                 .andExpect(jsonPath("$[1].qtdHospedes").value(3));
 
-        verify(service, times(1)).listarReservas();
+        verify(service, times(1)).listarReservas(any(ReservaFiltro.class));
     }
 
     @Test
-    public void listarReservas_deveRetornar404_quandoNaoHouveremReservas() throws Exception {
-        when(service.listarReservas()).thenThrow(new NoSuchElementException("Nenhuma reserva encontrada no sistema."));
+    public void listarReservas_deveRetornar200ComListaVazia_quandoNaoHouveremReservas() throws Exception {
+        when(service.listarReservas(any(ReservaFiltro.class))).thenReturn(List.of());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.message").value("Nenhuma reserva encontrada no sistema."));
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(service, times(1)).listarReservas();
+        verify(service, times(1)).listarReservas(any(ReservaFiltro.class));
+    }
+
+    @Test
+    public void listarReservas_deveRepassarFiltros_quandoInformadosNaQuery() throws Exception {
+        when(service.listarReservas(any(ReservaFiltro.class))).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("after", "120")
+                        .param("limit", "10")
+                        .param("de", "01/01/2025")
+                        .param("ate", "31/01/2025")
+                        .param("hospedeId", "7")
+                        .param("situacao", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(service).listarReservas(new ReservaFiltro(120, 10,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 7, true));
+    }
+
+    @Test
+    public void listarReservas_deveRetornar400_quandoLimiteAcimaDoMaximo() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("limit", "501")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details.limit").value("O limite deve ser no máximo 500"));
+
+        verify(service, never()).listarReservas(any(ReservaFiltro.class));
+    }
+
+    @Test
+    public void exportarReservas_deveEscreverNdjsonNaResposta() throws Exception {
+        when(exportacaoService.exportar(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(0);
+            saida.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        verify(exportacaoService, times(1)).exportar(any(OutputStream.class));
+        verify(service, never()).listarReservas(any(ReservaFiltro.class));
     }
 
     @Test
@@ -248,6 +312,54 @@ public class ReservaControllerTest {
         verify(service, never()).cadastrarReserva(any(ReservaRequest.class));
     }
 
+    @Test
+    public void cadastrarReservasEmLote_deveRetornar200_quandoLoteCadastrado() throws Exception {
+        var reserva1 = new ReservaRequest(LocalDate.of(2025, 7, 11), LocalDate.of(2025, 7, 13), 1, 1, 1);
+        var reserva2 = new ReservaRequest(LocalDate.of(2025, 7, 11), LocalDate.of(2025, 7, 13), 1, 2, 2);
+
+        var response1 = new ReservaResponse();
+        response1.setId(1);
+        var response2 = new ReservaResponse();
+        response2.setId(2);
+
+        when(service.cadastrarReservasEmLote(anyList())).thenReturn(List.of(response1, response2));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ReservaLoteRequest(List.of(reserva1, reserva2)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(2));
+
+        verify(service, times(1)).cadastrarReservasEmLote(List.of(reserva1, reserva2));
+    }
+
+    @Test
+    public void cadastrarReservasEmLote_deveRetornar400_quandoAlgumaReservaInvalida() throws Exception {
+        var valida = new ReservaRequest(LocalDate.of(2025, 7, 11), LocalDate.of(2025, 7, 13), 1, 1, 1);
+        var semQuarto = new ReservaRequest(LocalDate.of(2025, 7, 11), LocalDate.of(2025, 7, 13), 1, null, 1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ReservaLoteRequest(List.of(valida, semQuarto)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details['reservas[1].quartoId']").value("Quarto deve ser preenchido"));
+
+        verify(service, never()).cadastrarReservasEmLote(anyList());
+    }
+
+    @Test
+    public void cadastrarReservasEmLote_deveRetornar400_quandoLoteVazio() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservaLoteRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).cadastrarReservasEmLote(anyList());
+    }
+
     @Test
     public void atualizarReserva_deveRetornar200_quandoReservaAtualizadaComSucesso() throws Exception {
         var hospede = new Hospede();
@@ -414,4 +526,72 @@ public class ReservaControllerTest {
         verify(service, times(1)).cancelarReserva(1);
     }
 
+    @Test
+    public void cancelarReserva_deveContarExcecaoPorTipo() throws Exception {
+        double antes = excecoesContadas("ValidacaoException");
+        doThrow(new ValidacaoException("Reserva já está cancelada"))
+                .when(service).cancelarReserva(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/reservas/1/cancelar"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(excecoesContadas("ValidacaoException")).isEqualTo(antes + 1);
+    }
+
+    private double excecoesContadas(String excecao) {
+        Counter contador = meterRegistry.find("hotel.excecoes").tag("excecao", excecao).counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+
+    @Test
+    void cadastrarPreReserva_deveRetornar200ComOVencimento() throws Exception {
+        var request = PreReservaRequest.builder()
+                .checkin(LocalDate.of(2025, 7, 11))
+                .checkout(LocalDate.of(2025, 7, 13))
+                .hospedeId(1)
+                .quartoId(1)
+                .qtdHospedes(1)
+                .segundos(300)
+                .build();
+        var resposta = new PreReservaResponse(5, 1, 1, request.getCheckin(), request.getCheckout(), 1,
+                BigDecimal.valueOf(300), Instant.parse("2025-07-01T12:05:00Z"));
+
+        when(service.cadastrarPreReserva(request)).thenReturn(resposta);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(5))
+                .andExpect(jsonPath("$.checkin").value("11/07/2025"))
+                .andExpect(jsonPath("$.valorTotal").value(300))
+                .andExpect(jsonPath("$.expiraEm").value("2025-07-01T12:05:00Z"));
+    }
+
+    @Test
+    void cadastrarPreReserva_deveRetornar400_quandoRequestForInvalido() throws Exception {
+        var request = PreReservaRequest.builder()
+                .checkout(LocalDate.of(2025, 7, 13))
+                .hospedeId(1)
+                .quartoId(1)
+                .qtdHospedes(1)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).cadastrarPreReserva(any());
+    }
+
+    @Test
+    void confirmarPreReserva_deveRetornar400_quandoExpirada() throws Exception {
+        when(service.confirmarPreReserva(5)).thenThrow(new ValidacaoException("A pré-reserva expirou"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservas/hold/5/confirmar"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("A pré-reserva expirou"));
+    }
 }
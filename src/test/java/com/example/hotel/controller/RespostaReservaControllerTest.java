@@ -0,0 +1,165 @@
+package com.example.hotel.controller;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Formato JSON das reservas com a API de verdade. Hóspede e quarto são associações LAZY e a
+ * sessão fecha junto com a transação do serviço, então uma resposta que dependa de carregar
+ * a associação durante a serialização falha aqui, e não só em produção.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class RespostaReservaControllerTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Hospede hospede;
+    private final List<Quarto> quartos = new ArrayList<>();
+    private Reservas reserva;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+
+        hospede = new Hospede();
+        hospede.setNome("Hóspede Resposta " + n);
+        hospede.setCpf(String.format("%011d", 63_000_000_000L + n));
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+        hospede = hospedeRepository.save(hospede);
+
+        for (int i = 0; i < 2; i++) {
+            var quarto = new Quarto();
+            quarto.setNumero(7_000 + n * 10 + i);
+            quarto.setQtdHospedes(3);
+            quarto.setTipoQuarto(ETipoQuarto.TRIPLE);
+            quarto.setValor(BigDecimal.valueOf(150));
+            quarto.setDisponibilidade(true);
+            quartos.add(quartoRepository.save(quarto));
+        }
+
+        reserva = new Reservas();
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quartos.get(0));
+        reserva.setCheckin(LocalDate.of(2033, 1, 1).plusDays(n * 5L));
+        reserva.setCheckout(LocalDate.of(2033, 1, 3).plusDays(n * 5L));
+        reserva.setQtdHospedes(1);
+        reserva.setSituacao(true);
+        reserva.setValorTotal(BigDecimal.valueOf(300));
+        reserva = reservaRepository.save(reserva);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservaRepository.deleteById(reserva.getId());
+        quartoRepository.deleteAllById(quartos.stream().map(Quarto::getId).toList());
+        hospedeRepository.deleteById(hospede.getId());
+    }
+
+    @Test
+    public void buscarReserva_deveSerializarHospedeEQuarto() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas/" + reserva.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hospede.nome").value(hospede.getNome()))
+                .andExpect(jsonPath("$.hospede.dataNascimento").value("01/01/1990"))
+                .andExpect(jsonPath("$.hospede.hibernateLazyInitializer").doesNotExist())
+                .andExpect(jsonPath("$.quarto.numero").value(quartos.get(0).getNumero()))
+                .andExpect(jsonPath("$.quarto.tipoQuarto").value("TRIPLE"));
+    }
+
+    @Test
+    public void listarReservas_deveSerializarHospedeEQuarto() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas")
+                        .param("hospedeId", hospede.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hospede.nome").value(hospede.getNome()))
+                .andExpect(jsonPath("$[0].quarto.numero").value(quartos.get(0).getNumero()));
+    }
+
+    @Test
+    public void atualizarReserva_deveSerializarOHospedeEONovoQuarto() throws Exception {
+        var request = new ReservaRequest();
+        request.setCheckout(reserva.getCheckout().plusDays(1));
+        request.setQtdHospedes(2);
+        request.setQuartoId(quartos.get(1).getId());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/reservas/" + reserva.getId() + "/atualizar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hospede.nome").value(hospede.getNome()))
+                .andExpect(jsonPath("$.hospede.hibernateLazyInitializer").doesNotExist())
+                .andExpect(jsonPath("$.quarto.id").value(quartos.get(1).getId()))
+                .andExpect(jsonPath("$.quarto.numero").value(quartos.get(1).getNumero()))
+                .andExpect(jsonPath("$.qtdHospedes").value(2));
+    }
+
+    @Test
+    public void exportarReservas_deveSerializarHospedeEQuarto() throws Exception {
+        var corpo = mockMvc.perform(MockMvcRequestBuilders.get("/api/reservas/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        var linha = corpo.lines()
+                .map(this::lerJson)
+                .filter(json -> json.get("id").asInt() == reserva.getId())
+                .findFirst()
+                .orElseThrow();
+        assertThat(linha.at("/hospede/nome").asText()).isEqualTo(hospede.getNome());
+        assertThat(linha.at("/quarto/numero").asInt()).isEqualTo(quartos.get(0).getNumero());
+    }
+
+    private JsonNode lerJson(String linha) {
+        try {
+            return objectMapper.readTree(linha);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -50,4 +50,19 @@ public class HospedeRepositoryTest {
 
         assertThat(cpfExistente).isFalse();
     }
+
+    @Test
+    void existsByCpfNumerico_deveIgnorarFormatacao() {
+        var hospede = new Hospede();
+        hospede.setNome("Karen");
+        hospede.setCpf("109.876.543-21");
+        hospede.setDataNascimento(LocalDate.of(1995, 10, 26));
+        hospede.setTelefone("(43)99999-9999");
+
+        entityManager.persistAndFlush(hospede);
+
+        assertThat(hospede.getCpfNumerico()).isEqualTo(10987654321L);
+        assertThat(repository.existsByCpfNumerico(Hospede.normalizarCpf("10987654321"))).isTrue();
+        assertThat(repository.existsByCpfNumerico(12345678910L)).isFalse();
+    }
 }
@@ -0,0 +1,246 @@
+package com.example.hotel.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda EXPLAIN no H2 para o SQL que o Hibernate gera em cada consulta dos repositórios e
+ * falha se alguma voltar a ler a tabela inteira. O comando é capturado na conexão, com os
+ * parâmetros, e os valores vão como literais, como o driver do MySQL envia, para que as
+ * condições "(:param is null or ...)" sejam simplificadas.
+ * <p>
+ * Os nomes dos índices só são verificados onde o H2 não tem outro candidato; com duas
+ * opções sobre a mesma coluna, como a chave estrangeira e o índice composto do hóspede, a
+ * escolha depende do banco e o teste só exige que não haja leitura da tabela inteira.
+ * O perfil h2 troca o dialeto, para que o Hibernate gere SQL que o H2 aceita.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(IndicesConsultaTest.Gravacao.class)
+public class IndicesConsultaTest {
+
+    private static final LocalDate DE = LocalDate.of(2025, 1, 1);
+    private static final LocalDate ATE = LocalDate.of(2025, 2, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GravadorComandos gravador;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private PreReservaRepository preReservaRepository;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @BeforeEach
+    void setUp() {
+        gravador.limpar();
+    }
+
+    @Test
+    void existsSobreposicao_deveUsarIndiceDoQuarto_nasReservasENasPreReservas() {
+        var plano = plano(() -> reservaRepository.existsSobreposicao(1, DE, ATE, null));
+
+        assertThat(plano).containsIgnoringCase("idx_reservas_quarto_periodo");
+        assertThat(plano).containsIgnoringCase("idx_pre_reserva_quarto_checkin");
+    }
+
+    @Test
+    void findPeriodosAtivosDosQuartos_deveUsarIndiceDoQuarto() {
+        assertThat(plano(() -> reservaRepository.findPeriodosAtivosDosQuartos(List.of(1, 2, 3), DE, ATE)))
+                .containsIgnoringCase("idx_reservas_quarto_periodo");
+    }
+
+    @Test
+    void findPeriodosAtivosDosQuartos_deveUsarIndiceDoQuarto_nasPreReservas() {
+        assertThat(plano(() -> preReservaRepository.findPeriodosAtivosDosQuartos(List.of(1, 2, 3), DE, ATE,
+                LocalDateTime.of(2025, 1, 1, 12, 0))))
+                .containsIgnoringCase("idx_pre_reserva_quarto_checkin");
+    }
+
+    @Test
+    void findPeriodosAtivos_deveUsarIndiceDeSituacao() {
+        assertThat(plano(() -> reservaRepository.findPeriodosAtivos(DE)))
+                .containsIgnoringCase("idx_reservas_situacao_checkout");
+    }
+
+    @Test
+    void buscarEstadiasEncerradas_deveUsarIndiceDeFinalizacao() {
+        assertThat(plano(() -> reservaRepository.buscarEstadiasEncerradas(100, DE, Limit.of(500))))
+                .containsIgnoringCase("idx_reservas_finalizacao");
+    }
+
+    @Test
+    void buscarPagina_deveUsarIndice_quandoFiltrarPorHospede() {
+        var plano = plano(() -> reservaRepository.buscarPagina(100, null, null, 7, null, Limit.of(50)));
+
+        assertThat(plano).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void buscarPagina_deveUsarChavePrimaria_quandoSemFiltros() {
+        var plano = plano(() -> reservaRepository.buscarPagina(100, null, null, null, null, Limit.of(50)));
+
+        assertThat(plano).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void findByNome_deveUsarIndiceDeNome() {
+        assertThat(plano(() -> hospedeRepository.findByNome("Maria")))
+                .containsIgnoringCase("idx_hospede_nome");
+    }
+
+    @Test
+    void existsByCpf_deveUsarChaveUnicaDoCpf() {
+        assertThat(plano(() -> hospedeRepository.existsByCpf("12345678910")))
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void existsByCpfNumerico_deveUsarChaveUnicaNumerica() {
+        assertThat(plano(() -> hospedeRepository.existsByCpfNumerico(12345678910L)))
+                .containsIgnoringCase("uk_hospede_cpf_numerico");
+    }
+
+    // Executa a consulta do repositório e devolve o plano do comando que ela enviou ao banco
+    private String plano(Runnable consulta) {
+        consulta.run();
+        var comandos = gravador.comandos();
+        assertThat(comandos).as("comandos enviados pela consulta").hasSize(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + comandos.get(0), String.class);
+    }
+
+    @TestConfiguration
+    static class Gravacao {
+
+        @Bean
+        GravadorComandos gravadorComandos() {
+            return new GravadorComandos();
+        }
+    }
+
+    /**
+     * Envolve o DataSource e guarda cada comando preparado com os parâmetros já trocados por
+     * literais do H2.
+     */
+    static class GravadorComandos implements BeanPostProcessor {
+
+        private final List<String> comandos = new ArrayList<>();
+
+        void limpar() {
+            comandos.clear();
+        }
+
+        List<String> comandos() {
+            return List.copyOf(comandos);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource)) {
+                return bean;
+            }
+            return proxy(bean, (metodo, args, resultado) -> {
+                if (resultado instanceof Connection) {
+                    return proxy(resultado, (metodoConexao, argsConexao, comando) -> {
+                        if (comando instanceof PreparedStatement) {
+                            return preparado(comando, (String) argsConexao[0]);
+                        }
+                        return comando;
+                    });
+                }
+                return resultado;
+            });
+        }
+
+        private Object preparado(Object comando, String sql) {
+            Map<Integer, Object> parametros = new TreeMap<>();
+            return proxy(comando, (metodo, args, resultado) -> {
+                if (metodo.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer indice) {
+                    parametros.put(indice, metodo.getName().equals("setNull") ? null : args[1]);
+                } else if (metodo.getName().startsWith("execute")) {
+                    comandos.add(comLiterais(sql, parametros));
+                }
+                return resultado;
+            });
+        }
+
+        private static String comLiterais(String sql, Map<Integer, Object> parametros) {
+            var resultado = new StringBuilder();
+            int indice = 0;
+            for (char c : sql.toCharArray()) {
+                if (c == '?') {
+                    resultado.append(literal(parametros.get(++indice)));
+                } else {
+                    resultado.append(c);
+                }
+            }
+            return resultado.toString();
+        }
+
+        private static String literal(Object valor) {
+            if (valor == null) {
+                return "null";
+            }
+            if (valor instanceof LocalDate || valor instanceof java.sql.Date) {
+                return "date '" + valor + "'";
+            }
+            if (valor instanceof Temporal || valor instanceof java.sql.Timestamp) {
+                return "timestamp '" + valor.toString().replace('T', ' ') + "'";
+            }
+            if (valor instanceof String texto) {
+                return "'" + texto.replace("'", "''") + "'";
+            }
+            return valor.toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Object alvo, Interceptador interceptador) {
+            return (T) Proxy.newProxyInstance(GravadorComandos.class.getClassLoader(),
+                    ClassUtils.getAllInterfaces(alvo), (proxy, metodo, args) -> {
+                        try {
+                            return interceptador.depois(metodo, args, metodo.invoke(alvo, args));
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @FunctionalInterface
+        private interface Interceptador {
+            Object depois(Method metodo, Object[] args, Object resultado) throws Exception;
+        }
+    }
+}
@@ -28,7 +28,7 @@ public class QuartoRepositoryTest {
 
     @Test
     @Sql(statements = "DELETE FROM quarto", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
-    void findByDisponibilidade_deveRetornarQuartosDisponiveis() {
+    void findAllByIdParaReserva_deveRetornarQuartosNaOrdemDoId() {
         var quarto1 = new Quarto();
         quarto1.setNumero(101);
         quarto1.setQtdHospedes(1);
@@ -48,19 +48,17 @@ public class QuartoRepositoryTest {
         quarto3.setQtdHospedes(3);
         quarto3.setTipoQuarto(ETipoQuarto.TRIPLE);
         quarto3.setValor(BigDecimal.valueOf(180.00));
-        quarto3.setDisponibilidade(false);
+        quarto3.setDisponibilidade(true);
 
-        entityManager.persistAndFlush(quarto1);
+        var id1 = entityManager.persistAndFlush(quarto1).getId();
         entityManager.persistAndFlush(quarto2);
-        entityManager.persistAndFlush(quarto3);
+        var id3 = entityManager.persistAndFlush(quarto3).getId();
         entityManager.clear();
 
-        List<Quarto> quartosDisponiveis = repository.findByDisponibilidade(true);
+        List<Quarto> travados = repository.findAllByIdParaReserva(List.of(id3, id1));
 
-        assertThat(quartosDisponiveis).hasSize(2);
-        assertThat(quartosDisponiveis)
-                .extracting(Quarto::getDisponibilidade)
-                .containsOnly(true);
+        assertThat(travados).extracting(Quarto::getId).containsExactly(id1, id3);
+        assertThat(travados).extracting(Quarto::getNumero).containsExactly(101, 301);
     }
 
 }
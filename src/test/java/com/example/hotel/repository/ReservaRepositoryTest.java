@@ -0,0 +1,104 @@
+package com.example.hotel.repository;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class ReservaRepositoryTest {
+
+    private static final int HOSPEDES = 40;
+    private static final int QUARTOS = 25;
+    private static final int RESERVAS = 300;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservaRepository repository;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        var hospedes = new Hospede[HOSPEDES];
+        for (int i = 0; i < HOSPEDES; i++) {
+            var hospede = new Hospede();
+            hospede.setNome("Hóspede " + i);
+            hospede.setCpf(String.format("%011d", i));
+            hospede.setTelefone("(43)99999-9999");
+            hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+            hospedes[i] = entityManager.persist(hospede);
+        }
+
+        var quartos = new Quarto[QUARTOS];
+        for (int i = 0; i < QUARTOS; i++) {
+            var quarto = new Quarto();
+            quarto.setNumero(100 + i);
+            quarto.setQtdHospedes(2);
+            quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+            quarto.setValor(BigDecimal.valueOf(150));
+            quarto.setDisponibilidade(true);
+            quartos[i] = entityManager.persist(quarto);
+        }
+
+        for (int i = 0; i < RESERVAS; i++) {
+            var reserva = new Reservas();
+            reserva.setHospede(hospedes[i % HOSPEDES]);
+            reserva.setQuarto(quartos[i % QUARTOS]);
+            reserva.setCheckin(LocalDate.of(2025, 1, 1).plusDays(i));
+            reserva.setCheckout(LocalDate.of(2025, 1, 2).plusDays(i));
+            reserva.setQtdHospedes(1);
+            reserva.setSituacao(true);
+            reserva.setValorTotal(BigDecimal.valueOf(150));
+            entityManager.persist(reserva);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        estatisticas = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void buscarPagina_deveTrazerHospedeEQuartoNaMesmaConsulta() {
+        var pagina = repository.buscarPagina(null, null, null, null, null, Limit.of(RESERVAS));
+
+        assertThat(pagina).hasSize(RESERVAS);
+        assertThat(pagina).allSatisfy(reserva -> {
+            assertThat(reserva.getHospede().getNome()).startsWith("Hóspede");
+            assertThat(reserva.getQuarto().getNumero()).isNotNull();
+        });
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void buscarResponsePorId_deveUsarUmaConsulta() {
+        var id = repository.buscarPagina(null, null, null, null, null, Limit.of(1)).get(0).getId();
+        entityManager.clear();
+        estatisticas.clear();
+
+        var reserva = repository.buscarResponsePorId(id);
+
+        assertThat(reserva).isPresent();
+        assertThat(reserva.get().getHospede().getCpf()).isNotBlank();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.Hospede;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheHospedesTest {
+
+    private SimpleMeterRegistry registry;
+
+    private CacheHospedes cache;
+
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new CacheHospedes(registry, 100);
+    }
+
+    @Test
+    void buscarPorId_deveContarAcertosEFaltas() {
+        cache.buscarPorId(1, this::carregar);
+        cache.buscarPorId(1, this::carregar);
+        cache.buscarPorId(1, this::carregar);
+
+        assertEquals(1, consultas.get());
+        assertEquals(2, contagem("hit"));
+        assertEquals(1, contagem("miss"));
+        assertTrue(registry.find("cache.evictions").tag("cache", "hospedes").functionCounter() != null);
+    }
+
+    @Test
+    void buscarPorCpf_deveReaproveitarHospedeCarregadoPorId() {
+        cache.buscarPorId(1, this::carregar);
+
+        var hospede = cache.buscarPorCpf("00000000001", cpf -> {
+            throw new AssertionError("não deveria consultar o banco");
+        });
+
+        assertEquals(1, hospede.orElseThrow().getId());
+    }
+
+    @Test
+    void buscarPorId_naoDeveGuardarHospedeInexistente() {
+        cache.buscarPorId(9, id -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.buscarPorId(9, this::carregar);
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void buscarPorId_deveDevolverVazio_quandoIdNulo() {
+        var hospede = cache.buscarPorId(null, this::carregar);
+
+        assertTrue(hospede.isEmpty());
+        assertEquals(0, consultas.get());
+    }
+
+    @Test
+    void invalidar_deveRemoverIdECpf() {
+        cache.buscarPorId(1, this::carregar);
+
+        cache.invalidar(1);
+
+        assertTrue(cache.buscarPorCpf("00000000001", cpf -> Optional.empty()).isEmpty());
+        cache.buscarPorId(1, this::carregar);
+        assertEquals(2, consultas.get());
+    }
+
+    private Optional<Hospede> carregar(Integer id) {
+        consultas.incrementAndGet();
+        var hospede = new Hospede();
+        hospede.setId(id);
+        hospede.setCpf(String.format("%011d", id));
+        return Optional.of(hospede);
+    }
+
+    private double contagem(String resultado) {
+        return registry.get("cache.gets").tag("cache", "hospedes").tag("result", resultado)
+                .functionCounter().count();
+    }
+}
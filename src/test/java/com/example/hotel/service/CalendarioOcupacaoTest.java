@@ -0,0 +1,137 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.PeriodoReserva;
+import com.example.hotel.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CalendarioOcupacaoTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2025, 7, 10);
+
+    @Mock
+    private ReservaRepository repository;
+
+    private CalendarioOcupacao calendario;
+
+    @BeforeEach
+    void setUp() {
+        calendario = new CalendarioOcupacao(repository);
+    }
+
+    @Test
+    void estaLivre_deveRetornarTrue_quandoQuartoNuncaFoiReservado() {
+        assertTrue(calendario.estaLivre(1, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void ocupar_deveBloquearPeriodoSobreposto() {
+        assertTrue(calendario.ocupar(1, HOJE, HOJE.plusDays(3)));
+
+        assertFalse(calendario.estaLivre(1, HOJE.plusDays(2), HOJE.plusDays(5)));
+        assertFalse(calendario.ocupar(1, HOJE.minusDays(1), HOJE.plusDays(1)));
+        assertTrue(calendario.estaLivre(2, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void ocupar_devePermitirCheckinNoDiaDoCheckoutAnterior() {
+        assertTrue(calendario.ocupar(1, HOJE, HOJE.plusDays(3)));
+
+        assertTrue(calendario.ocupar(1, HOJE.plusDays(3), HOJE.plusDays(4)));
+        assertTrue(calendario.ocupar(1, HOJE.minusDays(2), HOJE));
+    }
+
+    @Test
+    void liberar_deveDevolverPeriodo() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+
+        calendario.liberar(1, HOJE, HOJE.plusDays(3));
+
+        assertTrue(calendario.estaLivre(1, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void remarcar_deveMoverPeriodoParaOutroQuarto() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+
+        assertTrue(calendario.remarcar(1, HOJE, HOJE.plusDays(3), 2, HOJE, HOJE.plusDays(3)));
+
+        assertTrue(calendario.estaLivre(1, HOJE, HOJE.plusDays(3)));
+        assertFalse(calendario.estaLivre(2, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void remarcar_devePermitirSobreporOProprioPeriodo() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+
+        assertTrue(calendario.remarcar(1, HOJE, HOJE.plusDays(3), 1, HOJE.plusDays(1), HOJE.plusDays(5)));
+
+        assertTrue(calendario.estaLivre(1, HOJE, HOJE.plusDays(1)));
+        assertFalse(calendario.estaLivre(1, HOJE.plusDays(4), HOJE.plusDays(5)));
+    }
+
+    @Test
+    void remarcar_deveManterPeriodoAnterior_quandoNovoPeriodoOcupado() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+        calendario.ocupar(2, HOJE.plusDays(1), HOJE.plusDays(2));
+
+        assertFalse(calendario.remarcar(1, HOJE, HOJE.plusDays(3), 2, HOJE, HOJE.plusDays(3)));
+
+        assertFalse(calendario.estaLivre(1, HOJE, HOJE.plusDays(3)));
+        assertTrue(calendario.estaLivre(2, HOJE, HOJE.plusDays(1)));
+    }
+
+    @Test
+    void semSobreposicao_deveConsultarIndiceDePeriodos() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+        calendario.ocupar(1, HOJE.plusDays(5), HOJE.plusDays(7));
+
+        assertTrue(calendario.semSobreposicao(1, HOJE.plusDays(3), HOJE.plusDays(5)));
+        assertTrue(calendario.semSobreposicao(1, HOJE.minusDays(2), HOJE));
+        assertFalse(calendario.semSobreposicao(1, HOJE.plusDays(2), HOJE.plusDays(4)));
+        assertFalse(calendario.semSobreposicao(1, HOJE.plusDays(4), HOJE.plusDays(10)));
+        assertFalse(calendario.semSobreposicao(1, HOJE.minusDays(5), HOJE.plusDays(20)));
+        assertTrue(calendario.semSobreposicao(2, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void semSobreposicao_deveAcompanharLiberacaoERemarcacao() {
+        calendario.ocupar(1, HOJE, HOJE.plusDays(3));
+        calendario.remarcar(1, HOJE, HOJE.plusDays(3), 2, HOJE, HOJE.plusDays(3));
+
+        assertTrue(calendario.semSobreposicao(1, HOJE, HOJE.plusDays(3)));
+        assertFalse(calendario.semSobreposicao(2, HOJE.plusDays(1), HOJE.plusDays(2)));
+
+        calendario.liberar(2, HOJE, HOJE.plusDays(3));
+
+        assertTrue(calendario.semSobreposicao(2, HOJE, HOJE.plusDays(3)));
+    }
+
+    @Test
+    void carregar_deveReconstruirCalendarioAPartirDasReservasAtivas() {
+        var periodo = mock(PeriodoReserva.class);
+        when(periodo.getQuartoId()).thenReturn(3);
+        when(periodo.getCheckin()).thenReturn(HOJE);
+        when(periodo.getCheckout()).thenReturn(HOJE.plusDays(2));
+
+        when(repository.findPeriodosAtivos(any(LocalDate.class))).thenReturn(List.of(periodo));
+
+        calendario.carregar();
+
+        assertFalse(calendario.estaLivre(3, HOJE.plusDays(1), HOJE.plusDays(2)));
+        assertTrue(calendario.estaLivre(3, HOJE.plusDays(2), HOJE.plusDays(4)));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.QuartoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogoQuartosTest {
+
+    @Mock
+    private QuartoRepository repository;
+
+    private CatalogoQuartos catalogo;
+
+    private CatalogoQuartos.Sincronizacao sincronizacao;
+
+    @BeforeEach
+    void setUp() {
+        catalogo = new CatalogoQuartos(repository);
+
+        var beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("catalogoQuartos", catalogo);
+        sincronizacao = new CatalogoQuartos.Sincronizacao(beanFactory.getBeanProvider(CatalogoQuartos.class));
+
+        when(repository.findAll()).thenReturn(List.of(
+                quarto(2, 201, ETipoQuarto.DOUBLE),
+                quarto(1, 101, ETipoQuarto.SINGLE),
+                quarto(3, 202, ETipoQuarto.DOUBLE)));
+        catalogo.carregar();
+    }
+
+    @Test
+    void carregar_deveIndexarPorIdNumeroETipo() {
+        assertThat(catalogo.todos()).extracting(Quarto::getId).containsExactly(1, 2, 3);
+        assertThat(catalogo.porId(2)).get().extracting(Quarto::getNumero).isEqualTo(201);
+        assertThat(catalogo.porNumero(202)).get().extracting(Quarto::getId).isEqualTo(3);
+        assertThat(catalogo.porTipo(ETipoQuarto.DOUBLE)).extracting(Quarto::getId).containsExactly(2, 3);
+        assertThat(catalogo.porTipo(ETipoQuarto.FAMILIA)).isEmpty();
+        assertThat(catalogo.porId(99)).isEmpty();
+        assertThat(catalogo.porId(null)).isEmpty();
+    }
+
+    @Test
+    void todos_deveSerImutavel() {
+        assertThrows(UnsupportedOperationException.class, () -> catalogo.todos().add(new Quarto(9)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> catalogo.porTipo(ETipoQuarto.DOUBLE).clear());
+    }
+
+    @Test
+    void aoGravar_deveTrocarAFotografiaSemAlterarALeituraAnterior() {
+        var leituraAnterior = catalogo.todos();
+
+        var quarto = quarto(2, 201, ETipoQuarto.EXECUTIVO);
+        quarto.setDisponibilidade(false);
+        sincronizacao.aoGravar(quarto);
+        quarto.setValor(BigDecimal.ONE);
+
+        assertThat(catalogo.porId(2)).get().satisfies(atual -> {
+            assertThat(atual.getTipoQuarto()).isEqualTo(ETipoQuarto.EXECUTIVO);
+            assertThat(atual.getDisponibilidade()).isFalse();
+            assertThat(atual.getValor()).isEqualByComparingTo("200");
+        });
+        assertThat(catalogo.porTipo(ETipoQuarto.DOUBLE)).extracting(Quarto::getId).containsExactly(3);
+        assertThat(leituraAnterior.get(1).getTipoQuarto()).isEqualTo(ETipoQuarto.DOUBLE);
+    }
+
+    @Test
+    void aoGravar_deveManterAFotografia_quandoNaoMudarPrecoNemCapacidade() {
+        var leituraAnterior = catalogo.todos();
+
+        var quarto = quarto(2, 201, ETipoQuarto.DOUBLE);
+        quarto.setValor(new BigDecimal("200.00"));
+        quarto.setDisponibilidade(false);
+        quarto.setVersao(5L);
+        sincronizacao.aoGravar(quarto);
+
+        assertThat(catalogo.porId(2)).get().satisfies(atual -> {
+            assertThat(atual.getDisponibilidade()).isTrue();
+            assertThat(atual.getVersao()).isNull();
+        });
+        assertThat(catalogo.todos()).usingRecursiveFieldByFieldElementComparator().isEqualTo(leituraAnterior);
+    }
+
+    @Test
+    void leituras_deveDevolverCopias_quandoQuemChamaAlterarOQuarto() {
+        catalogo.porId(2).orElseThrow().setValor(BigDecimal.ONE);
+        catalogo.todos().get(0).setTipoQuarto(ETipoQuarto.FAMILIA);
+        catalogo.porNumero(202).orElseThrow().setQtdHospedes(9);
+        catalogo.porTipo(ETipoQuarto.DOUBLE).get(0).setNumero(999);
+
+        assertThat(catalogo.porId(2)).get().satisfies(quarto -> {
+            assertThat(quarto.getValor()).isEqualByComparingTo("200");
+            assertThat(quarto.getNumero()).isEqualTo(201);
+        });
+        assertThat(catalogo.porId(1)).get().extracting(Quarto::getTipoQuarto).isEqualTo(ETipoQuarto.SINGLE);
+        assertThat(catalogo.porId(3)).get().extracting(Quarto::getQtdHospedes).isEqualTo(2);
+        assertThat(catalogo.porTipo(ETipoQuarto.FAMILIA)).isEmpty();
+    }
+
+    @Test
+    void porId_deveAceitarIdsAltos_semDependerDaSequencia() {
+        sincronizacao.aoGravar(quarto(2_000_000_000, 901, ETipoQuarto.SINGLE));
+
+        assertThat(catalogo.porId(2_000_000_000)).get().extracting(Quarto::getNumero).isEqualTo(901);
+        assertThat(catalogo.porId(-1)).isEmpty();
+        assertThat(catalogo.contarPorTipo(ETipoQuarto.SINGLE)).isEqualTo(2);
+    }
+
+    @Test
+    void aoGravar_deveAguardarOCommit_quandoHouverTransacao() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sincronizacao.aoGravar(quarto(4, 301, ETipoQuarto.TRIPLE));
+
+            assertThat(catalogo.porId(4)).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(catalogo.porId(4)).isPresent();
+            assertThat(catalogo.porNumero(301)).isPresent();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void aoRemover_deveTirarOQuartoDoCatalogo() {
+        sincronizacao.aoRemover(quarto(1, 101, ETipoQuarto.SINGLE));
+
+        assertThat(catalogo.porId(1)).isEmpty();
+        assertThat(catalogo.porNumero(101)).isEmpty();
+        assertThat(catalogo.porTipo(ETipoQuarto.SINGLE)).isEmpty();
+    }
+
+    private static Quarto quarto(Integer id, Integer numero, ETipoQuarto tipo) {
+        var quarto = new Quarto(id);
+        quarto.setNumero(numero);
+        quarto.setTipoQuarto(tipo);
+        quarto.setQtdHospedes(2);
+        quarto.setValor(BigDecimal.valueOf(200));
+        quarto.setDisponibilidade(true);
+        return quarto;
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.enums.ETipoEventoReserva;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.DisponibilidadeException;
+import com.example.hotel.model.EventoReserva;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.EventoReservaRepository;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Outbox e despacho sobre o H2, com um destino em memória no lugar dos sistemas externos.
+ * O despacho agendado fica parado e os testes chamam {@link DespachoEventos#despachar()};
+ * a espera depois de uma falha é vencida à mão. O banco é compartilhado com outros testes,
+ * então as verificações olham só as reservas criadas aqui.
+ */
+@SpringBootTest(properties = {"hotel.outbox.intervalo=1h", "hotel.outbox.tentativas=3"})
+@ActiveProfiles("h2")
+public class DespachoEventosTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ReservaService service;
+
+    @Autowired
+    private DespachoEventos despacho;
+
+    @Autowired
+    private DestinoMemoria destino;
+
+    @Autowired
+    private EventoReservaRepository eventoRepository;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Hospede hospede;
+    private final List<Quarto> quartos = new ArrayList<>();
+    private final List<Integer> reservas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+
+        hospede = new Hospede();
+        hospede.setNome("Hóspede Outbox " + n);
+        hospede.setCpf(String.format("%011d", 60_000_000_000L + n));
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+        hospede = hospedeRepository.save(hospede);
+
+        for (int i = 0; i < 2; i++) {
+            var quarto = new Quarto();
+            quarto.setNumero(7_000 + n * 10 + i);
+            quarto.setQtdHospedes(2);
+            quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+            quarto.setValor(BigDecimal.valueOf(150));
+            quarto.setDisponibilidade(true);
+            quartos.add(quartoRepository.save(quarto));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservaRepository.deleteAllById(reservas);
+        quartoRepository.deleteAllById(quartos.stream().map(Quarto::getId).toList());
+        hospedeRepository.deleteById(hospede.getId());
+    }
+
+    @Test
+    void despachar_deveEntregarOsEventosNaOrdemDaReserva() {
+        var reserva = cadastrar(quartos.get(0), LocalDate.of(2033, 5, 1), LocalDate.of(2033, 5, 3));
+        var alteracao = new ReservaRequest();
+        alteracao.setCheckout(LocalDate.of(2033, 5, 4));
+        service.atualizarReserva(reserva.getId(), alteracao);
+        service.cancelarReserva(reserva.getId());
+
+        despacho.despachar();
+
+        var entregues = destino.eventosDa(reserva.getId());
+        assertThat(entregues)
+                .extracting(EventoReserva::getTipo)
+                .containsExactly(ETipoEventoReserva.CRIADA, ETipoEventoReserva.ALTERADA, ETipoEventoReserva.CANCELADA);
+        assertThat(entregues).extracting(EventoReserva::getId).isSorted();
+        assertThat(entregues.get(1).getDados()).contains("2033-05-04");
+        assertThat(pendentesDa(reserva.getId())).isEmpty();
+        assertThat(destino.entregouEmTransacao()).isFalse();
+    }
+
+    @Test
+    void despachar_deveSegurarOsEventosSeguintes_quandoUmFalhar() {
+        var primeira = cadastrar(quartos.get(0), LocalDate.of(2033, 6, 1), LocalDate.of(2033, 6, 3));
+        var segunda = cadastrar(quartos.get(1), LocalDate.of(2033, 6, 1), LocalDate.of(2033, 6, 3));
+        var alteracao = new ReservaRequest();
+        alteracao.setCheckout(LocalDate.of(2033, 6, 5));
+        service.atualizarReserva(primeira.getId(), alteracao);
+        destino.falhar(primeira.getId(), 1);
+
+        despacho.despachar();
+
+        // A alteração não passa na frente da criação que falhou; a outra reserva segue
+        assertThat(destino.eventosDa(primeira.getId())).isEmpty();
+        assertThat(destino.eventosDa(segunda.getId()))
+                .extracting(EventoReserva::getTipo)
+                .containsExactly(ETipoEventoReserva.CRIADA);
+        assertThat(pendentesDa(primeira.getId()))
+                .extracting(EventoReserva::getTentativas)
+                .containsExactly(1, 0);
+
+        // Enquanto a criação espera, a alteração espera com ela
+        despacho.despachar();
+
+        assertThat(destino.eventosDa(primeira.getId())).isEmpty();
+        assertThat(pendentesDa(primeira.getId()).get(0).getProximaTentativa()).isNotNull();
+
+        vencerEsperas(primeira.getId());
+        despacho.despachar();
+
+        assertThat(destino.eventosDa(primeira.getId()))
+                .extracting(EventoReserva::getTipo)
+                .containsExactly(ETipoEventoReserva.CRIADA, ETipoEventoReserva.ALTERADA);
+        assertThat(pendentesDa(primeira.getId())).isEmpty();
+    }
+
+    @Test
+    void despachar_deveDescartarOEvento_quandoEsgotarAsTentativas() {
+        var reserva = cadastrar(quartos.get(0), LocalDate.of(2033, 8, 1), LocalDate.of(2033, 8, 3));
+        var alteracao = new ReservaRequest();
+        alteracao.setCheckout(LocalDate.of(2033, 8, 5));
+        service.atualizarReserva(reserva.getId(), alteracao);
+        destino.falhar(reserva.getId(), 3);
+
+        for (int i = 0; i < 3; i++) {
+            despacho.despachar();
+            vencerEsperas(reserva.getId());
+        }
+
+        // A criação fica na tabela marcada e deixa de segurar a alteração
+        assertThat(pendentesDa(reserva.getId()))
+                .extracting(EventoReserva::getTipo, EventoReserva::getTentativas, EventoReserva::getDescartado)
+                .containsExactly(tuple(ETipoEventoReserva.CRIADA, 3, true),
+                        tuple(ETipoEventoReserva.ALTERADA, 0, false));
+
+        despacho.despachar();
+
+        assertThat(destino.eventosDa(reserva.getId()))
+                .extracting(EventoReserva::getTipo)
+                .containsExactly(ETipoEventoReserva.ALTERADA);
+        assertThat(pendentesDa(reserva.getId()))
+                .extracting(EventoReserva::getTipo)
+                .containsExactly(ETipoEventoReserva.CRIADA);
+    }
+
+    @Test
+    void espera_deveDobrarACadaFalha_ateAEsperaMaxima() {
+        assertThat(despacho.espera(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(despacho.espera(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(despacho.espera(40)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void cadastrarReserva_naoDeveGravarEvento_quandoReservaNaoForConfirmada() {
+        cadastrar(quartos.get(0), LocalDate.of(2033, 7, 1), LocalDate.of(2033, 7, 3));
+        long antes = eventoRepository.count();
+
+        assertThatThrownBy(() -> cadastrar(quartos.get(0), LocalDate.of(2033, 7, 2), LocalDate.of(2033, 7, 4)))
+                .isInstanceOf(DisponibilidadeException.class);
+
+        assertThat(eventoRepository.count()).isEqualTo(antes);
+    }
+
+    private ReservaResponse cadastrar(Quarto quarto, LocalDate checkin, LocalDate checkout) {
+        var reserva = service.cadastrarReserva(ReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkout)
+                .hospedeId(hospede.getId())
+                .quartoId(quarto.getId())
+                .qtdHospedes(1)
+                .build());
+        reservas.add(reserva.getId());
+        return reserva;
+    }
+
+    // Como se a espera depois das falhas já tivesse passado
+    private void vencerEsperas(Integer reservaId) {
+        jdbcTemplate.update("UPDATE evento_reserva SET proxima_tentativa = NULL WHERE reserva_id = ?", reservaId);
+    }
+
+    private List<EventoReserva> pendentesDa(Integer reservaId) {
+        return eventoRepository.findAll(Sort.by("id")).stream()
+                .filter(evento -> evento.getReservaId().equals(reservaId))
+                .toList();
+    }
+
+    @TestConfiguration
+    static class Destinos {
+
+        @Bean
+        DestinoMemoria destinoMemoria() {
+            return new DestinoMemoria();
+        }
+    }
+
+    /**
+     * Guarda o que recebe; pode recusar os próximos eventos de uma reserva.
+     */
+    static class DestinoMemoria implements DestinoEventos {
+
+        private final List<EventoReserva> recebidos = new CopyOnWriteArrayList<>();
+        private final Map<Integer, Integer> falhar = new ConcurrentHashMap<>();
+        private volatile boolean emTransacao;
+
+        @Override
+        public void entregar(EventoReserva evento) {
+            emTransacao |= TransactionSynchronizationManager.isActualTransactionActive();
+            if (falhar.computeIfPresent(evento.getReservaId(), (id, vezes) -> vezes - 1) != null) {
+                falhar.remove(evento.getReservaId(), 0);
+                throw new IllegalStateException("Destino fora do ar");
+            }
+            recebidos.add(evento);
+        }
+
+        void falhar(Integer reservaId, int vezes) {
+            falhar.put(reservaId, vezes);
+        }
+
+        boolean entregouEmTransacao() {
+            return emTransacao;
+        }
+
+        List<EventoReserva> eventosDa(Integer reservaId) {
+            return recebidos.stream()
+                    .filter(evento -> evento.getReservaId().equals(reservaId))
+                    .toList();
+        }
+    }
+}
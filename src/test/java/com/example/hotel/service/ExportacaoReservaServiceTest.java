@@ -0,0 +1,105 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportacaoReservaServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private TypedQuery<Reservas> consulta;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ExportacaoReservaService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExportacaoReservaService(entityManager, objectMapper, Integer.MIN_VALUE);
+        when(entityManager.createQuery(anyString(), eq(Reservas.class))).thenReturn(consulta);
+    }
+
+    @Test
+    void exportar_deveEscreverUmaReservaPorLinha() throws Exception {
+        when(consulta.getResultStream()).thenReturn(Stream.of(reserva(1), reserva(2)));
+
+        var saida = new ByteArrayOutputStream();
+        var total = service.exportar(saida);
+
+        var linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, total);
+        assertEquals(2, linhas.length);
+        assertEquals(1, objectMapper.readTree(linhas[0]).get("id").asInt());
+        assertEquals("2025-07-03", objectMapper.readTree(linhas[1]).get("checkin").asText());
+        verify(entityManager, never()).clear();
+        // O streaming do MySQL vale só para esta consulta
+        verify(consulta).setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+    }
+
+    @Test
+    void exportar_deveLimparContextoDePersistenciaACadaBlocoEFecharOStream() throws Exception {
+        var fechado = new AtomicBoolean();
+        when(consulta.getResultStream()).thenReturn(IntStream.rangeClosed(1, 1_200)
+                .mapToObj(this::reserva)
+                .onClose(() -> fechado.set(true)));
+
+        var total = service.exportar(new ByteArrayOutputStream());
+
+        assertEquals(1_200, total);
+        verify(entityManager, times(2)).clear();
+        assertTrue(fechado.get());
+    }
+
+    private Reservas reserva(int id) {
+        var hospede = new Hospede();
+        hospede.setId(1);
+        hospede.setNome("Maria");
+
+        var quarto = new Quarto(1);
+        quarto.setValor(BigDecimal.valueOf(150));
+
+        var reserva = new Reservas();
+        reserva.setId(id);
+        reserva.setCheckin(LocalDate.of(2025, 7, 1).plusDays(id % 28));
+        reserva.setCheckout(LocalDate.of(2025, 7, 3).plusDays(id % 28));
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quarto);
+        reserva.setSituacao(true);
+        return reserva;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.hotel.service;
+
+import com.example.hotel.repository.HospedeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FiltroCpfTest {
+
+    private static final int CADASTRADOS = 10_000;
+
+    @Mock
+    private HospedeRepository repository;
+
+    @Test
+    void talvezCadastrado_deveResponderTrue_antesDaCarga() {
+        var filtro = new FiltroCpf(repository, CADASTRADOS);
+
+        assertTrue(filtro.talvezCadastrado(12345678910L));
+    }
+
+    @Test
+    void talvezCadastrado_naoDeveTerFalsoNegativo_eDeveDescartarQuaseTodosOsAusentes() {
+        var filtro = new FiltroCpf(repository, CADASTRADOS);
+        when(repository.streamCpfsNumericos())
+                .thenReturn(LongStream.range(0, CADASTRADOS).map(i -> 10_000_000_000L + i * 7).boxed());
+
+        filtro.carregar();
+
+        for (long i = 0; i < CADASTRADOS; i++) {
+            assertTrue(filtro.talvezCadastrado(10_000_000_000L + i * 7));
+        }
+
+        long falsosPositivos = LongStream.range(0, CADASTRADOS)
+                .filter(i -> filtro.talvezCadastrado(20_000_000_000L + i))
+                .count();
+        assertTrue(falsosPositivos < CADASTRADOS * 0.02, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void adicionar_deveValerLogoAposOCadastro() {
+        var filtro = new FiltroCpf(repository, CADASTRADOS);
+        when(repository.streamCpfsNumericos()).thenReturn(LongStream.empty().boxed());
+        filtro.carregar();
+
+        assertFalse(filtro.talvezCadastrado(12345678910L));
+
+        filtro.adicionar(12345678910L);
+
+        assertTrue(filtro.talvezCadastrado(12345678910L));
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Finalização sobre o H2, com lotes de duas reservas para passar pelo cursor. A rodada
+ * agendada fica parada e os testes chamam {@link FinalizacaoEstadias#finalizar()}; o banco é
+ * compartilhado, então as verificações olham só o que foi criado aqui.
+ */
+@SpringBootTest(properties = {
+        "hotel.reservas.finalizacao.intervalo=1h",
+        "hotel.reservas.finalizacao.lote=2",
+        "hotel.reservas.finalizacao.pausa=0ms"
+})
+@ActiveProfiles("h2")
+public class FinalizacaoEstadiasTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private FinalizacaoEstadias finalizacao;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Hospede hospede;
+    private final List<Quarto> quartos = new ArrayList<>();
+    private final List<Integer> reservas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+
+        hospede = new Hospede();
+        hospede.setNome("Hóspede Finalização " + n);
+        hospede.setCpf(String.format("%011d", 62_000_000_000L + n));
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+        hospede = hospedeRepository.save(hospede);
+
+        for (int i = 0; i < 3; i++) {
+            var quarto = new Quarto();
+            quarto.setNumero(9_000 + n * 10 + i);
+            quarto.setQtdHospedes(2);
+            quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+            quarto.setValor(BigDecimal.valueOf(150));
+            quarto.setDisponibilidade(true);
+            quartos.add(quartoRepository.save(quarto));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservaRepository.deleteAllById(reservas);
+        quartoRepository.deleteAllById(quartos.stream().map(Quarto::getId).toList());
+        hospedeRepository.deleteById(hospede.getId());
+    }
+
+    @Test
+    void finalizar_deveFinalizarEstadiasEncerradas() {
+        var hoje = LocalDate.now();
+        var primeira = gravar(quartos.get(0), hoje.minusDays(10), hoje.minusDays(8), true);
+        var segunda = gravar(quartos.get(0), hoje.minusDays(5), hoje.minusDays(1), true);
+        var outroQuarto = gravar(quartos.get(1), hoje.minusDays(3), hoje.minusDays(2), true);
+
+        finalizacao.finalizar();
+
+        assertThat(List.of(primeira, segunda, outroQuarto)).allSatisfy(id -> {
+            var reserva = reservaRepository.findById(id).orElseThrow();
+            assertThat(reserva.getFinalizada()).isTrue();
+            assertThat(reserva.getSituacao()).isTrue();
+            // A versão não sobe: quem estiver alterando a reserva não precisa repetir
+            assertThat(reserva.getVersao()).isZero();
+        });
+    }
+
+    @Test
+    void finalizar_deveIgnorarEstadiasEmAndamentoECanceladas() {
+        var hoje = LocalDate.now();
+        var quarto = quartos.get(2);
+        var encerrada = gravar(quarto, hoje.minusDays(4), hoje.minusDays(2), true);
+        var emAndamento = gravar(quarto, hoje.minusDays(1), hoje, true);
+        var cancelada = gravar(quartos.get(0), hoje.minusDays(6), hoje.minusDays(5), false);
+
+        finalizacao.finalizar();
+
+        assertThat(reservaRepository.findById(encerrada).orElseThrow().getFinalizada()).isTrue();
+        // O checkout de hoje ainda não passou
+        assertThat(reservaRepository.findById(emAndamento).orElseThrow().getFinalizada()).isFalse();
+        assertThat(reservaRepository.findById(cancelada).orElseThrow().getFinalizada()).isFalse();
+    }
+
+    @Test
+    void finalizar_naoDeveAlterarNada_quandoRodarDeNovo() {
+        var hoje = LocalDate.now();
+        var reserva = gravar(quartos.get(0), hoje.minusDays(3), hoje.minusDays(1), true);
+
+        finalizacao.finalizar();
+        finalizacao.finalizar();
+
+        assertThat(reservaRepository.findById(reserva).orElseThrow().getFinalizada()).isTrue();
+        assertThat(reservaRepository.findById(reserva).orElseThrow().getVersao()).isZero();
+        // O quarto não é gravado pela finalização
+        assertThat(quartoRepository.findById(quartos.get(0).getId()).orElseThrow().getVersao()).isZero();
+    }
+
+    @Test
+    void finalizar_deveImpedirAlteracaoEAparecerNaResposta() {
+        var hoje = LocalDate.now();
+        var reserva = gravar(quartos.get(0), hoje.minusDays(3), hoje.minusDays(1), true);
+
+        finalizacao.finalizar();
+
+        assertThat(reservaService.buscarReservaPorId(reserva).getFinalizada()).isTrue();
+        var request = new ReservaRequest();
+        request.setQtdHospedes(2);
+        assertThatThrownBy(() -> reservaService.atualizarReserva(reserva, request))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Não é possível alterar reservas já finalizadas");
+    }
+
+    @Test
+    void alteracaoPelaEntidade_naoDeveDesfazerAFinalizacao() {
+        var hoje = LocalDate.now();
+        var id = gravar(quartos.get(0), hoje.minusDays(3), hoje.minusDays(1), true);
+        // Carregada antes da rodada, como numa alteração em andamento
+        var carregada = reservaRepository.findById(id).orElseThrow();
+
+        finalizacao.finalizar();
+        carregada.setQtdHospedes(2);
+        reservaRepository.save(carregada);
+
+        var atual = reservaRepository.findById(id).orElseThrow();
+        assertThat(atual.getQtdHospedes()).isEqualTo(2);
+        assertThat(atual.getFinalizada()).isTrue();
+    }
+
+    private Integer gravar(Quarto quarto, LocalDate checkin, LocalDate checkout, boolean ativa) {
+        var reserva = new Reservas();
+        reserva.setCheckin(checkin);
+        reserva.setCheckout(checkout);
+        reserva.setQtdHospedes(1);
+        reserva.setHospede(hospede);
+        reserva.setQuarto(quarto);
+        reserva.setSituacao(ativa);
+        reserva.setValorTotal(BigDecimal.valueOf(300));
+        var gravada = reservaRepository.save(reserva).getId();
+        reservas.add(gravada);
+        return gravada;
+    }
+}
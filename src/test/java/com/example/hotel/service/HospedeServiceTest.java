@@ -4,9 +4,11 @@ import com.example.hotel.dto.HospedeRequest;
 import com.example.hotel.exception.ValidacaoException;
 import com.example.hotel.model.Hospede;
 import com.example.hotel.repository.HospedeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.time.LocalDate;
@@ -26,6 +28,15 @@ public class HospedeServiceTest {
     @Mock
     private HospedeRepository repository;
 
+    @Spy
+    private CacheHospedes cache = new CacheHospedes(new SimpleMeterRegistry(), 100);
+
+    @Mock
+    private FiltroCpf filtroCpf;
+
+    @Mock
+    private IndiceNomesHospedes indiceNomes;
+
     @InjectMocks
     private HospedeService service;
 
@@ -142,7 +153,8 @@ public class HospedeServiceTest {
         hospedeEsperado.setTelefone("(43)3322-7533");
         hospedeEsperado.setCpf("123.456.789-10");
 
-        when(repository.existsByCpf("123.456.789-10")).thenReturn(false);
+        when(filtroCpf.talvezCadastrado(12345678910L)).thenReturn(true);
+        when(repository.existsByCpfNumerico(12345678910L)).thenReturn(false);
         when(repository.save(any(Hospede.class))).thenReturn(hospedeEsperado);
 
         var resultado = service.salvarHospede(request);
@@ -154,7 +166,28 @@ public class HospedeServiceTest {
         assertThat(resultado.getTelefone()).isEqualTo("(43)3322-7533");
         assertThat(resultado.getCpf()).isEqualTo("123.456.789-10");
 
-        verify(repository, times(1)).existsByCpf("123.456.789-10");
+        verify(repository, times(1)).existsByCpfNumerico(12345678910L);
+        verify(repository, times(1)).save(any(Hospede.class));
+        verify(filtroCpf, times(1)).adicionar(12345678910L);
+    }
+
+    @Test
+    public void salvarHospede_naoDeveConsultarBanco_quandoFiltroDescartaCpf() {
+        var request = new HospedeRequest();
+        request.setNome("Karen");
+        request.setCpf("123.456.789-10");
+
+        var hospedeSalvo = new Hospede();
+        hospedeSalvo.setId(1);
+        hospedeSalvo.setCpf("123.456.789-10");
+
+        when(filtroCpf.talvezCadastrado(12345678910L)).thenReturn(false);
+        when(repository.save(any(Hospede.class))).thenReturn(hospedeSalvo);
+
+        service.salvarHospede(request);
+
+        verify(repository, never()).existsByCpfNumerico(anyLong());
+        verify(repository, never()).existsByCpf(anyString());
         verify(repository, times(1)).save(any(Hospede.class));
     }
 
@@ -163,13 +196,14 @@ public class HospedeServiceTest {
         var request = new HospedeRequest();
         request.setCpf("123.456.789-10");
 
-        when(repository.existsByCpf("123.456.789-10")).thenReturn(true);
+        when(filtroCpf.talvezCadastrado(12345678910L)).thenReturn(true);
+        when(repository.existsByCpfNumerico(12345678910L)).thenReturn(true);
 
         assertThatThrownBy(() -> service.salvarHospede(request))
                 .isInstanceOf(ValidacaoException.class)
                 .hasMessage("CPF " + request.getCpf() + " já está cadastrado no sistema.");
 
-        verify(repository, times(1)).existsByCpf("123.456.789-10");
+        verify(repository, times(1)).existsByCpfNumerico(12345678910L);
         verify(repository, never()).save(any());
     }
 
@@ -211,4 +245,92 @@ public class HospedeServiceTest {
         verify(repository, never()).save(any(Hospede.class));
 
     }
+
+    @Test
+    public void buscarHospedePorId_deveConsultarOBancoUmaVez_quandoBuscadoRepetidamente() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+        hospede.setCpf("12345678910");
+
+        when(repository.findById(1)).thenReturn(Optional.of(hospede));
+
+        service.buscarHospedePorId(1);
+        service.buscarHospedePorId(1);
+        var porCpf = service.buscarHospedePorCpf("12345678910");
+
+        assertEquals(hospede, porCpf);
+        verify(repository, times(1)).findById(1);
+        verify(repository, never()).findByCpf(any());
+    }
+
+    @Test
+    public void atualizarDadosHospede_deveInvalidarCache_quandoAtualizado() {
+        var hospedeAntigo = new Hospede();
+        hospedeAntigo.setId(1);
+        hospedeAntigo.setNome("Karen");
+        hospedeAntigo.setCpf("12345678910");
+
+        var hospedeAtualizado = new Hospede();
+        hospedeAtualizado.setId(1);
+        hospedeAtualizado.setNome("Karen Novo");
+        hospedeAtualizado.setCpf("12345678910");
+
+        var alteracao = new Hospede();
+        alteracao.setNome("Karen Novo");
+
+        when(repository.findById(1)).thenReturn(Optional.of(hospedeAntigo), Optional.of(hospedeAtualizado));
+        when(repository.save(any(Hospede.class))).thenReturn(hospedeAtualizado);
+
+        service.buscarHospedePorId(1);
+        service.atualizarDadosHospede(1, alteracao);
+        var resultado = service.buscarHospedePorId(1);
+
+        assertEquals("Karen Novo", resultado.getNome());
+        verify(cache, times(1)).invalidar(1);
+        verify(repository, times(3)).findById(1);
+    }
+
+    @Test
+    public void deletarHospede_deveInvalidarCache_quandoDeletado() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        when(repository.findById(1)).thenReturn(Optional.of(hospede), Optional.empty());
+
+        service.deletarHospede(1);
+
+        assertThatThrownBy(() -> service.buscarHospedePorId(1))
+                .isInstanceOf(ValidacaoException.class);
+        verify(repository, times(1)).deleteById(1);
+        verify(repository, times(2)).findById(1);
+    }
+
+    @Test
+    public void buscarHospedesPorTrechoDoNome_deveManterOrdemDoIndice() {
+        var maria = new Hospede();
+        maria.setId(7);
+        maria.setNome("Maria Silva");
+
+        var ana = new Hospede();
+        ana.setId(3);
+        ana.setNome("Ana Maria");
+
+        when(indiceNomes.buscar("maria", 10)).thenReturn(List.of(7, 3));
+        when(repository.findById(7)).thenReturn(Optional.of(maria));
+        when(repository.findById(3)).thenReturn(Optional.of(ana));
+
+        var resultado = service.buscarHospedesPorTrechoDoNome("maria", 10);
+
+        assertEquals(List.of(maria, ana), resultado);
+        verify(repository, never()).findByNome(any());
+    }
+
+    @Test
+    public void buscarHospedesPorTrechoDoNome_deveLancarException_quandoLimiteInvalido() {
+        assertThatThrownBy(() -> service.buscarHospedesPorTrechoDoNome("maria", 51))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("O limite deve estar entre 1 e 50");
+
+        verifyNoInteractions(indiceNomes);
+    }
 }
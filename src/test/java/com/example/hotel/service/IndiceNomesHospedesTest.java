@@ -0,0 +1,95 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.NomeHospede;
+import com.example.hotel.repository.HospedeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class IndiceNomesHospedesTest {
+
+    @Mock
+    private HospedeRepository repository;
+
+    private IndiceNomesHospedes indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceNomesHospedes(repository);
+        when(repository.streamNomes()).thenReturn(Stream.of(
+                nome(1, "Maria Silva"),
+                nome(2, "Mário Souza"),
+                nome(3, "Ana Maria"),
+                nome(4, "João Pereira"),
+                nome(5, "José Marinho")));
+        indice.carregar();
+    }
+
+    @Test
+    void buscar_deveColocarPrefixoDoNomeNaFrente() {
+        assertThat(indice.buscar("maria", 3)).containsExactly(1, 3, 2);
+    }
+
+    @Test
+    void buscar_deveIgnorarAcentosEMaiusculas() {
+        assertThat(indice.buscar("JOAO", 10)).first().isEqualTo(4);
+        assertThat(indice.buscar("mario", 1)).containsExactly(2);
+    }
+
+    @Test
+    void buscar_deveTolerarErroDeDigitacao() {
+        assertThat(indice.buscar("mria silva", 1)).containsExactly(1);
+    }
+
+    @Test
+    void buscar_deveRetornarVazio_quandoNadaParecido() {
+        assertThat(indice.buscar("xyz", 10)).isEmpty();
+        assertThat(indice.buscar("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void registrar_deveSubstituirNomeAnterior() {
+        indice.registrar(1, "Beatriz Lima");
+
+        assertThat(indice.buscar("maria silva", 10)).doesNotContain(1);
+        assertThat(indice.buscar("beat", 10)).containsExactly(1);
+    }
+
+    @Test
+    void remover_deveTirarHospedeDasBuscas() {
+        indice.remover(3);
+
+        assertThat(indice.buscar("ana", 10)).isEmpty();
+        assertThat(indice.buscar("maria", 10)).doesNotContain(3);
+    }
+
+    @Test
+    void buscar_deveRespeitarLimite() {
+        List<Integer> ids = indice.buscar("ma", 2);
+
+        assertThat(ids).hasSize(2);
+    }
+
+    private static NomeHospede nome(Integer id, String nome) {
+        return new NomeHospede() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getNome() {
+                return nome;
+            }
+        };
+    }
+}
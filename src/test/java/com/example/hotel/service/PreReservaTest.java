@@ -0,0 +1,157 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.PreReservaRequest;
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.DisponibilidadeException;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.PreReservaRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pré-reservas sobre o H2, com a expiração de verdade rodando no relógio de um segundo.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class PreReservaTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ReservaService service;
+
+    @Autowired
+    private PreReservaRepository preReservaRepository;
+
+    @Autowired
+    private HospedeRepository hospedeRepository;
+
+    @Autowired
+    private QuartoRepository quartoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Hospede hospede;
+    private Quarto quarto;
+    private final List<Integer> preReservas = new ArrayList<>();
+    private final List<Integer> reservas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+
+        hospede = new Hospede();
+        hospede.setNome("Hóspede Pré-reserva " + n);
+        hospede.setCpf(String.format("%011d", 61_000_000_000L + n));
+        hospede.setTelefone("(43)99999-9999");
+        hospede.setDataNascimento(LocalDate.of(1990, 1, 1));
+        hospede = hospedeRepository.save(hospede);
+
+        quarto = new Quarto();
+        quarto.setNumero(8_000 + n);
+        quarto.setQtdHospedes(2);
+        quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+        quarto.setValor(BigDecimal.valueOf(150));
+        quarto.setDisponibilidade(true);
+        quarto = quartoRepository.save(quarto);
+    }
+
+    @AfterEach
+    void tearDown() {
+        preReservaRepository.deleteAllById(preReservas);
+        reservaRepository.deleteAllById(reservas);
+        quartoRepository.deleteById(quarto.getId());
+        hospedeRepository.deleteById(hospede.getId());
+    }
+
+    @Test
+    void cadastrarPreReserva_deveImpedirReservaDoMesmoQuarto() {
+        segurar(LocalDate.of(2034, 1, 10), LocalDate.of(2034, 1, 12), 600);
+
+        assertThatThrownBy(() -> reservar(LocalDate.of(2034, 1, 11), LocalDate.of(2034, 1, 13)))
+                .isInstanceOf(DisponibilidadeException.class);
+        assertThatThrownBy(() -> segurar(LocalDate.of(2034, 1, 9), LocalDate.of(2034, 1, 11), 600))
+                .isInstanceOf(DisponibilidadeException.class);
+
+        // A noite de checkout continua livre
+        reservar(LocalDate.of(2034, 1, 12), LocalDate.of(2034, 1, 14));
+    }
+
+    @Test
+    void confirmarPreReserva_deveCriarAReservaComOValorCotado() {
+        var preReserva = segurar(LocalDate.of(2034, 2, 10), LocalDate.of(2034, 2, 13), 600);
+
+        var reserva = service.confirmarPreReserva(preReserva);
+        reservas.add(reserva.getId());
+
+        assertThat(reserva.getValorTotalReserva()).isEqualByComparingTo("450");
+        assertThat(reserva.getSituacao()).isTrue();
+        assertThat(preReservaRepository.findById(preReserva)).isEmpty();
+        assertThatThrownBy(() -> service.confirmarPreReserva(preReserva))
+                .isInstanceOf(NoSuchElementException.class);
+
+        // As noites passam para a reserva
+        assertThatThrownBy(() -> reservar(LocalDate.of(2034, 2, 12), LocalDate.of(2034, 2, 14)))
+                .isInstanceOf(DisponibilidadeException.class);
+    }
+
+    @Test
+    void preReserva_deveExpirarELiberarOQuarto() throws InterruptedException {
+        var preReserva = segurar(LocalDate.of(2034, 3, 10), LocalDate.of(2034, 3, 12), 1);
+
+        // Vence em até dois tiques do relógio; a folga cobre máquinas lentas
+        long limite = System.currentTimeMillis() + 10_000;
+        while (preReservaRepository.existsById(preReserva) && System.currentTimeMillis() < limite) {
+            Thread.sleep(100);
+        }
+
+        assertThat(preReservaRepository.existsById(preReserva)).isFalse();
+        assertThatThrownBy(() -> service.confirmarPreReserva(preReserva))
+                .isInstanceOf(NoSuchElementException.class);
+        reservar(LocalDate.of(2034, 3, 10), LocalDate.of(2034, 3, 12));
+    }
+
+    private Integer segurar(LocalDate checkin, LocalDate checkout, int segundos) {
+        var preReserva = service.cadastrarPreReserva(PreReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkout)
+                .hospedeId(hospede.getId())
+                .quartoId(quarto.getId())
+                .qtdHospedes(1)
+                .segundos(segundos)
+                .build());
+        preReservas.add(preReserva.getId());
+        return preReserva.getId();
+    }
+
+    private void reservar(LocalDate checkin, LocalDate checkout) {
+        var reserva = service.cadastrarReserva(ReservaRequest.builder()
+                .checkin(checkin)
+                .checkout(checkout)
+                .hospedeId(hospede.getId())
+                .quartoId(quarto.getId())
+                .qtdHospedes(1)
+                .build());
+        reservas.add(reserva.getId());
+    }
+}
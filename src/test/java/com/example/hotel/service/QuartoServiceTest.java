@@ -1,22 +1,28 @@
 package com.example.hotel.service;
 
+import com.example.hotel.enums.ETipoQuarto;
 import com.example.hotel.exception.DisponibilidadeException;
 import com.example.hotel.exception.NotFoundException;
+import com.example.hotel.exception.ValidacaoException;
 import com.example.hotel.model.Quarto;
-import com.example.hotel.repository.QuartoRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -24,7 +30,10 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 public class QuartoServiceTest {
 
     @Mock
-    private QuartoRepository repository;
+    private CatalogoQuartos catalogo;
+
+    @Mock
+    private CalendarioOcupacao calendario;
 
     @InjectMocks
     private QuartoService service;
@@ -42,30 +51,36 @@ public class QuartoServiceTest {
 
         List<Quarto> quartos = Arrays.asList(quarto1, quarto2, quarto3);
 
-        when(repository.findAll()).thenReturn(quartos);
+        var hoje = LocalDate.now();
+
+        when(catalogo.todos()).thenReturn(quartos);
+        when(calendario.semSobreposicao(anyInt(), eq(hoje), eq(hoje.plusDays(1)))).thenReturn(true);
+        when(calendario.semSobreposicao(2, hoje, hoje.plusDays(1))).thenReturn(false);
 
         List<Quarto> resultado = service.buscarTodos();
 
         assertEquals(3, resultado.size());
-        assertEquals(quartos, resultado);
+        assertThat(resultado).extracting(Quarto::getId).containsExactly(1, 2, 3);
+        // A disponibilidade vem do calendário para a noite de hoje
+        assertThat(resultado).extracting(Quarto::getDisponibilidade).containsExactly(true, false, true);
 
-        verify(repository, times(1)).findAll();
-        verifyNoMoreInteractions(repository);
+        verify(catalogo, times(1)).todos();
+        verifyNoMoreInteractions(catalogo);
     }
 
     @Test
     public void buscarTodos_deveRetornarListaVazia_quandoSolicitado() {
         List<Quarto> listaVazia = Collections.emptyList();
 
-        when(repository.findAll()).thenReturn(listaVazia);
+        when(catalogo.todos()).thenReturn(listaVazia);
 
         List<Quarto> listaEsperada = service.buscarTodos();
 
         assertEquals(0, listaEsperada.size());
         assertEquals(listaVazia, listaEsperada);
 
-        verify(repository, times(1)).findAll();
-        verifyNoMoreInteractions(repository);
+        verify(catalogo, times(1)).todos();
+        verifyNoMoreInteractions(catalogo);
     }
 
     @Test
@@ -73,63 +88,103 @@ public class QuartoServiceTest {
         var quarto = new Quarto();
         quarto.setId(1);
 
-        when(repository.findById(1)).thenReturn(Optional.of(quarto));
+        when(catalogo.porId(1)).thenReturn(Optional.of(quarto));
 
         var resultado = service.buscarQuartoPorId(1);
 
         assertNotNull(resultado);
         assertEquals(1, resultado.getId());
 
-        verify(repository, times(1)).findById(1);
-        verifyNoMoreInteractions(repository);
+        verify(catalogo, times(1)).porId(1);
+        verifyNoMoreInteractions(catalogo);
     }
 
     @Test
     public void buscarQuartoPorId_deveLancarException_quandoQuartoNaoEncontrado() {
-        when(repository.findById(1)).thenReturn(Optional.empty());
+        when(catalogo.porId(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.buscarQuartoPorId(1))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Quarto não encontrado");
 
-        verify(repository, times(1)).findById(1);
-        verifyNoMoreInteractions(repository);
+        verify(catalogo, times(1)).porId(1);
+        verifyNoMoreInteractions(catalogo);
     }
 
     @Test
-    public void obterQuartosDisponiveis_deveRetornarQuartosDisponiveis_quandoSolicitado() {
-        var quarto1 = new Quarto();
-        quarto1.setDisponibilidade(true);
-
-        var quarto2 = new Quarto();
-        quarto2.setDisponibilidade(true);
-
-        var quarto3 = new Quarto();
-        quarto3.setDisponibilidade(false);
+    public void obterQuartosDisponiveis_deveRetornarQuartosLivresNoPeriodo_quandoSolicitado() {
+        var checkin = LocalDate.of(2025, 7, 10);
+        var checkout = LocalDate.of(2025, 7, 12);
+
+        var quartoLivre = new Quarto();
+        quartoLivre.setId(1);
+        quartoLivre.setQtdHospedes(2);
+        quartoLivre.setTipoQuarto(ETipoQuarto.DOUBLE);
+
+        var quartoReservado = new Quarto();
+        quartoReservado.setId(2);
+        quartoReservado.setQtdHospedes(2);
+        quartoReservado.setTipoQuarto(ETipoQuarto.DOUBLE);
+
+        var quartoPequeno = new Quarto();
+        quartoPequeno.setId(3);
+        quartoPequeno.setQtdHospedes(1);
+        quartoPequeno.setTipoQuarto(ETipoQuarto.DOUBLE);
+
+        when(catalogo.porTipo(ETipoQuarto.DOUBLE)).thenReturn(
+                Arrays.asList(quartoLivre, quartoReservado, quartoPequeno));
+        when(calendario.semSobreposicao(1, checkin, checkout)).thenReturn(true);
+        when(calendario.semSobreposicao(2, checkin, checkout)).thenReturn(false);
+
+        var resultado = service.obterQuartosDisponiveis(checkin, checkout, 2, ETipoQuarto.DOUBLE);
+
+        assertThat(resultado).extracting(Quarto::getId).containsExactly(1);
+        assertThat(resultado.get(0).getDisponibilidade()).isTrue();
+
+        verify(catalogo, times(1)).porTipo(ETipoQuarto.DOUBLE);
+        verify(calendario, never()).semSobreposicao(3, checkin, checkout);
+        verifyNoMoreInteractions(catalogo);
+    }
 
-        List<Quarto> quartosDisponiveis = Arrays.asList(quarto1, quarto2);
+    @Test
+    public void obterQuartosDisponiveis_deveConsiderarHoje_quandoDatasNaoInformadas() {
+        var quarto = new Quarto();
+        quarto.setId(1);
 
-        when(repository.findByDisponibilidade(true)).thenReturn(quartosDisponiveis);
+        var hoje = LocalDate.now();
 
-        var resultado = service.obterQuartosDisponiveis();
+        when(catalogo.todos()).thenReturn(List.of(quarto));
+        when(calendario.semSobreposicao(1, hoje, hoje.plusDays(1))).thenReturn(true);
 
-        assertEquals(quartosDisponiveis, resultado);
+        var resultado = service.obterQuartosDisponiveis(null, null, null, null);
 
-        verify(repository, times(1)).findByDisponibilidade(true);
-        verifyNoMoreInteractions(repository);
+        assertThat(resultado).extracting(Quarto::getId).containsExactly(1);
     }
 
     @Test
     public void obterQuartosDisponivies_deveLancarException_quandoNaoHouverQuartosDisponiveis() {
-        List<Quarto> quartos = Collections.emptyList();
+        var quarto = new Quarto();
+        quarto.setId(1);
 
-        when(repository.findByDisponibilidade(true)).thenReturn(quartos);
+        when(catalogo.todos()).thenReturn(List.of(quarto));
+        when(calendario.semSobreposicao(anyInt(), any(LocalDate.class), any(LocalDate.class))).thenReturn(false);
 
-        assertThatThrownBy(() -> service.obterQuartosDisponiveis())
+        assertThatThrownBy(() -> service.obterQuartosDisponiveis(
+                LocalDate.of(2025, 7, 10), LocalDate.of(2025, 7, 12), null, null))
                 .isInstanceOf(DisponibilidadeException.class)
-                .hasMessage("Nenhum quarto disponível no momento");
+                .hasMessage("Nenhum quarto disponível para o período selecionado");
+
+        verify(catalogo, times(1)).todos();
+        verifyNoMoreInteractions(catalogo);
+    }
+
+    @Test
+    public void obterQuartosDisponiveis_deveLancarException_quandoCheckinDepoisDoCheckout() {
+        assertThatThrownBy(() -> service.obterQuartosDisponiveis(
+                LocalDate.of(2025, 7, 12), LocalDate.of(2025, 7, 10), null, null))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("A data de checkin não pode ser depois da data de checkout");
 
-        verify(repository, times(1)).findByDisponibilidade(true);
-        verifyNoMoreInteractions(repository);
+        verifyNoInteractions(catalogo, calendario);
     }
 }
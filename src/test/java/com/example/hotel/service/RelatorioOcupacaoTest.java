@@ -0,0 +1,289 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.EstadiaReserva;
+import com.example.hotel.dto.OcupacaoDiariaResponse;
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.exception.ValidacaoException;
+import com.example.hotel.model.OcupacaoDiaria;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.OcupacaoDiariaRepository;
+import com.example.hotel.repository.ReservaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RelatorioOcupacaoTest {
+
+    private static final LocalDate DIA = LocalDate.of(2030, 3, 10);
+
+    @Mock
+    private OcupacaoDiariaRepository repository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query comando;
+
+    @Mock
+    private NativeQuery<?> comandoNativo;
+
+    private RelatorioOcupacao relatorio;
+
+    @BeforeEach
+    void setUp() {
+        var catalogo = new CatalogoQuartos(null);
+        for (int id = 1; id <= 4; id++) {
+            var quarto = new Quarto(id);
+            quarto.setTipoQuarto(id <= 3 ? ETipoQuarto.DOUBLE : ETipoQuarto.SINGLE);
+            catalogo.registrar(quarto);
+        }
+
+        when(entityManager.createNativeQuery(anyString())).thenReturn(comando);
+        when(comando.unwrap(NativeQuery.class)).thenReturn(comandoNativo);
+
+        relatorio = new RelatorioOcupacao(repository, reservaRepository, catalogo, entityManager,
+                new TransactionTemplate(new TransacaoEmMemoria()), false);
+
+        when(repository.count()).thenReturn(1L);
+        when(repository.findAll()).thenReturn(List.of(gravada(DIA, ETipoQuarto.DOUBLE, 1, 20_000)));
+        relatorio.carregar();
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void carregar_deveLerATabela() {
+        var linha = linha(DIA, ETipoQuarto.DOUBLE);
+
+        assertThat(linha.getQuartosOcupados()).isEqualTo(1);
+        assertThat(linha.getTotalQuartos()).isEqualTo(3);
+        assertThat(linha.getOcupacao()).isEqualByComparingTo("33.33");
+        assertThat(linha.getReceita()).isEqualByComparingTo("200");
+    }
+
+    @Test
+    void consultar_deveOmitirTiposSemQuartos() {
+        assertThat(relatorio.consultar(DIA, DIA.plusDays(1)))
+                .extracting(OcupacaoDiariaResponse::getTipoQuarto)
+                .containsExactly(ETipoQuarto.SINGLE, ETipoQuarto.DOUBLE, ETipoQuarto.SINGLE, ETipoQuarto.DOUBLE);
+    }
+
+    @Test
+    void reservar_deveDividirAReceitaEntreAsNoites_eSoAtualizarAMemoriaDepoisDoCommit() {
+        // 100,00 em três noites: o centavo que sobra fica na primeira
+        relatorio.reservar(List.of(reserva(ETipoQuarto.SINGLE, DIA, DIA.plusDays(3), "100.00")));
+
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+        verify(comando).setParameter(4, 3334L);
+        verify(comando).setParameter(8, 3333L);
+        verify(comando).setParameter(12, 3333L);
+        verify(comandoNativo).addSynchronizedQuerySpace("ocupacao_diaria");
+        verify(comando).executeUpdate();
+        assertThat(linha(DIA, ETipoQuarto.SINGLE).getQuartosOcupados()).isZero();
+
+        confirmar();
+
+        assertThat(linha(DIA, ETipoQuarto.SINGLE).getReceita()).isEqualByComparingTo("33.34");
+        assertThat(linha(DIA.plusDays(1), ETipoQuarto.SINGLE).getOcupacao()).isEqualByComparingTo("100");
+        assertThat(linha(DIA.plusDays(1), ETipoQuarto.SINGLE).getReceita()).isEqualByComparingTo("33.33");
+        assertThat(linha(DIA.plusDays(3), ETipoQuarto.SINGLE).getQuartosOcupados()).isZero();
+    }
+
+    @Test
+    void remarcar_naoDeveGravar_quandoNadaMudou() {
+        var reserva = reserva(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(2), "300");
+
+        relatorio.remarcar(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(2), new BigDecimal("300"), reserva);
+
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void remarcar_deveGravarSoAsNoitesQueMudaram() {
+        // De 10 a 12 para 11 a 13: sai a noite 10, entra a 12, a 11 continua igual
+        var reserva = reserva(ETipoQuarto.DOUBLE, DIA.plusDays(1), DIA.plusDays(3), "300");
+
+        relatorio.remarcar(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(2), new BigDecimal("300"), reserva);
+
+        verify(comando).setParameter(1, DIA);
+        verify(comando).setParameter(3, -1L);
+        verify(comando).setParameter(5, DIA.plusDays(2));
+        verify(comando).setParameter(7, 1L);
+        verify(comando, never()).setParameter(eq(9), any());
+
+        confirmar();
+
+        assertThat(linha(DIA, ETipoQuarto.DOUBLE).getQuartosOcupados()).isZero();
+        assertThat(linha(DIA.plusDays(2), ETipoQuarto.DOUBLE).getQuartosOcupados()).isEqualTo(1);
+    }
+
+    @Test
+    void remarcar_deveTrocarAReceita_quandoOValorMudar() {
+        // De 10 a 12 por 300,00 para 10 a 13 por 600,00: cada noite passa de 150,00 para 200,00
+        var reserva = reserva(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(3), "600");
+
+        relatorio.remarcar(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(2), new BigDecimal("300"), reserva);
+        confirmar();
+
+        assertThat(linha(DIA, ETipoQuarto.DOUBLE).getQuartosOcupados()).isEqualTo(1);
+        assertThat(linha(DIA, ETipoQuarto.DOUBLE).getReceita()).isEqualByComparingTo("250");
+        assertThat(linha(DIA.plusDays(1), ETipoQuarto.DOUBLE).getReceita()).isEqualByComparingTo("50");
+        assertThat(linha(DIA.plusDays(2), ETipoQuarto.DOUBLE).getReceita()).isEqualByComparingTo("200");
+    }
+
+    @Test
+    void reservar_deveSomarComAliasDeLinha_noMySql() {
+        relatorio.reservar(List.of(reserva(ETipoQuarto.SINGLE, DIA, DIA.plusDays(1), "100")));
+
+        verify(entityManager).createNativeQuery(argThat(sql -> sql.contains(" AS novo ON DUPLICATE KEY UPDATE")
+                && sql.contains("quartos_ocupados + novo.quartos_ocupados") && !sql.contains("VALUES(")));
+    }
+
+    @Test
+    void reservar_deveSomarComMerge_quandoConfigurado() {
+        var comMerge = new RelatorioOcupacao(repository, reservaRepository, new CatalogoQuartos(null), entityManager,
+                new TransactionTemplate(new TransacaoEmMemoria()), true);
+
+        comMerge.reservar(List.of(reserva(ETipoQuarto.SINGLE, DIA, DIA.plusDays(1), "100")));
+
+        verify(entityManager).createNativeQuery(argThat(sql -> sql.startsWith("MERGE INTO ocupacao_diaria")));
+        verify(comando).setParameter(4, 10_000L);
+    }
+
+    @Test
+    void cancelar_deveDescontarAsNoites() {
+        relatorio.cancelar(reserva(ETipoQuarto.DOUBLE, DIA, DIA.plusDays(1), "200"));
+        confirmar();
+
+        var linha = linha(DIA, ETipoQuarto.DOUBLE);
+        assertThat(linha.getQuartosOcupados()).isZero();
+        assertThat(linha.getReceita()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void carregar_deveMontarATabela_quandoEstiverVazia() {
+        // A carga abre a própria transação, que confirma e atualiza a memória
+        TransactionSynchronizationManager.clearSynchronization();
+        when(repository.count()).thenReturn(0L);
+        when(reservaRepository.streamEstadiasAtivas()).thenReturn(Stream.of(
+                estadia(ETipoQuarto.SINGLE, DIA, DIA.plusDays(2), "180"),
+                estadia(ETipoQuarto.SINGLE, DIA.plusDays(1), DIA.plusDays(2), "90")));
+
+        relatorio.carregar();
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        verify(comando).executeUpdate();
+        assertThat(linha(DIA, ETipoQuarto.DOUBLE).getQuartosOcupados()).isZero();
+        assertThat(linha(DIA, ETipoQuarto.SINGLE).getQuartosOcupados()).isEqualTo(1);
+        assertThat(linha(DIA.plusDays(1), ETipoQuarto.SINGLE).getQuartosOcupados()).isEqualTo(2);
+        assertThat(linha(DIA.plusDays(1), ETipoQuarto.SINGLE).getReceita()).isEqualByComparingTo("180");
+    }
+
+    @Test
+    void consultar_deveValidarOPeriodo() {
+        assertThatThrownBy(() -> relatorio.consultar(null, DIA))
+                .isInstanceOf(ValidacaoException.class);
+        assertThatThrownBy(() -> relatorio.consultar(DIA, DIA.minusDays(1)))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("A data final do relatório não pode ser antes da inicial");
+        assertThatThrownBy(() -> relatorio.consultar(DIA, DIA.plusDays(RelatorioOcupacao.MAXIMO_DIAS)))
+                .isInstanceOf(ValidacaoException.class);
+    }
+
+    private void confirmar() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private OcupacaoDiariaResponse linha(LocalDate dia, ETipoQuarto tipo) {
+        return relatorio.consultar(dia, dia).stream()
+                .filter(linha -> linha.getTipoQuarto() == tipo)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Reservas reserva(ETipoQuarto tipo, LocalDate checkin, LocalDate checkout, String valor) {
+        var quarto = new Quarto(1);
+        quarto.setTipoQuarto(tipo);
+
+        var reserva = new Reservas();
+        reserva.setQuarto(quarto);
+        reserva.setCheckin(checkin);
+        reserva.setCheckout(checkout);
+        reserva.setSituacao(true);
+        reserva.setValorTotal(new BigDecimal(valor));
+        return reserva;
+    }
+
+    private static OcupacaoDiaria gravada(LocalDate dia, ETipoQuarto tipo, int quartos, long receitaCentavos) {
+        var linha = new OcupacaoDiaria();
+        linha.setDia(dia);
+        linha.setTipoQuarto(tipo);
+        linha.setQuartosOcupados(quartos);
+        linha.setReceitaCentavos(receitaCentavos);
+        return linha;
+    }
+
+    private static EstadiaReserva estadia(ETipoQuarto tipo, LocalDate checkin, LocalDate checkout, String valor) {
+        return new EstadiaReserva() {
+            @Override
+            public LocalDate getCheckin() {
+                return checkin;
+            }
+
+            @Override
+            public LocalDate getCheckout() {
+                return checkout;
+            }
+
+            @Override
+            public ETipoQuarto getTipoQuarto() {
+                return tipo;
+            }
+
+            @Override
+            public BigDecimal getValorTotal() {
+                return new BigDecimal(valor);
+            }
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.hotel.service;
+
+import com.example.hotel.dto.ReservaRequest;
+import com.example.hotel.exception.DisponibilidadeException;
+import com.example.hotel.model.Hospede;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.model.Reservas;
+import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.PreReservaRepository;
+import com.example.hotel.repository.QuartoRepository;
+import com.example.hotel.repository.ReservaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReservaServiceConcorrenciaTest {
+
+    private static final int QUARTOS = 20;
+    private static final int REQUISICOES = 5_000;
+    private static final int THREADS = 32;
+    private static final LocalDate INICIO = LocalDate.now().plusDays(1);
+
+    @Mock
+    private ReservaRepository repository;
+
+    @Mock
+    private QuartoRepository quartoRepository;
+
+    @Mock
+    private HospedeRepository hospedeRepository;
+
+    @Mock
+    private RelatorioOcupacao ocupacao;
+
+    @Mock
+    private OutboxReservas outbox;
+
+    @Mock
+    private PreReservaRepository preReservaRepository;
+
+    @Mock
+    private ExpiracaoPreReservas expiracao;
+
+    private ReservaService service;
+
+    // Faz o papel da tabela de reservas
+    private final List<Reservas> gravadas = new ArrayList<>();
+
+    private final AtomicInteger sequencia = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        Map<Integer, Quarto> quartos = new ConcurrentHashMap<>();
+        for (int id = 1; id <= QUARTOS; id++) {
+            var quarto = new Quarto(id);
+            quarto.setQtdHospedes(4);
+            quarto.setValor(BigDecimal.valueOf(200));
+            quarto.setDisponibilidade(true);
+            quartos.put(id, quarto);
+        }
+
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        when(hospedeRepository.findById(anyInt())).thenReturn(Optional.of(hospede));
+        when(quartoRepository.findByIdParaReserva(anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(quartos.get(invocation.<Integer>getArgument(0))));
+        when(repository.existsSobreposicao(anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+            Integer quartoId = invocation.getArgument(0);
+            LocalDate checkin = invocation.getArgument(1);
+            LocalDate checkout = invocation.getArgument(2);
+            synchronized (gravadas) {
+                return gravadas.stream().anyMatch(reserva -> reserva.getQuarto().getId().equals(quartoId)
+                        && reserva.getCheckin().isBefore(checkout) && reserva.getCheckout().isAfter(checkin));
+            }
+        });
+        when(repository.save(any(Reservas.class))).thenAnswer(invocation -> {
+            Reservas reserva = invocation.getArgument(0);
+            reserva.setId(sequencia.incrementAndGet());
+            synchronized (gravadas) {
+                gravadas.add(reserva);
+            }
+            return reserva;
+        });
+
+        service = new ReservaService(repository, quartoRepository, hospedeRepository,
+                new CacheHospedes(new SimpleMeterRegistry(), 100), new CalendarioOcupacao(repository), new TabelaTarifas(null), ocupacao, outbox,
+                preReservaRepository, expiracao,
+                new TravasQuarto(),
+                new TransactionTemplate(new TransacaoEmMemoria()),
+                new RetentativaOtimista(new SimpleMeterRegistry(), 3, 0));
+    }
+
+    @Test
+    void cadastrarReserva_naoDeveReservarOMesmoQuartoDuasVezes_quandoRequisicoesConcorrentes() throws Exception {
+        var random = new Random(42);
+        List<ReservaRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUISICOES; i++) {
+            var checkin = INICIO.plusDays(random.nextInt(60));
+            requests.add(ReservaRequest.builder()
+                    .checkin(checkin)
+                    .checkout(checkin.plusDays(1 + random.nextInt(5)))
+                    .hospedeId(1)
+                    .quartoId(1 + random.nextInt(QUARTOS))
+                    .qtdHospedes(2)
+                    .build());
+        }
+
+        var aceitas = new AtomicInteger();
+        var recusadas = new AtomicInteger();
+        var largada = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (ReservaRequest request : requests) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    service.cadastrarReserva(request);
+                    aceitas.incrementAndGet();
+                } catch (DisponibilidadeException e) {
+                    recusadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(REQUISICOES, aceitas.get() + recusadas.get());
+        assertEquals(aceitas.get(), gravadas.size());
+        assertTrue(recusadas.get() > 0, "O cenário deveria gerar disputa pelos mesmos quartos");
+
+        Map<Integer, List<Reservas>> porQuarto = gravadas.stream()
+                .collect(Collectors.groupingBy(reserva -> reserva.getQuarto().getId()));
+        porQuarto.forEach((quartoId, reservas) -> {
+            reservas.sort((a, b) -> a.getCheckin().compareTo(b.getCheckin()));
+            for (int i = 1; i < reservas.size(); i++) {
+                assertFalse(reservas.get(i).getCheckin().isBefore(reservas.get(i - 1).getCheckout()),
+                        "Quarto " + quartoId + " reservado duas vezes no mesmo período");
+            }
+        });
+    }
+
+    @Test
+    void cadastrarReserva_deveAceitarApenasUma_quandoTodasDisputamOMesmoPeriodo() throws Exception {
+        var request = ReservaRequest.builder()
+                .checkin(INICIO)
+                .checkout(INICIO.plusDays(2))
+                .hospedeId(1)
+                .quartoId(7)
+                .qtdHospedes(1)
+                .build();
+
+        var aceitas = new AtomicInteger();
+        var largada = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    service.cadastrarReserva(request);
+                    aceitas.incrementAndGet();
+                } catch (DisponibilidadeException e) {
+                    // esperado para todas menos uma
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(1, aceitas.get());
+        assertEquals(1, gravadas.size());
+    }
+}
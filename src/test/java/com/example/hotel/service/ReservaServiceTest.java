@@ -1,24 +1,37 @@
 package com.example.hotel.service;
 
 import com.example.hotel.dto.CancelamentoResponse;
+import com.example.hotel.dto.PreReservaRequest;
+import com.example.hotel.dto.ReservaFiltro;
 import com.example.hotel.dto.ReservaRequest;
 import com.example.hotel.dto.ReservaResponse;
+import com.example.hotel.enums.ETipoEventoReserva;
 import com.example.hotel.enums.ETipoQuarto;
 import com.example.hotel.exception.DisponibilidadeException;
 import com.example.hotel.exception.ValidacaoException;
 import com.example.hotel.model.Hospede;
+import com.example.hotel.model.PreReserva;
 import com.example.hotel.model.Quarto;
 import com.example.hotel.model.Reservas;
 import com.example.hotel.repository.HospedeRepository;
+import com.example.hotel.repository.PreReservaRepository;
 import com.example.hotel.repository.QuartoRepository;
 import com.example.hotel.repository.ReservaRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,6 +51,39 @@ public class ReservaServiceTest {
     @Mock
     private HospedeRepository hospedeRepository;
 
+    @Spy
+    private CacheHospedes cacheHospedes = new CacheHospedes(new SimpleMeterRegistry(), 100);
+
+    @Mock
+    private CalendarioOcupacao calendario;
+
+    // Sem planos: toda noite custa o valor do quarto
+    @Spy
+    private TabelaTarifas tarifas = new TabelaTarifas(null);
+
+    @Mock
+    private RelatorioOcupacao ocupacao;
+
+    @Mock
+    private OutboxReservas outbox;
+
+    @Mock
+    private PreReservaRepository preReservaRepository;
+
+    @Mock
+    private ExpiracaoPreReservas expiracao;
+
+    @Spy
+    private TravasQuarto travas = new TravasQuarto();
+
+    private final TransacaoEmMemoria gerenciador = new TransacaoEmMemoria();
+
+    @Spy
+    private TransactionTemplate transacao = new TransactionTemplate(gerenciador);
+
+    @Spy
+    private RetentativaOtimista retentativa = new RetentativaOtimista(new SimpleMeterRegistry(), 3, 0);
+
     @InjectMocks
     private ReservaService service;
 
@@ -100,29 +146,45 @@ public class ReservaServiceTest {
         reserva3.setCheckin(LocalDate.now().plusDays(5));
         reserva3.setCheckout(LocalDate.now().plusDays(7));
 
-        List<Reservas> reservas = Arrays.asList(reserva1, reserva2, reserva3);
+        List<ReservaResponse> reservas = Arrays.asList(ReservaResponse.fromEntity(reserva1),
+                ReservaResponse.fromEntity(reserva2), ReservaResponse.fromEntity(reserva3));
 
-        when(repository.findAll()).thenReturn(reservas);
+        when(repository.buscarPagina(null, null, null, null, null, Limit.of(50))).thenReturn(reservas);
 
-        List<ReservaResponse> resultado = service.listarReservas();
+        List<ReservaResponse> resultado = service.listarReservas(new ReservaFiltro());
 
         assertEquals(3, resultado.size());
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).buscarPagina(null, null, null, null, null, Limit.of(50));
         verifyNoMoreInteractions(repository);
     }
 
     @Test
-    public void listarReservas_deveRetornarListaVaziaELancarException_quandoNaoHouverReservas() {
-        List<Reservas> listaVazia = Collections.emptyList();
+    public void listarReservas_deveRetornarListaVazia_quandoNaoHouverReservasNaPagina() {
+        when(repository.buscarPagina(any(), any(), any(), any(), any(), any(Limit.class))).thenReturn(List.of());
 
-        when(repository.findAll()).thenReturn(listaVazia);
+        List<ReservaResponse> resultado = service.listarReservas(new ReservaFiltro());
 
-        assertThatThrownBy(() -> service.listarReservas())
-                .isInstanceOf(NoSuchElementException.class)
-                .hasMessage("Nenhuma reserva encontrada no sistema.");
+        assertThat(resultado).isEmpty();
+    }
 
-        verify(repository, times(1)).findAll();
-        verifyNoMoreInteractions(repository);
+    @Test
+    public void listarReservas_deveRepassarFiltrosECursor_quandoInformados() {
+        var filtro = ReservaFiltro.builder()
+                .after(120)
+                .limit(10)
+                .de(LocalDate.of(2025, 1, 1))
+                .ate(LocalDate.of(2025, 1, 31))
+                .hospedeId(7)
+                .situacao(true)
+                .build();
+
+        when(repository.buscarPagina(any(), any(), any(), any(), any(), any(Limit.class))).thenReturn(List.of());
+
+        service.listarReservas(filtro);
+
+        verify(repository).buscarPagina(120, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                7, true, Limit.of(10));
+        verify(repository, never()).findAll();
     }
 
     @Test
@@ -147,26 +209,26 @@ public class ReservaServiceTest {
         reserva.setCheckin(LocalDate.now());
         reserva.setCheckout(LocalDate.now().plusDays(2));
 
-        when(repository.findById(1)).thenReturn(Optional.of(reserva));
+        when(repository.buscarResponsePorId(1)).thenReturn(Optional.of(ReservaResponse.fromEntity(reserva)));
 
         var reservaProcurada = service.buscarReservaPorId(1);
 
         assertNotNull(reservaProcurada);
         assertEquals(1, reservaProcurada.getId());
 
-        verify(repository, times(1)).findById(1);
+        verify(repository, times(1)).buscarResponsePorId(1);
         verifyNoMoreInteractions(repository);
     }
 
     @Test
     public void buscarReservaPorId_deveLancarException_quandoNaoEncontrarReservaPeloId() {
-        when(repository.findById(1)).thenReturn(Optional.empty());
+        when(repository.buscarResponsePorId(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.buscarReservaPorId(1))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Reserva não encontrada");
 
-        verify(repository, times(1)).findById(1);
+        verify(repository, times(1)).buscarResponsePorId(1);
     }
 
     @Test
@@ -182,6 +244,7 @@ public class ReservaServiceTest {
         quarto1.setId(1);
         quarto1.setNumero(1);
         quarto1.setQtdHospedes(4);
+        quarto1.setValor(BigDecimal.valueOf(200));
         quarto1.setDisponibilidade(true);
         quarto1.setTipoQuarto(ETipoQuarto.EXECUTIVO);
 
@@ -204,7 +267,9 @@ public class ReservaServiceTest {
         var responseEsperada = ReservaResponse.fromEntity(reservaEsperada);
         
         when(hospedeRepository.findById(hospede1.getId())).thenReturn(Optional.of(hospede1));
-        when(quartoRepository.findById(quarto1.getId())).thenReturn(Optional.of(quarto1));
+        when(quartoRepository.findByIdParaReserva(quarto1.getId())).thenReturn(Optional.of(quarto1));
+        when(calendario.estaLivre(quarto1.getId(), request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(calendario.ocupar(quarto1.getId(), request.getCheckin(), request.getCheckout())).thenReturn(true);
         when(repository.save(any(Reservas.class))).thenReturn(reservaEsperada);
 
         var resultado = service.cadastrarReserva(request);
@@ -217,11 +282,14 @@ public class ReservaServiceTest {
         assertThat(resultado.getSituacao()).isTrue();
 
         verify(hospedeRepository).findById(hospede1.getId());
-        verify(quartoRepository).findById(quarto1.getId());
-        verify(quartoRepository).save(quarto1);
+        verify(quartoRepository).findByIdParaReserva(quarto1.getId());
+        verify(quartoRepository, never()).save(any(Quarto.class));
         verify(repository).save(any(Reservas.class));
+        verify(calendario).ocupar(quarto1.getId(), request.getCheckin(), request.getCheckout());
+        verify(outbox).registrar(ETipoEventoReserva.CRIADA, List.of(resultado));
 
-        assertThat(quarto1.getDisponibilidade()).isFalse();
+        // O quarto não é gravado pela reserva: a disponibilidade sai do calendário
+        assertThat(quarto1.getDisponibilidade()).isTrue();
     }
 
     @Test
@@ -269,13 +337,13 @@ public class ReservaServiceTest {
         hospede.setId(1);
 
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
-        when(quartoRepository.findById(1)).thenReturn(Optional.empty());
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.cadastrarReserva(request))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Quarto não encontrado");
 
-        verify(quartoRepository).findById(1);
+        verify(quartoRepository).findByIdParaReserva(1);
         verifyNoInteractions(repository);
         verify(repository, never()).save(any(Reservas.class));
     }
@@ -296,7 +364,7 @@ public class ReservaServiceTest {
         quarto.setId(1);
 
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
-        when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
 
         assertThatThrownBy(() -> service.cadastrarReserva(request))
                 .isInstanceOf(ValidacaoException.class)
@@ -320,10 +388,10 @@ public class ReservaServiceTest {
 
         var quarto = new Quarto();
         quarto.setId(1);
-        quarto.setDisponibilidade(false);
 
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
-        when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(false);
 
         assertThatThrownBy(() -> service.cadastrarReserva(request))
                 .isInstanceOf(DisponibilidadeException.class)
@@ -331,6 +399,66 @@ public class ReservaServiceTest {
 
         verifyNoInteractions(repository);
         verify(repository, never()).save(any(Reservas.class));
+        verify(calendario, never()).ocupar(any(), any(), any());
+    }
+
+    @Test
+    public void cadastrarReserva_deveLancarException_quandoPeriodoFoiOcupadoPorOutraReserva() {
+        var request = new ReservaRequest();
+        request.setCheckin(LocalDate.now().plusDays(1));
+        request.setCheckout(LocalDate.now().plusDays(3));
+        request.setQtdHospedes(1);
+        request.setHospedeId(1);
+        request.setQuartoId(1);
+
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+
+        when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(repository.existsSobreposicao(1, request.getCheckin(), request.getCheckout(), null)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.cadastrarReserva(request))
+                .isInstanceOf(DisponibilidadeException.class)
+                .hasMessage("O quarto não está disponível para reserva.");
+
+        verify(repository, never()).save(any(Reservas.class));
+        verify(quartoRepository, never()).save(any(Quarto.class));
+        verify(calendario, never()).ocupar(any(), any(), any());
+    }
+
+    @Test
+    public void cadastrarReserva_deveLiberarCalendario_quandoFalharAoSalvar() {
+        var request = new ReservaRequest();
+        request.setCheckin(LocalDate.now().plusDays(1));
+        request.setCheckout(LocalDate.now().plusDays(3));
+        request.setQtdHospedes(1);
+        request.setHospedeId(1);
+        request.setQuartoId(1);
+
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+        quarto.setValor(BigDecimal.valueOf(100));
+
+        when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(calendario.ocupar(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(repository.save(any(Reservas.class))).thenThrow(new IllegalStateException("falha ao gravar"));
+
+        assertThatThrownBy(() -> service.cadastrarReserva(request))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(calendario).liberar(1, request.getCheckin(), request.getCheckout());
     }
 
     @Test
@@ -350,7 +478,8 @@ public class ReservaServiceTest {
         quarto.setQtdHospedes(1);
 
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
-        when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
 
         assertThatThrownBy(() -> service.cadastrarReserva(request))
                 .isInstanceOf(ValidacaoException.class)
@@ -360,6 +489,92 @@ public class ReservaServiceTest {
         verify(repository, never()).save(any(Reservas.class));
     }
 
+    @Test
+    public void cadastrarReservasEmLote_deveGravarTodasDeUmaVez_quandoLoteValido() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto1 = new Quarto();
+        quarto1.setId(1);
+        quarto1.setQtdHospedes(2);
+        quarto1.setValor(BigDecimal.valueOf(150));
+
+        var quarto2 = new Quarto();
+        quarto2.setId(2);
+        quarto2.setQtdHospedes(2);
+        quarto2.setValor(BigDecimal.valueOf(215));
+
+        var checkin = LocalDate.now().plusDays(1);
+        var requests = List.of(
+                new ReservaRequest(checkin, checkin.plusDays(2), 1, 1, 2),
+                new ReservaRequest(checkin, checkin.plusDays(2), 1, 2, 1),
+                new ReservaRequest(checkin.plusDays(2), checkin.plusDays(4), 1, 1, 1));
+
+        when(quartoRepository.findAllByIdParaReserva(Set.of(1, 2))).thenReturn(List.of(quarto1, quarto2));
+        when(hospedeRepository.findAllById(Set.of(1))).thenReturn(List.of(hospede));
+        when(calendario.estaLivre(anyInt(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
+        when(calendario.ocupar(anyInt(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var resultado = service.cadastrarReservasEmLote(requests);
+
+        assertThat(resultado).hasSize(3);
+        assertThat(resultado.get(0).getValorTotalReserva()).isEqualByComparingTo("300");
+        assertThat(resultado.get(1).getValorTotalReserva()).isEqualByComparingTo("430");
+        // O quarto não é gravado pela reserva: a disponibilidade sai do calendário
+        assertThat(quarto1.getDisponibilidade()).isNull();
+        assertThat(quarto2.getDisponibilidade()).isNull();
+
+        verify(repository, times(1)).saveAll(anyList());
+        verify(repository, never()).save(any(Reservas.class));
+        verify(calendario, times(3)).ocupar(anyInt(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    public void cadastrarReservasEmLote_naoDeveGravarNada_quandoReservasDoLoteSeSobrepoem() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+        quarto.setValor(BigDecimal.valueOf(150));
+
+        var checkin = LocalDate.now().plusDays(1);
+        var requests = List.of(
+                new ReservaRequest(checkin, checkin.plusDays(3), 1, 1, 1),
+                new ReservaRequest(checkin.plusDays(2), checkin.plusDays(4), 1, 1, 1));
+
+        when(quartoRepository.findAllByIdParaReserva(Set.of(1))).thenReturn(List.of(quarto));
+        when(hospedeRepository.findAllById(Set.of(1))).thenReturn(List.of(hospede));
+        when(calendario.estaLivre(anyInt(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> service.cadastrarReservasEmLote(requests))
+                .isInstanceOf(DisponibilidadeException.class)
+                .hasMessage("Reserva 2: O quarto não está disponível para reserva.");
+
+        verify(repository, never()).saveAll(anyList());
+        verify(calendario, never()).ocupar(anyInt(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    public void cadastrarReservasEmLote_deveLancarException_quandoQuartoDoLoteNaoExiste() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var checkin = LocalDate.now().plusDays(1);
+        var requests = List.of(new ReservaRequest(checkin, checkin.plusDays(1), 1, 99, 1));
+
+        when(quartoRepository.findAllByIdParaReserva(Set.of(99))).thenReturn(List.of());
+        when(hospedeRepository.findAllById(Set.of(1))).thenReturn(List.of(hospede));
+
+        assertThatThrownBy(() -> service.cadastrarReservasEmLote(requests))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessage("Reserva 1: Quarto não encontrado");
+
+        verify(repository, never()).saveAll(anyList());
+    }
+
     @Test
     public void atualizarReserva_deveAtualizarReserva_quandoSolicitado(){
         var request = new ReservaRequest();
@@ -383,73 +598,272 @@ public class ReservaServiceTest {
         quartoNovo.setId(2);
         quartoNovo.setDisponibilidade(true);
         quartoNovo.setQtdHospedes(4);
+        quartoNovo.setValor(BigDecimal.valueOf(200));
 
-        var reservaAtualizada = new Reservas();
-        reservaAtualizada.setId(1);
-        reservaAtualizada.setCheckin(request.getCheckin());
-        reservaAtualizada.setCheckout(request.getCheckout());
-        reservaAtualizada.setQtdHospedes(request.getQtdHospedes());
-        reservaAtualizada.setQuarto(quartoNovo);
-
-        when(repository.findById(1)).thenReturn(Optional.of(reservaAtual));
-        when(quartoRepository.findById(2)).thenReturn(Optional.of(quartoNovo));
-        when(repository.save(any(Reservas.class))).thenReturn(reservaAtualizada);
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quartoAntigo, quartoNovo);
 
         var response = service.atualizarReserva(1, request);
 
         assertThat(response.getCheckin()).isEqualTo(request.getCheckin());
         assertThat(response.getCheckout()).isEqualTo(request.getCheckout());
         assertThat(response.getQtdHospedes()).isEqualTo(request.getQtdHospedes());
+        // Três noites no quarto novo, cotadas pela tabela de tarifas
+        assertThat(response.getValorTotalReserva()).isEqualByComparingTo("600");
+
+        // Origem e destino travados na aplicação e no banco antes de ler a reserva
+        var ordem = inOrder(travas, quartoRepository, repository);
+        ordem.verify(travas).executar(eq(Set.of(1, 2)), any());
+        ordem.verify(quartoRepository).findAllByIdParaReserva(Set.of(1, 2));
+        ordem.verify(repository).buscarParaAlteracao(1);
+        verify(quartoRepository, never()).findById(any());
+
+        // Reserva e quartos estão na sessão: as alterações vão no flush do commit, sem save
+        verify(quartoRepository, never()).save(any(Quarto.class));
+        verify(repository, never()).save(any(Reservas.class));
 
-        verify(repository).findById(1);
-        verify(quartoRepository).findById(2);
-        verify(quartoRepository).save(quartoAntigo);
-        verify(quartoRepository).save(quartoNovo);
-        verify(repository).save(any(Reservas.class));
+        assertThat(response.getQuarto().getId()).isEqualTo(2);
+        assertThat(reservaAtual.getQuarto()).isSameAs(quartoNovo);
+        // O quarto não é gravado pela reserva: a disponibilidade sai do calendário
+        assertThat(quartoAntigo.getDisponibilidade()).isFalse();
+        assertThat(quartoNovo.getDisponibilidade()).isTrue();
+    }
+
+    @Test
+    public void atualizarReserva_deveRecotarOValor_quandoOPeriodoMudar() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+        quarto.setTipoQuarto(ETipoQuarto.DOUBLE);
+        quarto.setValor(BigDecimal.valueOf(150));
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setSituacao(true);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+        reservaAtual.setValorTotal(BigDecimal.valueOf(300));
+
+        var checkinAnterior = reservaAtual.getCheckin();
+        var checkoutAnterior = reservaAtual.getCheckout();
+
+        var request = new ReservaRequest();
+        request.setCheckout(LocalDate.now().plusDays(5));
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+        when(calendario.remarcar(1, checkinAnterior, checkoutAnterior,
+                1, checkinAnterior, request.getCheckout())).thenReturn(true);
+
+        var response = service.atualizarReserva(1, request);
+
+        // Quatro noites em vez de duas, cotadas de novo em vez de manter o valor antigo
+        verify(tarifas).valorTotal(quarto, checkinAnterior, request.getCheckout());
+        assertThat(response.getValorTotalReserva()).isEqualByComparingTo("600");
+        assertThat(reservaAtual.getValorTotal()).isEqualByComparingTo("600");
+        // O relatório tira o valor antigo das noites antigas e soma o novo
+        verify(ocupacao).remarcar(ETipoQuarto.DOUBLE, checkinAnterior, checkoutAnterior,
+                BigDecimal.valueOf(300), reservaAtual);
+    }
+
+    @Test
+    public void atualizarReserva_deveManterOValor_quandoSoAQuantidadeDeHospedesMudar() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(4);
+        quarto.setValor(BigDecimal.valueOf(150));
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+        reservaAtual.setValorTotal(BigDecimal.valueOf(280));
+
+        var request = new ReservaRequest();
+        request.setQtdHospedes(3);
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+
+        var response = service.atualizarReserva(1, request);
+
+        assertThat(response.getValorTotalReserva()).isEqualByComparingTo("280");
+        verify(tarifas, never()).valorTotal(any(), any(), any());
+    }
+
+    @Test
+    public void atualizarReserva_deveLancarException_quandoNovoPeriodoOcupado() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setDisponibilidade(false);
+        quarto.setValor(new BigDecimal("150.00"));
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setSituacao(true);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+
+        var checkinAnterior = reservaAtual.getCheckin();
+        var checkoutAnterior = reservaAtual.getCheckout();
+
+        var request = new ReservaRequest();
+        request.setCheckin(LocalDate.now().plusDays(10));
+        request.setCheckout(LocalDate.now().plusDays(12));
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+        when(calendario.remarcar(1, checkinAnterior, checkoutAnterior,
+                1, request.getCheckin(), request.getCheckout())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.atualizarReserva(1, request))
+                .isInstanceOf(DisponibilidadeException.class)
+                .hasMessage("O quarto não está disponível para o período selecionado.");
+
+        verify(repository, never()).save(any(Reservas.class));
+        verify(quartoRepository, never()).save(any(Quarto.class));
+    }
+
+    @Test
+    public void atualizarReserva_deveDesfazerRemarcacao_quandoFalharAoSalvar() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setValor(BigDecimal.valueOf(100));
+        quarto.setDisponibilidade(false);
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setSituacao(true);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+
+        var checkinAnterior = reservaAtual.getCheckin();
+        var checkoutAnterior = reservaAtual.getCheckout();
+
+        var request = new ReservaRequest();
+        request.setCheckin(LocalDate.now().plusDays(10));
+        request.setCheckout(LocalDate.now().plusDays(12));
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+        when(calendario.remarcar(1, checkinAnterior, checkoutAnterior,
+                1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        gerenciador.falharNoCommit(new IllegalStateException("falha ao gravar"));
+
+        assertThatThrownBy(() -> service.atualizarReserva(1, request))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(calendario).remarcar(1, request.getCheckin(), request.getCheckout(),
+                1, checkinAnterior, checkoutAnterior);
+    }
 
-        assertThat(quartoAntigo.getDisponibilidade()).isTrue();
-        assertThat(quartoNovo.getDisponibilidade()).isFalse();
+    @Test
+    public void atualizarReserva_deveRepetir_quandoReservaAlteradaPorOutraRequisicao() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setValor(BigDecimal.valueOf(100));
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+
+        var request = new ReservaRequest();
+        request.setCheckout(LocalDate.now().plusDays(4));
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+        gerenciador.falharNoCommit(new ObjectOptimisticLockingFailureException(Reservas.class, 1));
+
+        var response = service.atualizarReserva(1, request);
+
+        assertThat(response.getCheckout()).isEqualTo(request.getCheckout());
+        verify(repository, times(2)).buscarParaAlteracao(1);
+    }
+
+    @Test
+    public void atualizarReserva_deveRepetir_quandoQuartoTrocadoAntesDasTravas() {
+        var quartoLido = new Quarto();
+        quartoLido.setId(1);
+
+        var quartoAtual = new Quarto();
+        quartoAtual.setId(2);
+        quartoAtual.setValor(BigDecimal.valueOf(100));
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setQuarto(quartoAtual);
+        reservaAtual.setCheckin(LocalDate.now().plusDays(1));
+        reservaAtual.setCheckout(LocalDate.now().plusDays(3));
+
+        var request = new ReservaRequest();
+        request.setCheckout(LocalDate.now().plusDays(4));
+
+        // Entre a leitura do quarto e as travas, outra alteração levou a reserva para o quarto 2
+        when(repository.buscarQuartoId(1)).thenReturn(Optional.of(1), Optional.of(2));
+        when(quartoRepository.findAllByIdParaReserva(anyCollection()))
+                .thenReturn(List.of(quartoLido), List.of(quartoAtual));
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+
+        var response = service.atualizarReserva(1, request);
+
+        assertThat(response.getCheckout()).isEqualTo(request.getCheckout());
+        verify(travas).executar(eq(Set.of(1)), any());
+        verify(travas).executar(eq(Set.of(2)), any());
     }
 
     @Test
     public void atualizarReserva_deveLancarException_quandoQuartoNaoEncontrado() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+
         var reservaExistente = new Reservas();
         reservaExistente.setId(1);
+        reservaExistente.setQuarto(quarto);
 
         var request = new ReservaRequest();
         request.setQtdHospedes(3);
         request.setQuartoId(20);
 
-        when(repository.findById(1)).thenReturn(Optional.of(reservaExistente));
-        when(quartoRepository.findById(20)).thenReturn(Optional.empty());
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaExistente));
+        quartosDaAlteracao(1, quarto);
 
         assertThatThrownBy(() -> service.atualizarReserva(1, request))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Quarto não encontrado");
 
-        verify(repository).findById(1);
-        verify(quartoRepository).findById(20);
+        verify(repository).buscarParaAlteracao(1);
+        verify(quartoRepository).findAllByIdParaReserva(Set.of(1, 20));
         verify(repository, never()).save(any());
     }
 
     @Test
     public void atualizarReserva_deveLancarException_quandoQuartoIndisponivel() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+
         var reservaExistente = new Reservas();
         reservaExistente.setId(1);
+        reservaExistente.setQuarto(quarto);
 
         var request = new ReservaRequest();
         request.setQtdHospedes(3);
         request.setQuartoId(20);
 
-        when(repository.findById(1)).thenReturn(Optional.of(reservaExistente));
-        when(quartoRepository.findById(20)).thenReturn(Optional.empty());
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaExistente));
+        quartosDaAlteracao(1, quarto);
 
         assertThatThrownBy(() -> service.atualizarReserva(1, request))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Quarto não encontrado");
 
-        verify(repository).findById(1);
-        verify(quartoRepository).findById(20);
+        verify(repository).buscarParaAlteracao(1);
+        verify(quartoRepository).findAllByIdParaReserva(Set.of(1, 20));
         verify(repository, never()).save(any());
     }
 
@@ -468,15 +882,17 @@ public class ReservaServiceTest {
         quarto.setId(1);
         quarto.setQtdHospedes(1);
 
-        when(repository.findById(1)).thenReturn(Optional.of(reservaExistente));
-        when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
+        reservaExistente.setQuarto(quarto);
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaExistente));
+        quartosDaAlteracao(1, quarto);
 
         assertThatThrownBy(() -> service.atualizarReserva(1, request))
                 .isInstanceOf(ValidacaoException.class)
                 .hasMessageContaining("capacidade");
 
-        verify(repository).findById(1);
-        verify(quartoRepository).findById(1);
+        verify(repository).buscarParaAlteracao(1);
+        verify(quartoRepository).findAllByIdParaReserva(Set.of(1));
         verify(repository, never()).save(any());
     }
 
@@ -500,9 +916,11 @@ public class ReservaServiceTest {
         reservaExistente.setCheckin(LocalDate.now().plusDays(2));
         reservaExistente.setCheckout(LocalDate.now().plusDays(4));
 
-        when(repository.findById(1)).thenReturn(Optional.of(reservaExistente));
+        reservaExistente.setQuarto(quarto);
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaExistente));
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
-        when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
+        quartosDaAlteracao(1, quarto);
 
         assertThatThrownBy(() -> service.atualizarReserva(1, request))
                 .isInstanceOf(ValidacaoException.class)
@@ -511,6 +929,35 @@ public class ReservaServiceTest {
         verify(repository, never()).save(any(Reservas.class));
     }
 
+    @Test
+    public void atualizarReserva_deveLancarException_quandoReservaFinalizada() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(4);
+
+        var reservaAtual = new Reservas();
+        reservaAtual.setId(1);
+        reservaAtual.setSituacao(true);
+        reservaAtual.setFinalizada(true);
+        reservaAtual.setQuarto(quarto);
+        reservaAtual.setCheckin(LocalDate.now().minusDays(4));
+        reservaAtual.setCheckout(LocalDate.now().minusDays(2));
+
+        var request = new ReservaRequest();
+        request.setQtdHospedes(2);
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reservaAtual));
+        quartosDaAlteracao(1, quarto);
+
+        assertThatThrownBy(() -> service.atualizarReserva(1, request))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Não é possível alterar reservas já finalizadas");
+
+        assertThat(reservaAtual.getQtdHospedes()).isNull();
+        verify(calendario, never()).remarcar(any(), any(), any(), any(), any(), any());
+        verify(outbox, never()).registrar(any(), anyList());
+    }
+
     @Test
     public void cancelarReserva_deveCancelarReserva_quandoSolicitado() {
         var quarto = new Quarto();
@@ -523,15 +970,7 @@ public class ReservaServiceTest {
         reserva.setCheckout(LocalDate.now().plusDays(5));
         reserva.setQuarto(quarto);
 
-        var reservaCancelada = new Reservas();
-        reservaCancelada.setId(1);
-        reservaCancelada.setSituacao(false);
-        reservaCancelada.setCheckout(LocalDate.now().plusDays(5));
-        reservaCancelada.setQuarto(quarto);
-
-        when(repository.findById(1)).thenReturn(Optional.of(reserva));
-        when(repository.save(reserva)).thenReturn(reservaCancelada);
-        when(quartoRepository.save(quarto)).thenReturn(quarto);
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reserva));
 
         ResponseEntity<CancelamentoResponse> result = service.cancelarReserva(1);
 
@@ -539,22 +978,51 @@ public class ReservaServiceTest {
 
         assertThat(reserva.getSituacao()).isFalse();
 
-        assertThat(quarto.getDisponibilidade()).isTrue();
+        // O quarto não é gravado pela reserva: a disponibilidade sai do calendário
+        assertThat(quarto.getDisponibilidade()).isFalse();
 
-        verify(repository).findById(1);
-        verify(repository).save(reserva);
-        verify(quartoRepository).save(quarto);
+        verify(repository).buscarParaAlteracao(1);
+        verify(repository, never()).save(any(Reservas.class));
+        verify(quartoRepository, never()).save(any(Quarto.class));
+        verify(calendario).liberar(1, null, reserva.getCheckout());
+        verify(outbox).registrar(eq(ETipoEventoReserva.CANCELADA), anyList());
+    }
+
+    @Test
+    public void cancelarReserva_deveDesistir_quandoConflitoPersistirAposTodasAsTentativas() {
+        // Cada tentativa lê a reserva de novo, como numa sessão nova depois do rollback
+        when(repository.buscarParaAlteracao(1)).thenAnswer(invocation -> {
+            var quarto = new Quarto();
+            quarto.setId(1);
+
+            var reserva = new Reservas();
+            reserva.setId(1);
+            reserva.setSituacao(true);
+            reserva.setCheckout(LocalDate.now().plusDays(5));
+            reserva.setQuarto(quarto);
+            return Optional.of(reserva);
+        });
+        gerenciador.falharNoCommit(
+                new ObjectOptimisticLockingFailureException(Quarto.class, 1),
+                new ObjectOptimisticLockingFailureException(Quarto.class, 1),
+                new ObjectOptimisticLockingFailureException(Quarto.class, 1));
+
+        assertThatThrownBy(() -> service.cancelarReserva(1))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        verify(repository, times(3)).buscarParaAlteracao(1);
+        verify(calendario, never()).liberar(any(), any(), any());
     }
 
     @Test
     public void cancelarReserva_deveLancarException_quandoNaoEncontrarReserva() {
-        when(repository.findById(1)).thenReturn(Optional.empty());
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.cancelarReserva(1))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Reserva não encontrada");
 
-        verify(repository, times(1)).findById(1);
+        verify(repository, times(1)).buscarParaAlteracao(1);
     }
 
     @Test
@@ -574,7 +1042,7 @@ public class ReservaServiceTest {
         reserva.setCheckout(LocalDate.now().plusDays(3));
         reserva.setQtdHospedes(1);
 
-        when(repository.findById(1)).thenReturn(Optional.of(reserva));
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reserva));
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
         when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
 
@@ -583,6 +1051,7 @@ public class ReservaServiceTest {
                 .hasMessage("Reserva já está cancelada");
 
         verify(repository, never()).save(reserva);
+        verify(outbox, never()).registrar(any(), anyList());
     }
 
     @Test
@@ -602,7 +1071,7 @@ public class ReservaServiceTest {
         reserva.setCheckout(LocalDate.now().minusDays(3));
         reserva.setQtdHospedes(1);
 
-        when(repository.findById(1)).thenReturn(Optional.of(reserva));
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reserva));
         when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
         when(quartoRepository.findById(1)).thenReturn(Optional.of(quarto));
 
@@ -612,4 +1081,170 @@ public class ReservaServiceTest {
 
         verify(repository, never()).save(reserva);
     }
+
+    @Test
+    public void cancelarReserva_deveLancarException_quandoReservaFinalizada() {
+        var quarto = new Quarto();
+        quarto.setId(1);
+
+        var reserva = new Reservas();
+        reserva.setId(1);
+        reserva.setSituacao(true);
+        reserva.setFinalizada(true);
+        reserva.setQuarto(quarto);
+        reserva.setCheckin(LocalDate.now().minusDays(2));
+        reserva.setCheckout(LocalDate.now());
+
+        when(repository.buscarParaAlteracao(1)).thenReturn(Optional.of(reserva));
+
+        assertThatThrownBy(() -> service.cancelarReserva(1))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Não é possível cancelar reservas já finalizadas");
+
+        assertThat(reserva.getSituacao()).isTrue();
+        verify(calendario, never()).liberar(any(), any(), any());
+    }
+
+    @Test
+    public void cadastrarPreReserva_deveOcuparOQuartoEAgendarAExpiracao() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+        quarto.setValor(BigDecimal.valueOf(100));
+        quarto.setDisponibilidade(true);
+
+        var request = PreReservaRequest.builder()
+                .checkin(LocalDate.now().plusDays(1))
+                .checkout(LocalDate.now().plusDays(3))
+                .hospedeId(1)
+                .quartoId(1)
+                .qtdHospedes(2)
+                .segundos(60)
+                .build();
+        var expiraEm = LocalDateTime.now(ZoneOffset.UTC).plusSeconds(60);
+
+        when(expiracao.vencimento(60)).thenReturn(expiraEm);
+        when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(calendario.ocupar(1, request.getCheckin(), request.getCheckout())).thenReturn(true);
+        when(preReservaRepository.save(any(PreReserva.class))).thenAnswer(invocation -> {
+            PreReserva preReserva = invocation.getArgument(0);
+            preReserva.setId(7);
+            return preReserva;
+        });
+
+        var resultado = service.cadastrarPreReserva(request);
+
+        assertThat(resultado.getId()).isEqualTo(7);
+        assertThat(resultado.getValorTotal()).isEqualByComparingTo("200");
+        assertThat(resultado.getExpiraEm()).isEqualTo(expiraEm.toInstant(ZoneOffset.UTC));
+
+        verify(calendario).ocupar(1, request.getCheckin(), request.getCheckout());
+        verify(expiracao).agendar(argThat(preReserva -> preReserva.getId() == 7));
+        verify(repository, never()).save(any(Reservas.class));
+        verifyNoInteractions(outbox);
+
+        // A pré-reserva não mexe na disponibilidade do quarto
+        assertThat(quarto.getDisponibilidade()).isTrue();
+    }
+
+    @Test
+    public void cadastrarPreReserva_deveLancarException_quandoQuartoOcupado() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setQtdHospedes(2);
+
+        var request = PreReservaRequest.builder()
+                .checkin(LocalDate.now().plusDays(1))
+                .checkout(LocalDate.now().plusDays(3))
+                .hospedeId(1)
+                .quartoId(1)
+                .qtdHospedes(1)
+                .build();
+
+        when(expiracao.vencimento(null)).thenReturn(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(15));
+        when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(calendario.estaLivre(1, request.getCheckin(), request.getCheckout())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.cadastrarPreReserva(request))
+                .isInstanceOf(DisponibilidadeException.class);
+
+        verify(preReservaRepository, never()).save(any(PreReserva.class));
+        verify(expiracao, never()).agendar(any());
+    }
+
+    @Test
+    public void confirmarPreReserva_deveCriarReservaComOValorCotado() {
+        var hospede = new Hospede();
+        hospede.setId(1);
+
+        var quarto = new Quarto();
+        quarto.setId(1);
+        quarto.setValor(BigDecimal.valueOf(500));
+        quarto.setDisponibilidade(true);
+
+        var preReserva = new PreReserva();
+        preReserva.setId(7);
+        preReserva.setHospedeId(1);
+        preReserva.setQuartoId(1);
+        preReserva.setCheckin(LocalDate.now().plusDays(1));
+        preReserva.setCheckout(LocalDate.now().plusDays(3));
+        preReserva.setQtdHospedes(2);
+        preReserva.setValorTotal(new BigDecimal("200.00"));
+        preReserva.setExpiraEm(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5));
+
+        when(preReservaRepository.findByIdParaConfirmar(7)).thenReturn(Optional.of(preReserva));
+        when(quartoRepository.findByIdParaReserva(1)).thenReturn(Optional.of(quarto));
+        when(hospedeRepository.findById(1)).thenReturn(Optional.of(hospede));
+        when(repository.save(any(Reservas.class))).thenAnswer(invocation -> {
+            Reservas reserva = invocation.getArgument(0);
+            reserva.setId(1);
+            return reserva;
+        });
+
+        var resultado = service.confirmarPreReserva(7);
+
+        assertThat(resultado.getValorTotalReserva()).isEqualByComparingTo("200.00");
+        assertThat(resultado.getCheckin()).isEqualTo(preReserva.getCheckin());
+        assertThat(resultado.getSituacao()).isTrue();
+        // O quarto não é gravado pela reserva: a disponibilidade sai do calendário
+        assertThat(quarto.getDisponibilidade()).isTrue();
+
+        verify(preReservaRepository).delete(preReserva);
+        verify(expiracao).cancelar(7);
+        verify(outbox).registrar(ETipoEventoReserva.CRIADA, List.of(resultado));
+        // As noites já estavam ocupadas pela pré-reserva
+        verifyNoInteractions(calendario);
+    }
+
+    @Test
+    public void confirmarPreReserva_deveLancarException_quandoExpirada() {
+        var preReserva = new PreReserva();
+        preReserva.setId(7);
+        preReserva.setQuartoId(1);
+        preReserva.setExpiraEm(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(1));
+
+        when(preReservaRepository.findByIdParaConfirmar(7)).thenReturn(Optional.of(preReserva));
+
+        assertThatThrownBy(() -> service.confirmarPreReserva(7))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("A pré-reserva expirou");
+
+        verify(preReservaRepository, never()).delete(any(PreReserva.class));
+        verify(repository, never()).save(any(Reservas.class));
+    }
+
+    // Quarto atual da reserva 1, lido antes das travas, e os quartos devolvidos pelo lock
+    private void quartosDaAlteracao(Integer quartoAtualId, Quarto... travados) {
+        when(repository.buscarQuartoId(1)).thenReturn(Optional.of(quartoAtualId));
+        when(quartoRepository.findAllByIdParaReserva(anyCollection())).thenReturn(List.of(travados));
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.hotel.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RetentativaOtimistaTest {
+
+    private SimpleMeterRegistry registry;
+
+    private RetentativaOtimista retentativa;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        retentativa = new RetentativaOtimista(registry, 3, 1);
+    }
+
+    @Test
+    void executar_deveRepetirAteConseguir_quandoHouverConflitoDeVersao() {
+        var chamadas = new AtomicInteger();
+
+        var resultado = retentativa.executar("atualizar", () -> {
+            if (chamadas.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, chamadas.get());
+        assertEquals(2.0, registry.get("reservas.retentativas").tag("operacao", "atualizar").counter().count());
+    }
+
+    @Test
+    void executar_deveRelancarConflito_quandoAcabaremAsTentativas() {
+        var chamadas = new AtomicInteger();
+
+        assertThatThrownBy(() -> retentativa.executar("cancelar", () -> {
+            chamadas.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Object.class, 1);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertEquals(3, chamadas.get());
+        assertEquals(2.0, registry.get("reservas.retentativas").tag("operacao", "cancelar").counter().count());
+    }
+
+    @Test
+    void executar_naoDeveRepetir_quandoErroNaoForConflitoDeVersao() {
+        var chamadas = new AtomicInteger();
+
+        assertThatThrownBy(() -> retentativa.executar("atualizar", () -> {
+            chamadas.incrementAndGet();
+            throw new DataIntegrityViolationException("cpf duplicado");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertEquals(1, chamadas.get());
+        assertEquals(0, registry.find("reservas.retentativas").counters().size());
+    }
+}
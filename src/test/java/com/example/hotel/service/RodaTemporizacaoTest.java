@@ -0,0 +1,122 @@
+package com.example.hotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RodaTemporizacaoTest {
+
+    private static final long TIQUE = 1_000;
+
+    @Test
+    void avancar_deveVencerNoPrimeiroTiqueEmOuDepoisDoPrazo() {
+        var roda = new RodaTemporizacao<String>(TIQUE, 10_000);
+        roda.agendar(12_000, "exato");
+        roda.agendar(12_001, "quebrado");
+        List<String> vencidos = new ArrayList<>();
+
+        roda.avancar(11_999, vencidos::add);
+        assertThat(vencidos).isEmpty();
+
+        roda.avancar(12_000, vencidos::add);
+        assertThat(vencidos).containsExactly("exato");
+
+        roda.avancar(12_999, vencidos::add);
+        assertThat(vencidos).containsExactly("exato");
+
+        roda.avancar(13_000, vencidos::add);
+        assertThat(vencidos).containsExactly("exato", "quebrado");
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    void agendar_deveVencerNoProximoTique_quandoPrazoJaPassou() {
+        var roda = new RodaTemporizacao<String>(TIQUE, 10_000);
+        roda.agendar(5_000, "atrasado");
+        List<String> vencidos = new ArrayList<>();
+
+        roda.avancar(11_000, vencidos::add);
+
+        assertThat(vencidos).containsExactly("atrasado");
+    }
+
+    @Test
+    void cancelar_deveTirarDaRoda() {
+        var roda = new RodaTemporizacao<String>(TIQUE, 0);
+        var cancelado = roda.agendar(500_000, "cancelado");
+        roda.agendar(500_000, "mantido");
+
+        assertThat(roda.cancelar(cancelado)).isTrue();
+        assertThat(roda.cancelar(cancelado)).isFalse();
+        assertThat(roda.tamanho()).isEqualTo(1);
+
+        List<String> vencidos = new ArrayList<>();
+        roda.avancar(600_000, vencidos::add);
+
+        assertThat(vencidos).containsExactly("mantido");
+    }
+
+    @Test
+    void avancar_deveDescerOsNiveisSemAdiantarNemAtrasarMaisDeUmTique() {
+        long inicio = 1_234_567L * TIQUE;
+        var roda = new RodaTemporizacao<Integer>(TIQUE, inicio);
+        var random = new Random(42);
+        Map<Integer, Long> prazos = new HashMap<>();
+
+        // Prazos espalhados por todos os níveis e além deles
+        for (int i = 0; i < 2_000; i++) {
+            long distancia = (long) Math.pow(2, random.nextDouble() * 26) * TIQUE + random.nextInt(1_000);
+            prazos.put(i, inicio + distancia);
+            roda.agendar(inicio + distancia, i);
+        }
+
+        long fim = inicio + (1L << 26) * TIQUE + 2 * TIQUE;
+        Map<Integer, Long> vencimentos = new HashMap<>();
+        long agora = inicio;
+        while (agora < fim) {
+            // Saltos irregulares, como um relógio que às vezes atrasa
+            agora = Math.min(fim, agora + (1 + random.nextInt(5_000)) * TIQUE);
+            long momento = agora;
+            roda.avancar(momento, item -> vencimentos.put(item, momento));
+        }
+
+        assertThat(vencimentos).hasSize(prazos.size());
+        assertThat(roda.tamanho()).isZero();
+        prazos.forEach((item, prazo) -> {
+            long tiqueDoPrazo = -Math.floorDiv(-prazo, TIQUE);
+            assertThat(vencimentos.get(item)).isGreaterThanOrEqualTo(prazo);
+            // Com avanços de vários tiques, o item vence no avanço que cobre o tique dele
+            assertThat(vencimentos.get(item) / TIQUE).isLessThan(tiqueDoPrazo + 5_001);
+        });
+    }
+
+    @Test
+    void avancar_deveVencerNoTiqueCerto_quandoAvancarUmTiquePorVez() {
+        long inicio = 63 * TIQUE;
+        var roda = new RodaTemporizacao<Long>(TIQUE, inicio);
+        // Prazos em volta das fronteiras entre os níveis
+        long[] distancias = {1, 63, 64, 65, 4_095, 4_096, 4_097, 262_144, 262_145};
+        for (long distancia : distancias) {
+            roda.agendar(inicio + distancia * TIQUE, inicio + distancia * TIQUE);
+        }
+
+        List<Long> erros = new ArrayList<>();
+        for (long tique = 64; tique <= 63 + 262_145; tique++) {
+            long agora = tique * TIQUE;
+            roda.avancar(agora, prazo -> {
+                if (prazo != agora) {
+                    erros.add(prazo);
+                }
+            });
+        }
+
+        assertThat(erros).isEmpty();
+        assertThat(roda.tamanho()).isZero();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.hotel.service;
+
+import com.example.hotel.enums.ETipoQuarto;
+import com.example.hotel.model.PlanoTarifa;
+import com.example.hotel.model.Quarto;
+import com.example.hotel.repository.PlanoTarifaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TabelaTarifasTest {
+
+    // 2030-01-04 é uma sexta-feira
+    private static final LocalDate SEXTA = LocalDate.of(2030, 1, 4);
+
+    @Mock
+    private PlanoTarifaRepository repository;
+
+    private TabelaTarifas tabela;
+
+    private TabelaTarifas.Sincronizacao sincronizacao;
+
+    @BeforeEach
+    void setUp() {
+        tabela = new TabelaTarifas(repository);
+
+        var beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("tabelaTarifas", tabela);
+        sincronizacao = new TabelaTarifas.Sincronizacao(beanFactory.getBeanProvider(TabelaTarifas.class));
+
+        // Janeiro a 200 com fim de semana a 300 e, por cima, uma semana de alta a 400
+        var janeiro = plano(1, ETipoQuarto.DOUBLE, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31), "200", 0);
+        janeiro.getValorPorDiaSemana().put(DayOfWeek.SATURDAY, new BigDecimal("300"));
+        janeiro.getValorPorDiaSemana().put(DayOfWeek.SUNDAY, new BigDecimal("300"));
+        var alta = plano(2, ETipoQuarto.DOUBLE, LocalDate.of(2030, 1, 20), LocalDate.of(2030, 1, 26), "400", 1);
+
+        when(repository.findAllComDiasSemana()).thenReturn(List.of(alta, janeiro));
+        tabela.carregar();
+    }
+
+    @Test
+    void valorTotal_deveUsarOValorDoQuarto_quandoNaoHouverPlanoDoTipo() {
+        var total = tabela.valorTotal(quarto(ETipoQuarto.SINGLE, "150.50"), SEXTA, SEXTA.plusDays(3));
+
+        assertThat(total).isEqualByComparingTo("451.50");
+    }
+
+    @Test
+    void valorTotal_deveAplicarOValorDoDiaDaSemana() {
+        // Sexta a 200, sábado e domingo a 300; a noite de checkout não conta
+        var total = tabela.valorTotal(quarto(ETipoQuarto.DOUBLE, "100"), SEXTA, SEXTA.plusDays(3));
+
+        assertThat(total).isEqualByComparingTo("800");
+    }
+
+    @Test
+    void valorTotal_devePreferirOPlanoDeMaiorPrioridade() {
+        // 19 (sábado, janeiro) a 300, 20 a 26 (alta) a 400, 27 (domingo, janeiro) a 300
+        var total = tabela.valorTotal(quarto(ETipoQuarto.DOUBLE, "100"),
+                LocalDate.of(2030, 1, 19), LocalDate.of(2030, 1, 28));
+
+        assertThat(total).isEqualByComparingTo("3400");
+    }
+
+    @Test
+    void valorTotal_deveUsarOValorDoQuarto_nasNoitesForaDosPlanos() {
+        // 30 e 31 de janeiro pelo plano, 1 e 2 de fevereiro pelo quarto
+        var total = tabela.valorTotal(quarto(ETipoQuarto.DOUBLE, "100"),
+                LocalDate.of(2030, 1, 30), LocalDate.of(2030, 2, 3));
+
+        assertThat(total).isEqualByComparingTo("600");
+    }
+
+    @Test
+    void cotar_deveSomarQuatorzeNoitesEmCentavos() {
+        // 1 a 14 de janeiro: 10 noites de semana a 200 e 4 de fim de semana a 300
+        long total = tabela.cotar(ETipoQuarto.DOUBLE, LocalDate.of(2030, 1, 1).toEpochDay(),
+                LocalDate.of(2030, 1, 15).toEpochDay(), 10_000);
+
+        assertThat(total).isEqualTo(320_000);
+    }
+
+    @Test
+    void diaSemana_deveCoincidirComLocalDate() {
+        for (var dia = LocalDate.of(1969, 12, 25); dia.isBefore(LocalDate.of(1970, 1, 15)); dia = dia.plusDays(1)) {
+            assertThat(TabelaTarifas.diaSemana(dia.toEpochDay())).isEqualTo(dia.getDayOfWeek().ordinal());
+        }
+        assertThat(TabelaTarifas.diaSemana(SEXTA.toEpochDay())).isEqualTo(DayOfWeek.FRIDAY.ordinal());
+    }
+
+    @Test
+    void aoGravar_deveRecompilarDepoisDoCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sincronizacao.aoGravar(plano(3, ETipoQuarto.SINGLE, SEXTA, SEXTA.plusDays(6), "90", 0));
+
+            assertThat(tabela.valorTotal(quarto(ETipoQuarto.SINGLE, "100"), SEXTA, SEXTA.plusDays(2)))
+                    .isEqualByComparingTo("200");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(tabela.valorTotal(quarto(ETipoQuarto.SINGLE, "100"), SEXTA, SEXTA.plusDays(2)))
+                    .isEqualByComparingTo("180");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void aoRemover_deveVoltarAoPlanoDeMenorPrioridade() {
+        sincronizacao.aoRemover(plano(2, ETipoQuarto.DOUBLE, LocalDate.of(2030, 1, 20), LocalDate.of(2030, 1, 26), "400", 1));
+
+        // 21 de janeiro é uma segunda-feira
+        var total = tabela.valorTotal(quarto(ETipoQuarto.DOUBLE, "100"),
+                LocalDate.of(2030, 1, 21), LocalDate.of(2030, 1, 22));
+
+        assertThat(total).isEqualByComparingTo("200");
+    }
+
+    private static PlanoTarifa plano(Integer id, ETipoQuarto tipo, LocalDate inicio, LocalDate fim,
+                                     String valor, int prioridade) {
+        var plano = new PlanoTarifa();
+        plano.setId(id);
+        plano.setNome("Plano " + id);
+        plano.setTipoQuarto(tipo);
+        plano.setInicio(inicio);
+        plano.setFim(fim);
+        plano.setValor(new BigDecimal(valor));
+        plano.setPrioridade(prioridade);
+        return plano;
+    }
+
+    private static Quarto quarto(ETipoQuarto tipo, String valor) {
+        var quarto = new Quarto(1);
+        quarto.setTipoQuarto(tipo);
+        quarto.setValor(new BigDecimal(valor));
+        return quarto;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hotel.service;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Gerenciador de transação sem banco para os testes de serviço: não grava nada,
+ * mas executa as sincronizações de commit e rollback como um gerenciador real.
+ * Com {@link #falharNoCommit} os próximos commits lançam as exceções informadas,
+ * como o flush da sessão faria ao gravar as alterações.
+ */
+public class TransacaoEmMemoria extends AbstractPlatformTransactionManager {
+
+    private final Queue<RuntimeException> falhas = new ArrayDeque<>();
+
+    public void falharNoCommit(RuntimeException... excecoes) {
+        falhas.addAll(Arrays.asList(excecoes));
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        var falha = falhas.poll();
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}